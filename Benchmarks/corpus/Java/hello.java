@@ -0,0 +1,5 @@
+public class Solution {
+  public static void main(final String[] args) {
+    System.out.println("Hello world!");
+  }
+}
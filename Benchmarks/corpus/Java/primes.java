@@ -0,0 +1,31 @@
+import java.util.ArrayList;
+import java.util.List;
+
+public class Solution {
+  public static void main(final String[] args) {
+    final List<Integer> primes = new ArrayList<>();
+
+    for (int candidate = 2; primes.size() < 2000; candidate++) {
+      boolean prime = true;
+
+      for (final int divisor : primes) {
+        if (divisor * divisor > candidate) {
+          break;
+        }
+
+        if (candidate % divisor == 0) {
+          prime = false;
+          break;
+        }
+      }
+
+      if (prime) {
+        primes.add(candidate);
+      }
+    }
+
+    for (int i = 0; i < primes.size(); i += 100) {
+      System.out.println(i + ": " + primes.get(i));
+    }
+  }
+}
@@ -0,0 +1,7 @@
+function fibonacci(n) {
+  return n < 2 ? n : fibonacci(n - 1) + fibonacci(n - 2);
+}
+
+for (var i = 0; i < 25; i++) {
+  print(i + ": " + fibonacci(i));
+}
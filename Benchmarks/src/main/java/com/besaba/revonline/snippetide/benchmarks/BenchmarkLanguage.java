@@ -0,0 +1,34 @@
+package com.besaba.revonline.snippetide.benchmarks;
+
+import com.besaba.revonline.snippetide.api.datashare.StructureDataContainer;
+import com.besaba.revonline.snippetide.api.language.Language;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The language of the plugins created by {@link JarPluginManagerBenchmark}
+ */
+public class BenchmarkLanguage implements Language {
+  @NotNull
+  @Override
+  public String getName() {
+    return "Benchmark";
+  }
+
+  @NotNull
+  @Override
+  public String[] getExtensions() {
+    return new String[] {".bench"};
+  }
+
+  @NotNull
+  @Override
+  public String getTemplate() {
+    return "";
+  }
+
+  @NotNull
+  @Override
+  public StructureDataContainer[] getRunConfigurations() {
+    return new StructureDataContainer[0];
+  }
+}
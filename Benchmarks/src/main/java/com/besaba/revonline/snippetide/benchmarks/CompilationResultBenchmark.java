@@ -0,0 +1,55 @@
+package com.besaba.revonline.snippetide.benchmarks;
+
+import com.besaba.revonline.snippetide.api.compiler.CompilationProblem;
+import com.besaba.revonline.snippetide.api.compiler.CompilationProblemBuilder;
+import com.besaba.revonline.snippetide.api.compiler.CompilationProblemType;
+import com.besaba.revonline.snippetide.api.compiler.CompilationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the result of a compilation with N problems, half errors and half warnings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompilationResultBenchmark {
+  @Param({"0", "10", "1000"})
+  public int problems;
+
+  private List<CompilationProblem> compilationProblems;
+
+  @Setup
+  public void setUp() {
+    compilationProblems = new ArrayList<>(problems);
+
+    for (int i = 0; i < problems; i++) {
+      compilationProblems.add(new CompilationProblemBuilder()
+          .setLine(i)
+          .setMessage("cannot find symbol " + i)
+          .setType(i % 2 == 0 ? CompilationProblemType.Error : CompilationProblemType.Warning)
+          .createCompilationProblem());
+    }
+  }
+
+  @Benchmark
+  public CompilationResult create() {
+    return new CompilationResult(compilationProblems);
+  }
+}
@@ -0,0 +1,80 @@
+package com.besaba.revonline.snippetide.benchmarks;
+
+import com.besaba.revonline.snippetide.api.events.Event;
+import com.besaba.revonline.snippetide.api.events.boot.UnBootEvent;
+import com.besaba.revonline.snippetide.events.manager.impl.EventBusEventManager;
+import com.google.common.eventbus.Subscribe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posts an event (in the same thread) when the event manager
+ * has N listeners, like the languages and the share services
+ * of the plugins and the open IDE windows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventManagerBenchmark {
+  @Param({"1", "10", "100"})
+  public int listeners;
+
+  private EventBusEventManager eventManager;
+  private BenchmarkEvent event;
+
+  @Setup
+  public void setUp() {
+    eventManager = new EventBusEventManager();
+    event = new BenchmarkEvent();
+
+    for (int i = 0; i < listeners; i++) {
+      eventManager.registerListener(new Listener());
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    // stops the thread of the event manager
+    eventManager.post(new UnBootEvent());
+  }
+
+  @Benchmark
+  public void post() {
+    eventManager.post(event);
+  }
+
+  public static class BenchmarkEvent extends Event<Void> {
+    public BenchmarkEvent() {
+      super(null, false);
+    }
+  }
+
+  public static class Listener {
+    private long received;
+
+    @Subscribe
+    public void onEvent(final BenchmarkEvent event) {
+      // the languages check the target before doing anything
+      if (event.getTarget() != null) {
+        return;
+      }
+
+      received++;
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package com.besaba.revonline.snippetide.benchmarks;
+
+import com.besaba.revonline.snippetide.api.plugins.Plugin;
+import com.besaba.revonline.snippetide.api.plugins.Version;
+import com.besaba.revonline.snippetide.plugins.JarPluginManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Loads a generated plugin jar with N languages and some padding
+ * entries, like the jars of the plugins which bundle their libraries.
+ *
+ * <p>The language class is on the classpath of the benchmark, so it's
+ * loaded once and what is measured is the work of the plugin manager
+ * (opening the jar, reading and parsing the manifest, creating the languages).</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JarPluginManagerBenchmark {
+  @Param({"1", "10"})
+  public int languages;
+
+  @Param({"10", "1000"})
+  public int entries;
+
+  private final Version ideVersion = Version.parse("0.1");
+  private Path directory;
+  private Path plugin;
+
+  @Setup
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("plugins-benchmark");
+    plugin = directory.resolve("BenchmarkPlugin.jar");
+    writePlugin(plugin, languages, entries);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    Files.deleteIfExists(plugin);
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  public Plugin loadPlugin() {
+    // a manager refuses to load the same plugin twice
+    return new JarPluginManager().loadPlugin(plugin, ideVersion);
+  }
+
+  private static void writePlugin(final Path file, final int languages, final int entries) throws IOException {
+    final StringBuilder manifest = new StringBuilder()
+        .append("{\n")
+        .append("  \"name\": \"Benchmark plugin\",\n")
+        .append("  \"description\": \"Generated by the benchmarks\",\n")
+        .append("  \"version\": \"1.0\",\n")
+        .append("  \"minSupportedVersion\": \"0.1\",\n")
+        .append("  \"authors\": [\"SnippetIDE\"],\n")
+        .append("  \"languages\": [");
+
+    for (int i = 0; i < languages; i++) {
+      manifest.append(i == 0 ? "" : ", ").append('"').append(BenchmarkLanguage.class.getName()).append('"');
+    }
+
+    manifest.append("]\n}");
+
+    try (final OutputStream output = Files.newOutputStream(file);
+         final JarOutputStream jar = new JarOutputStream(output)) {
+      for (int i = 0; i < entries; i++) {
+        jar.putNextEntry(new JarEntry("padding/Entry" + i + ".txt"));
+        jar.write(("entry " + i).getBytes(StandardCharsets.UTF_8));
+        jar.closeEntry();
+      }
+
+      jar.putNextEntry(new JarEntry("manifest.json"));
+      jar.write(manifest.toString().getBytes(StandardCharsets.UTF_8));
+      jar.closeEntry();
+    }
+  }
+}
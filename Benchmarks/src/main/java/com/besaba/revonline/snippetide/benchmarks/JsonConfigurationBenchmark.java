@@ -0,0 +1,79 @@
+package com.besaba.revonline.snippetide.benchmarks;
+
+import com.besaba.revonline.snippetide.configuration.JsonConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads, saves and reads a configuration as big as the one
+ * of a user with some plugins and run configurations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonConfigurationBenchmark {
+  /**
+   * How many sections the configuration has, every section has 10 entries
+   */
+  @Param({"10", "100"})
+  public int sections;
+
+  private byte[] json;
+  private JsonConfiguration configuration;
+  private String lastEntry;
+
+  @Setup
+  public void setUp() throws Exception {
+    final JsonConfiguration source = new JsonConfiguration();
+
+    for (int section = 0; section < sections; section++) {
+      for (int entry = 0; entry < 10; entry++) {
+        source.set("section" + section + ".entry" + entry, "value " + section + " " + entry);
+      }
+    }
+
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    source.save(output);
+    json = output.toByteArray();
+
+    configuration = new JsonConfiguration();
+    configuration.load(new ByteArrayInputStream(json));
+    lastEntry = "section" + (sections - 1) + ".entry9";
+  }
+
+  @Benchmark
+  public JsonConfiguration load() throws Exception {
+    final JsonConfiguration loaded = new JsonConfiguration();
+    loaded.load(new ByteArrayInputStream(json));
+    return loaded;
+  }
+
+  @Benchmark
+  public byte[] save() throws Exception {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream(json.length);
+    configuration.save(output);
+    return output.toByteArray();
+  }
+
+  @Benchmark
+  public Optional<String> getAsString() {
+    return configuration.getAsString(lastEntry);
+  }
+}
@@ -0,0 +1,105 @@
+package com.besaba.revonline.snippetide.benchmarks;
+
+import com.besaba.revonline.snippetide.api.application.IDEApplicationLauncher;
+import com.besaba.revonline.snippetide.application.IDEApplicationImpl;
+import com.besaba.revonline.snippetide.configuration.JsonConfiguration;
+import com.besaba.revonline.snippetide.configuration.contract.ConfigurationSettingsContract;
+import com.besaba.revonline.snippetide.events.manager.impl.EventBusEventManager;
+import com.besaba.revonline.snippetide.keymap.Action;
+import com.besaba.revonline.snippetide.keymap.Keymap;
+import com.besaba.revonline.snippetide.plugins.JarPluginManager;
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keymap.match is invoked for every key pressed in the editor.
+ *
+ * <p>It needs the JavaFX toolkit (KeyCombination asks it for the
+ * shortcut key of the platform), so it must be run with a display.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeymapBenchmark {
+  private KeyEvent compile;
+  private KeyEvent run;
+  private KeyEvent typing;
+
+  @Setup
+  public void setUp() throws Exception {
+    // starts the JavaFX toolkit
+    new JFXPanel();
+
+    final Path directory = Files.createTempDirectory("keymap-benchmark");
+    final JsonConfiguration configuration = new JsonConfiguration();
+    configuration.set(ConfigurationSettingsContract.Keymap.COMPILE_QUERY, "Shortcut+B");
+    configuration.set(ConfigurationSettingsContract.Keymap.RUN_QUERY, "Shortcut+R");
+
+    IDEApplicationLauncher.createApplication(new IDEApplicationImpl(
+        new EventBusEventManager(),
+        new JarPluginManager(),
+        directory,
+        directory.resolve("plugins"),
+        directory.resolve("temp"),
+        configuration,
+        directory.resolve("settings.json"),
+        directory.resolve("default_settings.json")
+    ));
+
+    compile = keyPressed(KeyCode.B, true);
+    run = keyPressed(KeyCode.R, true);
+    typing = keyPressed(KeyCode.A, false);
+
+    // the combinations are read from the configuration only the first time
+    Keymap.getCombination(Action.Compile);
+    Keymap.getCombination(Action.Run);
+  }
+
+  @Benchmark
+  public Action matchFirstAction() {
+    return Keymap.match(compile);
+  }
+
+  @Benchmark
+  public Action matchLastAction() {
+    return Keymap.match(run);
+  }
+
+  @Benchmark
+  public Action noMatch() {
+    return Keymap.match(typing);
+  }
+
+  private static KeyEvent keyPressed(final KeyCode code, final boolean shortcut) {
+    final boolean mac = System.getProperty("os.name").toLowerCase().startsWith("mac");
+
+    return new KeyEvent(
+        KeyEvent.KEY_PRESSED,
+        "",
+        "",
+        code,
+        false,
+        shortcut && !mac,
+        false,
+        shortcut && mac
+    );
+  }
+}
@@ -0,0 +1,53 @@
+package com.besaba.revonline.snippetide.benchmarks;
+
+import com.besaba.revonline.snippetide.api.plugins.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Version is parsed and compared for every plugin during the boot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionBenchmark {
+  // the fields aren't final, so the JIT can't fold them
+  private String simple = "1.0";
+  private String withMetadata = "0.1.3+alpha5";
+  private Version older;
+  private Version newer;
+
+  @Setup
+  public void setUp() {
+    older = Version.parse("0.1.3+alpha5");
+    newer = Version.parse("0.1.4");
+  }
+
+  @Benchmark
+  public Version parseSimple() {
+    return Version.parse(simple);
+  }
+
+  @Benchmark
+  public Version parseWithMetadata() {
+    return Version.parse(withMetadata);
+  }
+
+  @Benchmark
+  public int compareTo() {
+    return older.compareTo(newer);
+  }
+}
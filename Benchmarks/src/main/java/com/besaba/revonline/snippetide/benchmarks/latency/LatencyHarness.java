@@ -0,0 +1,327 @@
+package com.besaba.revonline.snippetide.benchmarks.latency;
+
+import com.besaba.revonline.snippetide.api.application.IDEApplication;
+import com.besaba.revonline.snippetide.api.datashare.DataContainer;
+import com.besaba.revonline.snippetide.api.datashare.StructureDataContainer;
+import com.besaba.revonline.snippetide.api.events.SessionId;
+import com.besaba.revonline.snippetide.api.events.compile.CompileStartEventBuilder;
+import com.besaba.revonline.snippetide.api.events.manager.EventManager;
+import com.besaba.revonline.snippetide.api.events.run.RunStartEvent;
+import com.besaba.revonline.snippetide.api.language.Language;
+import com.besaba.revonline.snippetide.api.plugins.Plugin;
+import com.besaba.revonline.snippetide.api.run.ResourceUsage;
+import com.besaba.revonline.snippetide.boot.Boot;
+import com.besaba.revonline.snippetide.language.EventLanguageAdapter;
+import com.google.gson.GsonBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures what the user waits for: from CompileStartEvent to CompileFinishedEvent,
+ * and from RunStartEvent to the first output and to the end of the run.
+ *
+ * <p>The application is booted without any window with the plugins of the given
+ * directory, then every snippet of the corpus is compiled and run a few times
+ * through the events, exactly like a window of the IDE does.
+ * The corpus has a directory for every language, named as the language
+ * (Java, Javascript, Markdown...), the languages without a directory are skipped.</p>
+ *
+ * <p>A language can keep the last compile of a session and skip the compile of the same source:
+ * every measured compile has a new session, so it's a real one, then it's repeated in the same
+ * session and measured apart as a cached compile.</p>
+ *
+ * <p>Usage: LatencyHarness pluginsDirectory corpusDirectory [iterations] [warmupIterations]</p>
+ */
+public class LatencyHarness {
+  private static final int DEFAULT_ITERATIONS = 20;
+  private static final int DEFAULT_WARMUP_ITERATIONS = 3;
+  private static final long TIMEOUT_SECONDS = 30;
+  private static final long QUIET_PERIOD_MILLISECONDS = 500;
+  private static final String REPORT_FILE_NAME = "latency-report.json";
+
+  private static final String COMPILE_MEASURE = "compile";
+  private static final String CACHED_COMPILE_MEASURE = "compile cached";
+  private static final String FIRST_OUTPUT_MEASURE = "first output";
+  private static final String RUN_END_MEASURE = "run end";
+  private static final String RUN_CPU_MEASURE = "run cpu";
+
+  @NotNull
+  private final IDEApplication application;
+  @NotNull
+  private final Path corpusDirectory;
+  private final int iterations;
+  private final int warmupIterations;
+  @NotNull
+  private final LatencyProbe probe;
+  @NotNull
+  private final Map<String, LatencyStats> stats = new LinkedHashMap<>();
+
+  private LatencyHarness(@NotNull final IDEApplication application,
+                         @NotNull final Path corpusDirectory,
+                         final int iterations,
+                         final int warmupIterations) {
+    this.application = application;
+    this.corpusDirectory = corpusDirectory;
+    this.iterations = iterations;
+    this.warmupIterations = warmupIterations;
+    this.probe = new LatencyProbe(application.getEventManager());
+  }
+
+  public static void main(final String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println("Usage: LatencyHarness pluginsDirectory corpusDirectory [iterations] [warmupIterations]");
+      System.exit(1);
+    }
+
+    final Path pluginsDirectory = Paths.get(args[0]);
+    final Path corpusDirectory = Paths.get(args[1]);
+    final int iterations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ITERATIONS;
+    final int warmupIterations = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_WARMUP_ITERATIONS;
+
+    // a new application directory, so the configuration of the user is never touched
+    final Path applicationDirectory = Files.createTempDirectory("snippetide-latency");
+    copyPlugins(pluginsDirectory, applicationDirectory.resolve("plugins"));
+    Files.write(applicationDirectory.resolve("default_settings.json"), "{}".getBytes(StandardCharsets.UTF_8));
+
+    final Boot boot = new Boot();
+    final IDEApplication application = boot.boot(applicationDirectory, null, null, null);
+    final List<LatencyStats.Summary> summaries;
+
+    try {
+      summaries = new LatencyHarness(application, corpusDirectory, iterations, warmupIterations).measure();
+    } finally {
+      boot.unboot();
+    }
+
+    summaries.forEach(System.out::println);
+    writeReport(summaries, Paths.get(REPORT_FILE_NAME));
+    deleteRecursively(applicationDirectory);
+
+    // the plugins could have left non daemon threads around
+    System.exit(0);
+  }
+
+  @NotNull
+  private List<LatencyStats.Summary> measure() throws IOException, InterruptedException {
+    final EventManager eventManager = application.getEventManager();
+    eventManager.registerListener(probe);
+
+    try {
+      for (final Plugin plugin : application.getPluginManager().getPlugins()) {
+        for (final Language language : plugin.getLanguages()) {
+          final Path languageCorpus = corpusDirectory.resolve(language.getName());
+
+          if (Files.isDirectory(languageCorpus)) {
+            measureLanguage(language, languageCorpus);
+          }
+        }
+      }
+    } finally {
+      probe.stopRun();
+      eventManager.unregisterListener(probe);
+    }
+
+    final List<LatencyStats.Summary> summaries = new ArrayList<>();
+    stats.forEach((key, value) -> {
+      final String[] languageAndMeasure = key.split("/", 2);
+      summaries.add(value.summarize(languageAndMeasure[0], languageAndMeasure[1]));
+    });
+    return summaries;
+  }
+
+  private void measureLanguage(@NotNull final Language language, @NotNull final Path languageCorpus)
+      throws IOException, InterruptedException {
+    final Path workingDirectory = Files.createTempDirectory(application.getTemporaryDirectory(), language.getName());
+    // the same name used by the windows of the IDE, Java needs the name of the class
+    final Path sourceFile = workingDirectory.resolve("Solution" + language.getExtensions()[0]);
+    final DataContainer runConfiguration = defaultRunConfiguration(language);
+    // Markdown and Javascript are never compiled, they would never answer
+    boolean compileSupported = EventLanguageAdapter.needsCompile(language);
+
+    for (final Path snippet : listSnippets(languageCorpus)) {
+      Files.copy(snippet, sourceFile, StandardCopyOption.REPLACE_EXISTING);
+
+      for (int iteration = 0; iteration < warmupIterations + iterations; iteration++) {
+        final boolean warmup = iteration < warmupIterations;
+
+        if (compileSupported) {
+          compileSupported = measureCompile(language, sourceFile, workingDirectory, warmup);
+        }
+
+        if (!measureRun(language, sourceFile, workingDirectory, runConfiguration, warmup)) {
+          // every other run of the snippet would wait for the timeout too
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return false if the compile didn't end within the timeout
+   */
+  private boolean measureCompile(@NotNull final Language language,
+                                 @NotNull final Path sourceFile,
+                                 @NotNull final Path outputDirectory,
+                                 final boolean warmup) throws InterruptedException {
+    // nothing has been compiled in a new session
+    final SessionId sessionId = SessionId.create();
+
+    return measureCompile(language, sourceFile, outputDirectory, sessionId, COMPILE_MEASURE, warmup)
+        && measureCompile(language, sourceFile, outputDirectory, sessionId, CACHED_COMPILE_MEASURE, warmup);
+  }
+
+  private boolean measureCompile(@NotNull final Language language,
+                                 @NotNull final Path sourceFile,
+                                 @NotNull final Path outputDirectory,
+                                 @NotNull final SessionId sessionId,
+                                 @NotNull final String measure,
+                                 final boolean warmup) throws InterruptedException {
+    probe.expectCompile(language, sessionId);
+
+    final long start = System.nanoTime();
+    application.getEventManager().post(new CompileStartEventBuilder()
+        .setTarget(language)
+        .setSourceFile(sourceFile)
+        .setOutputDirectory(outputDirectory)
+        .setSessionId(sessionId)
+        .build());
+    final long end = probe.awaitCompile(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+    if (end < 0) {
+      if (!warmup) {
+        getStats(language, measure).addFailure();
+      }
+
+      // every other compile would wait for the timeout too
+      return false;
+    }
+
+    if (!warmup) {
+      getStats(language, measure).add(end - start);
+    }
+
+    return true;
+  }
+
+  /**
+   * @return false if the run didn't end within the timeout
+   */
+  private boolean measureRun(@NotNull final Language language,
+                             @NotNull final Path sourceFile,
+                             @NotNull final Path temporaryDirectory,
+                             @NotNull final DataContainer runConfiguration,
+                             final boolean warmup) throws InterruptedException {
+    probe.expectRun();
+
+    final long start = System.nanoTime();
+    application.getEventManager().post(new RunStartEvent(language, sourceFile, temporaryDirectory, runConfiguration, probe.getSessionId()));
+    final long end = probe.awaitRunEnd(TIMEOUT_SECONDS, TimeUnit.SECONDS, QUIET_PERIOD_MILLISECONDS, TimeUnit.MILLISECONDS);
+    final long firstMessage = probe.getFirstMessageAt();
+    final ResourceUsage resourceUsage = probe.getResourceUsage();
+    probe.stopRun();
+
+    if (warmup) {
+      return end >= 0;
+    }
+
+    if (firstMessage >= 0) {
+      getStats(language, FIRST_OUTPUT_MEASURE).add(firstMessage - start);
+    } else {
+      getStats(language, FIRST_OUTPUT_MEASURE).addFailure();
+    }
+
+    if (end >= 0) {
+      getStats(language, RUN_END_MEASURE).add(end - start);
+    } else {
+      getStats(language, RUN_END_MEASURE).addFailure();
+    }
+
+    // only the snippets run in an external process on Linux are measured
+    if (resourceUsage != null && resourceUsage.hasProcessStatistics()) {
+      getStats(language, RUN_CPU_MEASURE).add(TimeUnit.MILLISECONDS.toNanos(
+          resourceUsage.getUserCpuMillis() + resourceUsage.getSystemCpuMillis()
+      ));
+    }
+
+    return end >= 0;
+  }
+
+  @NotNull
+  private LatencyStats getStats(@NotNull final Language language, @NotNull final String measure) {
+    return stats.computeIfAbsent(language.getName() + "/" + measure, key -> new LatencyStats());
+  }
+
+  /**
+   * The values the IDE shows when the run configuration is created
+   */
+  @NotNull
+  private static DataContainer defaultRunConfiguration(@NotNull final Language language) {
+    final StructureDataContainer[] runConfigurations = language.getRunConfigurations();
+
+    if (runConfigurations.length == 0) {
+      return new DataContainer(-1, Collections.emptyMap());
+    }
+
+    final Map<String, Object> values = new HashMap<>();
+    runConfigurations[0].getFields().forEach((name, field) -> values.put(name, field.getDefaultValue()));
+    return new DataContainer(runConfigurations[0].getId(), values);
+  }
+
+  @NotNull
+  private static List<Path> listSnippets(@NotNull final Path directory) throws IOException {
+    final List<Path> snippets = new ArrayList<>();
+
+    try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      stream.forEach(snippets::add);
+    }
+
+    Collections.sort(snippets);
+    return snippets;
+  }
+
+  private static void copyPlugins(@NotNull final Path source, @NotNull final Path destination) throws IOException {
+    Files.createDirectories(destination);
+
+    try (final DirectoryStream<Path> plugins = Files.newDirectoryStream(source, "*.jar")) {
+      for (final Path plugin : plugins) {
+        Files.copy(plugin, destination.resolve(plugin.getFileName()));
+      }
+    }
+  }
+
+  private static void deleteRecursively(@NotNull final Path directory) throws IOException {
+    final List<Path> paths = new ArrayList<>();
+
+    try (final Stream<Path> stream = Files.walk(directory)) {
+      stream.sorted(Comparator.reverseOrder()).forEach(paths::add);
+    }
+
+    for (final Path path : paths) {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  private static void writeReport(@NotNull final List<LatencyStats.Summary> summaries, @NotNull final Path file)
+      throws IOException {
+    try (final Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      new GsonBuilder().setPrettyPrinting().create().toJson(summaries, writer);
+    }
+  }
+}
@@ -0,0 +1,203 @@
+package com.besaba.revonline.snippetide.benchmarks.latency;
+
+import com.besaba.revonline.snippetide.api.events.SessionId;
+import com.besaba.revonline.snippetide.api.events.compile.CompileFinishedEvent;
+import com.besaba.revonline.snippetide.api.events.manager.EventManager;
+import com.besaba.revonline.snippetide.api.events.run.MessageFromProcess;
+import com.besaba.revonline.snippetide.api.events.run.RunFinishedEvent;
+import com.besaba.revonline.snippetide.api.events.run.RunInformationEvent;
+import com.besaba.revonline.snippetide.api.language.Language;
+import com.besaba.revonline.snippetide.api.run.ResourceUsage;
+import com.besaba.revonline.snippetide.run.RunSnippet;
+import com.google.common.eventbus.Subscribe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listens to the events a window of the IDE listens to,
+ * and takes the time when they are received.
+ *
+ * <p>Like the IDE, when a language asks for an external process
+ * the probe runs it with a {@link RunSnippet}. The process has ended when
+ * RunSnippet posts RunFinishedEvent, while the languages which run the
+ * snippet by themselves don't tell when they have finished: their run
+ * is considered ended when no message arrives for a quiet period,
+ * at the time of the last message.</p>
+ *
+ * <p>The probe has a session, like a window, and ignores the events of the other sessions.
+ * Only a compile can be expected in another session.</p>
+ */
+class LatencyProbe {
+  private static final String EXIT_MESSAGE_PREFIX = "Process finished with exit code";
+
+  @NotNull
+  private final EventManager eventManager;
+  @NotNull
+  private final SessionId sessionId = SessionId.create();
+
+  @Nullable
+  private Language expectedCompile;
+  @Nullable
+  private SessionId expectedCompileSession;
+  private long compileFinishedAt;
+
+  @Nullable
+  private RunSnippet externalRun;
+  private boolean runStarted;
+  private long firstMessageAt;
+  private long lastMessageAt;
+  private long exitAt;
+  @Nullable
+  private ResourceUsage resourceUsage;
+
+  LatencyProbe(@NotNull final EventManager eventManager) {
+    this.eventManager = eventManager;
+  }
+
+  @NotNull
+  SessionId getSessionId() {
+    return sessionId;
+  }
+
+  synchronized void expectCompile(@NotNull final Language language, @NotNull final SessionId compileSession) {
+    expectedCompile = language;
+    expectedCompileSession = compileSession;
+    compileFinishedAt = -1;
+  }
+
+  /**
+   * @return When the compile finished (System.nanoTime()), -1 if it didn't within the timeout
+   */
+  synchronized long awaitCompile(final long timeout, @NotNull final TimeUnit unit) throws InterruptedException {
+    final long end = System.nanoTime() + unit.toNanos(timeout);
+
+    while (compileFinishedAt < 0 && System.nanoTime() < end) {
+      TimeUnit.NANOSECONDS.timedWait(this, end - System.nanoTime());
+    }
+
+    expectedCompile = null;
+    expectedCompileSession = null;
+    return compileFinishedAt;
+  }
+
+  synchronized void expectRun() {
+    runStarted = false;
+    firstMessageAt = -1;
+    lastMessageAt = -1;
+    exitAt = -1;
+    resourceUsage = null;
+  }
+
+  /**
+   * Waits until the run ends.
+   *
+   * @return When the run ended (System.nanoTime()), -1 if it didn't within the timeout
+   */
+  synchronized long awaitRunEnd(final long timeout,
+                                @NotNull final TimeUnit unit,
+                                final long quietPeriod,
+                                @NotNull final TimeUnit quietPeriodUnit) throws InterruptedException {
+    final long end = System.nanoTime() + unit.toNanos(timeout);
+    final long quietNanos = quietPeriodUnit.toNanos(quietPeriod);
+
+    while (System.nanoTime() < end) {
+      if (exitAt >= 0) {
+        return exitAt;
+      }
+
+      if (runStarted && externalRun == null && lastMessageAt >= 0 && System.nanoTime() - lastMessageAt >= quietNanos) {
+        return lastMessageAt;
+      }
+
+      TimeUnit.NANOSECONDS.timedWait(this, Math.min(quietNanos, end - System.nanoTime()));
+    }
+
+    return -1;
+  }
+
+  /**
+   * @return When the first line written by the snippet arrived, -1 if it wrote nothing
+   */
+  synchronized long getFirstMessageAt() {
+    return firstMessageAt;
+  }
+
+  /**
+   * @return What the external process of the last run used, null if there wasn't one or it didn't end
+   */
+  @Nullable
+  synchronized ResourceUsage getResourceUsage() {
+    return resourceUsage;
+  }
+
+  /**
+   * Stops the external process of the last run, if it's still running
+   */
+  synchronized void stopRun() {
+    if (externalRun != null) {
+      externalRun.stop();
+      externalRun = null;
+    }
+  }
+
+  @Subscribe
+  public synchronized void onCompileFinished(final CompileFinishedEvent event) {
+    if (expectedCompile == null || event.getTarget() != expectedCompile || !event.getSessionId().equals(expectedCompileSession)) {
+      return;
+    }
+
+    compileFinishedAt = System.nanoTime();
+    notifyAll();
+  }
+
+  @Subscribe
+  public synchronized void onRunInformation(final RunInformationEvent event) {
+    if (!sessionId.equals(event.getSessionId())) {
+      return;
+    }
+
+    runStarted = true;
+
+    if (!event.needExternalProcess()) {
+      return;
+    }
+
+    stopRun();
+    externalRun = new RunSnippet(event, eventManager);
+    externalRun.start();
+  }
+
+  @Subscribe
+  public synchronized void onMessageFromProcess(final MessageFromProcess message) {
+    if (!sessionId.equals(message.getSessionId())) {
+      return;
+    }
+
+    // the exit message isn't written by the snippet
+    if (externalRun != null && message.getMessage().startsWith(EXIT_MESSAGE_PREFIX)) {
+      return;
+    }
+
+    final long now = System.nanoTime();
+
+    if (firstMessageAt < 0) {
+      firstMessageAt = now;
+    }
+
+    lastMessageAt = now;
+    notifyAll();
+  }
+
+  @Subscribe
+  public synchronized void onRunFinished(final RunFinishedEvent event) {
+    if (!sessionId.equals(event.getSessionId()) || externalRun == null) {
+      return;
+    }
+
+    exitAt = System.nanoTime();
+    resourceUsage = event.getResourceUsage();
+    notifyAll();
+  }
+}
@@ -0,0 +1,110 @@
+package com.besaba.revonline.snippetide.benchmarks.latency;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latencies of one measure (for example the compile of the Java snippets)
+ */
+class LatencyStats {
+  @NotNull
+  private final List<Long> samples = new ArrayList<>();
+  private int failures;
+
+  void add(final long nanos) {
+    samples.add(nanos);
+  }
+
+  /**
+   * The operation didn't complete (timeout or error)
+   */
+  void addFailure() {
+    failures++;
+  }
+
+  int getCount() {
+    return samples.size();
+  }
+
+  int getFailures() {
+    return failures;
+  }
+
+  /**
+   * @param percentile Between 0 and 100
+   * @return The latency in milliseconds (nearest rank), 0 if there are no samples
+   */
+  double getPercentile(final double percentile) {
+    if (samples.isEmpty()) {
+      return 0;
+    }
+
+    final List<Long> sorted = new ArrayList<>(samples);
+    Collections.sort(sorted);
+
+    final int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+    return toMillis(sorted.get(Math.max(rank, 1) - 1));
+  }
+
+  @NotNull
+  Summary summarize(@NotNull final String language, @NotNull final String measure) {
+    return new Summary(
+        language,
+        measure,
+        getCount(),
+        failures,
+        getPercentile(50),
+        getPercentile(90),
+        getPercentile(99),
+        getPercentile(100)
+    );
+  }
+
+  private static double toMillis(final long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  /**
+   * What is printed and written in the report, the times are in milliseconds
+   */
+  static class Summary {
+    private final String language;
+    private final String measure;
+    private final int count;
+    private final int failures;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+    private final double max;
+
+    Summary(final String language,
+            final String measure,
+            final int count,
+            final int failures,
+            final double p50,
+            final double p90,
+            final double p99,
+            final double max) {
+      this.language = language;
+      this.measure = measure;
+      this.count = count;
+      this.failures = failures;
+      this.p50 = p50;
+      this.p90 = p90;
+      this.p99 = p99;
+      this.max = max;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%-12s %-13s n=%-5d failed=%-3d p50=%9.2fms p90=%9.2fms p99=%9.2fms max=%9.2fms",
+          language, measure, count, failures, p50, p90, p99, max
+      );
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.besaba.revonline.snippetide.lang.java;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * javac can't be stopped, but it asks the file manager for every package it
+ * looks up and for every file it writes: when the compile is cancelled
+ * the file manager throws and javac gives up.
+ *
+ * <p>It also remembers the class files written, so they can be copied somewhere else.</p>
+ */
+class CancellableFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+  private final BooleanSupplier cancelled;
+  private final List<Path> outputFiles = new ArrayList<>();
+
+  CancellableFileManager(final StandardJavaFileManager fileManager, final BooleanSupplier cancelled) {
+    super(fileManager);
+    this.cancelled = cancelled;
+  }
+
+  @Override
+  public Iterable<JavaFileObject> list(final Location location,
+                                       final String packageName,
+                                       final Set<JavaFileObject.Kind> kinds,
+                                       final boolean recurse) throws IOException {
+    checkCancelled();
+    return super.list(location, packageName, kinds, recurse);
+  }
+
+  @Override
+  public JavaFileObject getJavaFileForInput(final Location location,
+                                            final String className,
+                                            final JavaFileObject.Kind kind) throws IOException {
+    checkCancelled();
+    return super.getJavaFileForInput(location, className, kind);
+  }
+
+  @Override
+  public JavaFileObject getJavaFileForOutput(final Location location,
+                                             final String className,
+                                             final JavaFileObject.Kind kind,
+                                             final FileObject sibling) throws IOException {
+    checkCancelled();
+
+    final JavaFileObject outputFile = super.getJavaFileForOutput(location, className, kind, sibling);
+    outputFiles.add(Paths.get(outputFile.toUri()));
+    return outputFile;
+  }
+
+  /**
+   * @return The files javac has written (or was going to write when it was cancelled)
+   */
+  List<Path> getOutputFiles() {
+    return outputFiles;
+  }
+
+  private void checkCancelled() {
+    if (cancelled.getAsBoolean()) {
+      throw new CompileCancelledException();
+    }
+  }
+
+  static class CompileCancelledException extends RuntimeException {
+    CompileCancelledException() {
+      super("A newer compile of the same snippet has been requested");
+    }
+  }
+}
@@ -6,38 +6,62 @@ import com.besaba.revonline.snippetide.api.compiler.CompilationProblem;
 import com.besaba.revonline.snippetide.api.compiler.CompilationProblemBuilder;
 import com.besaba.revonline.snippetide.api.compiler.CompilationProblemType;
 import com.besaba.revonline.snippetide.api.compiler.CompilationResult;
+import com.besaba.revonline.snippetide.api.events.SessionId;
+import com.besaba.revonline.snippetide.api.events.boot.UnBootEvent;
 import com.besaba.revonline.snippetide.api.events.compile.CompileFinishedEvent;
+import com.besaba.revonline.snippetide.api.events.compile.CompileProgressEvent;
 import com.besaba.revonline.snippetide.api.events.compile.CompileStartEvent;
 import com.besaba.revonline.snippetide.api.events.compile.CompileStartEventBuilder;
 import com.besaba.revonline.snippetide.api.events.run.MessageFromProcess;
 import com.besaba.revonline.snippetide.api.events.run.RunInformationEvent;
 import com.besaba.revonline.snippetide.api.events.run.RunStartEvent;
-import com.besaba.revonline.snippetide.api.language.Language;
+import com.besaba.revonline.snippetide.api.language.AsyncLanguage;
 import com.besaba.revonline.snippetide.api.datashare.StructureFieldInfo;
 import com.besaba.revonline.snippetide.api.datashare.StructureDataContainer;
 import com.besaba.revonline.snippetide.api.datashare.DataContainer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.eventbus.Subscribe;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.tools.Diagnostic;
-import javax.tools.DiagnosticCollector;
+import javax.tools.DiagnosticListener;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
 import java.io.File;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
-import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+public class JavaLanguage implements AsyncLanguage {
+  private static final Logger logger = Logger.getLogger(JavaLanguage.class);
 
-public class JavaLanguage implements Language {
   private static final int SIMPLE_RUN_CONFIGURATION_ID = 1;
+  // more than the windows usually open, the compile of a closed window is evicted by the newer ones
+  private static final int MAX_CACHED_COMPILES = 16;
 
   private final IDEApplication application = IDEApplicationLauncher.getIDEApplication();
   private final StructureDataContainer structureDataContainer = new StructureDataContainer.Builder(SIMPLE_RUN_CONFIGURATION_ID)
@@ -52,7 +76,21 @@ public class JavaLanguage implements Language {
           )
       )
       .create();
-  private Optional<RunStartEvent> runningInformation = Optional.empty();
+  // javac doesn't run in the thread which posted the event (the JavaFX one),
+  // so the IDE can show the problems while the compile is still running
+  private final ExecutorService compilerExecutor = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setNameFormat("JavaLang-Compiler").setDaemon(true).build()
+  );
+  // the last compile requests of every session, a request cancels the older ones of the same session.
+  // The requests waiting or running keep the generations of their session, the others are collected
+  private final ConcurrentMap<SessionId, Generations> generations = CacheBuilder.newBuilder()
+      .weakValues()
+      .<SessionId, Generations>build()
+      .asMap();
+  // the last compile of the most recent sessions, a session without SessionId has a new one for every compile
+  private final Cache<SessionId, CompiledSnippet> lastCompiles = CacheBuilder.newBuilder()
+      .maximumSize(MAX_CACHED_COMPILES)
+      .build();
 
   @NotNull
   public String getName() {
@@ -95,26 +133,90 @@ public class JavaLanguage implements Language {
       return;
     }
 
+    compile(event, problems -> postProgress(event, problems)).whenComplete((result, error) -> {
+      final CompilationResult answer = answerOf(event, result, error);
+
+      if (answer != null) {
+        application.getEventManager().post(new CompileFinishedEvent(this, event, answer));
+      }
+    });
+  }
+
+  @NotNull
+  @Override
+  public CompletableFuture<CompilationResult> compile(@NotNull final CompileStartEvent request,
+                                                      @NotNull final Consumer<List<CompilationProblem>> progress) {
+    final CompletableFuture<CompilationResult> future = new CompletableFuture<>();
+    final Generations sessionGenerations = generations.computeIfAbsent(request.getSessionId(), session -> new Generations());
+    final long generation = sessionGenerations.next(request.isBackground());
+
+    compilerExecutor.submit(() -> {
+      try {
+        compile(request, progress, sessionGenerations, generation, future);
+      } catch (RuntimeException | Error e) {
+        // javac can fail outside of the task too, like with a StackOverflowError
+        future.completeExceptionally(e);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * @param sessionGenerations The requests of the session, kept by the request until it has been compiled
+   * @param generation The request number, if a newer request of the session supersedes it
+   *                   (see Generations) the compile is skipped or stopped and the future is cancelled
+   */
+  private void compile(final CompileStartEvent event,
+                       final Consumer<List<CompilationProblem>> progress,
+                       final Generations sessionGenerations,
+                       final long generation,
+                       final CompletableFuture<CompilationResult> future) {
     final Path sourceFile = event.getSourceFile();
     final Path outputDirectory = event.getOutputDirectory();
+    final boolean background = event.isBackground();
+    final SessionId sessionId = event.getSessionId();
+    final BooleanSupplier superseded = () -> future.isCancelled() || sessionGenerations.isSuperseded(generation, background);
+
+    if (superseded.getAsBoolean()) {
+      // a newer request of the same snippet is already in the queue
+      future.cancel(false);
+      return;
+    }
+
+    final HashCode sourceHash = hashSource(sourceFile);
+
+    // already compiled, for example by the background compile while the user wasn't typing
+    final CompiledSnippet lastCompile = lastCompiles.getIfPresent(sessionId);
+    if (lastCompile != null && lastCompile.isCompiled(sourceFile, sourceHash)) {
+      final CompiledSnippet compiledSnippet = lastCompile.copyTo(sourceFile, outputDirectory);
+
+      if (compiledSnippet != null) {
+        lastCompiles.put(sessionId, compiledSnippet);
+        future.complete(compiledSnippet.result);
+        return;
+      }
+    }
 
     final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
 
     if (compiler == null) {
-      final CompilationResult compilationResult = new CompilationResult(Collections.singletonList(
-          new CompilationProblemBuilder()
-              .setLine(0)
-              .setMessage("Unable to create java compiler. Your JAVA_HOME should point to your JDK.")
-              .setType(CompilationProblemType.Error)
-              .createCompilationProblem()
-      ));
-      application.getEventManager().post(new CompileFinishedEvent(this, compilationResult));
+      future.complete(errorResult("Unable to create java compiler. Your JAVA_HOME should point to your JDK."));
       return;
     }
 
-    final DiagnosticCollector<JavaFileObject> diagnosticCollector = new DiagnosticCollector<JavaFileObject>();
+    final ImmutableList.Builder<CompilationProblem> listBuilder = ImmutableList.builder();
+
+    // every problem is reported as soon as javac finds it
+    final DiagnosticListener<JavaFileObject> diagnosticListener = diagnostic -> {
+      final CompilationProblem problem = toCompilationProblem(diagnostic);
+      listBuilder.add(problem);
+
+      if (!superseded.getAsBoolean()) {
+        progress.accept(Collections.singletonList(problem));
+      }
+    };
     final StandardJavaFileManager fileManager = compiler.getStandardFileManager(
-        diagnosticCollector,
+        diagnosticListener,
         Locale.ENGLISH,
         StandardCharsets.UTF_8
     );
@@ -125,79 +227,281 @@ public class JavaLanguage implements Language {
 
     final Iterable<String> options = Arrays.asList("-d", outputDirectory.toAbsolutePath().toString());
 
-    compiler.getTask(null, fileManager, diagnosticCollector, options, null, sourceUnit).call();
+    final Thread compilerThread = Thread.currentThread();
+    if (background) {
+      // leave the CPU to the IDE and to the snippets which are running
+      compilerThread.setPriority(Thread.MIN_PRIORITY);
+    }
 
-    final ImmutableList.Builder<CompilationProblem> listBuilder = ImmutableList.builder();
+    final CancellableFileManager cancellableFileManager = new CancellableFileManager(fileManager, superseded);
+
+    try {
+      compiler.getTask(
+          null,
+          cancellableFileManager,
+          diagnosticListener,
+          options,
+          null,
+          sourceUnit
+      ).call();
+    } catch (RuntimeException e) {
+      // javac wraps the exception thrown by the file manager
+      if (superseded.getAsBoolean()) {
+        future.cancel(false);
+      } else {
+        future.completeExceptionally(e);
+      }
 
-    diagnosticCollector.getDiagnostics().forEach(diagnostic -> listBuilder.add(new CompilationProblemBuilder()
-        .setMessage(diagnostic.getMessage(Locale.ENGLISH))
-        .setLine(diagnostic.getLineNumber())
-        .setType(diagnostic.getKind() == Diagnostic.Kind.ERROR ? CompilationProblemType.Error : CompilationProblemType.Warning)
-        .createCompilationProblem()
-    ));
+      return;
+    } finally {
+      compilerThread.setPriority(Thread.NORM_PRIORITY);
+    }
 
     final CompilationResult compilationResult = new CompilationResult(listBuilder.build());
+    if (sourceHash != null) {
+      lastCompiles.put(sessionId, new CompiledSnippet(
+          sourceFile,
+          outputDirectory,
+          cancellableFileManager.getOutputFiles(),
+          sourceHash,
+          compilationResult
+      ));
+    } else {
+      lastCompiles.invalidate(sessionId);
+    }
+
+    if (superseded.getAsBoolean()) {
+      // finished while the new request was waiting, the result is stale
+      future.cancel(false);
+      return;
+    }
 
-    application.getEventManager().post(new CompileFinishedEvent(this, compilationResult));
+    future.complete(compilationResult);
   }
 
-  @Subscribe
-  public void runSnippetEvent(final RunStartEvent runStartEvent) {
-    if (runStartEvent.getTarget() != this) {
-      return;
+  /**
+   * @return What the event protocol answers, null if the compile has been superseded
+   *         (the newer request is answered)
+   */
+  @Nullable
+  private static CompilationResult answerOf(final CompileStartEvent event,
+                                            @Nullable final CompilationResult result,
+                                            @Nullable final Throwable error) {
+    if (error instanceof CancellationException) {
+      return null;
     }
 
-    final CompileStartEvent compileStartEvent = new CompileStartEventBuilder()
-        .setTarget(this)
-        .setSourceFile(runStartEvent.getSourceFile())
-        .setOutputDirectory(runStartEvent.getTemporaryDirectory())
-        .build();
+    if (error != null) {
+      logger.error("Unable to compile " + event.getSourceFile(), error);
+      return errorResult("Unable to compile: " + error);
+    }
 
-    runningInformation = Optional.of(runStartEvent);
-    compileSnippetEvent(compileStartEvent);
+    return result;
+  }
+
+  private static CompilationResult errorResult(final String message) {
+    return new CompilationResult(Collections.singletonList(
+        new CompilationProblemBuilder()
+            .setLine(0)
+            .setMessage(message)
+            .setType(CompilationProblemType.Error)
+            .createCompilationProblem()
+    ));
+  }
+
+  private void postProgress(final CompileStartEvent event, final List<CompilationProblem> problems) {
+    application.getEventManager().post(new CompileProgressEvent(this, event.getSessionId(), problems));
+  }
+
+  @Nullable
+  private static HashCode hashSource(final Path sourceFile) {
+    try {
+      return Hashing.murmur3_128().hashBytes(java.nio.file.Files.readAllBytes(sourceFile));
+    } catch (IOException e) {
+      // javac will report it
+      return null;
+    }
+  }
+
+  private static CompilationProblem toCompilationProblem(final Diagnostic<? extends JavaFileObject> diagnostic) {
+    return new CompilationProblemBuilder()
+        .setMessage(diagnostic.getMessage(Locale.ENGLISH))
+        .setLine(diagnostic.getLineNumber())
+        .setType(diagnostic.getKind() == Diagnostic.Kind.ERROR ? CompilationProblemType.Error : CompilationProblemType.Warning)
+        .createCompilationProblem();
   }
 
   @Subscribe
-  public void compileEndedEvent(final CompileFinishedEvent compileFinishedEvent) {
-    if (!runningInformation.isPresent()) {
+  public void runSnippetEvent(final RunStartEvent runStartEvent) {
+    if (runStartEvent.getTarget() != this) {
       return;
     }
 
-    realRun(compileFinishedEvent);
+    final CompileStartEvent compileStartEvent = compileRequestOf(runStartEvent);
+
+    compile(compileStartEvent, problems -> postProgress(compileStartEvent, problems)).whenComplete((result, error) -> {
+      final CompilationResult answer = answerOf(compileStartEvent, result, error);
+
+      if (answer == null) {
+        return;
+      }
+
+      application.getEventManager().post(new CompileFinishedEvent(this, compileStartEvent, answer));
+
+      if (!answer.successfulCompilation()) {
+        return;
+      }
+
+      try {
+        application.getEventManager().post(runInformationOf(runStartEvent));
+      } catch (IllegalStateException e) {
+        application.getEventManager().post(new MessageFromProcess(runStartEvent.getSessionId(), e.getMessage()));
+      }
+    });
   }
 
-  private void realRun(final CompileFinishedEvent compileFinishedEvent) {
-    final RunStartEvent runStartEvent = runningInformation.get();
-    runningInformation = Optional.empty();
+  /**
+   * Compiles the snippet again, the compile done by the IDE
+   * just before is in the cache.
+   */
+  @NotNull
+  @Override
+  public CompletableFuture<RunInformationEvent> run(@NotNull final RunStartEvent request) {
+    return compile(compileRequestOf(request), problems -> {}).thenApply(result -> {
+      if (!result.successfulCompilation()) {
+        throw new IllegalStateException("Unable to run, the snippet doesn't compile.");
+      }
 
-    if (!compileFinishedEvent.getCompilationResult().successfulCompilation()) {
-      return;
-    }
+      return runInformationOf(request);
+    });
+  }
 
+  private CompileStartEvent compileRequestOf(final RunStartEvent runStartEvent) {
+    return new CompileStartEventBuilder()
+        .setTarget(this)
+        .setSourceFile(runStartEvent.getSourceFile())
+        .setOutputDirectory(runStartEvent.getTemporaryDirectory())
+        .setSessionId(runStartEvent.getSessionId())
+        .build();
+  }
+
+  /**
+   * @throws IllegalStateException If the snippet can't be run, with the reason
+   */
+  private RunInformationEvent runInformationOf(final RunStartEvent runStartEvent) {
     final DataContainer dataContainer = runStartEvent.getDataContainer();
 
     switch (dataContainer.getParentId()) {
       case SIMPLE_RUN_CONFIGURATION_ID: {
-        simpleRun(runStartEvent, dataContainer);
-        break;
+        return simpleRun(runStartEvent, dataContainer);
+      }
+      default: {
+        throw new IllegalStateException("Unable to run, unknown run configuration " + dataContainer.getParentId());
       }
     }
   }
 
-  private void simpleRun(final RunStartEvent runStartEvent,
-                         final DataContainer dataContainer) {
-    final String javaHome = ((Path) dataContainer.getValues().get("JRE Location")).toAbsolutePath().toString();
+  private RunInformationEvent simpleRun(final RunStartEvent runStartEvent,
+                                        final DataContainer dataContainer) {
+    final Path jreLocation = (Path) dataContainer.getValues().get("JRE Location");
 
     final Path classFile = Paths.get(
         Files.getNameWithoutExtension(runStartEvent.getSourceFile().getFileName().toString())
     );
 
-    if (javaHome == null) {
-      application.getEventManager().post(new MessageFromProcess("Unable to run, missing JAVA_HOME variable."));
-      return;
+    if (jreLocation == null) {
+      throw new IllegalStateException("Unable to run, missing JAVA_HOME variable.");
     }
 
+    final String javaHome = jreLocation.toAbsolutePath().toString();
     final String command = "\"" + javaHome + File.separator + "bin"  + File.separator + "java\" " + classFile + " -cp \"" + runStartEvent.getSourceFile().getParent() + "\"";
-    application.getEventManager().post(new RunInformationEvent(command, runStartEvent));
+    return new RunInformationEvent(command, runStartEvent);
+  }
+
+  @Subscribe
+  public void onUnboot(final UnBootEvent event) {
+    compilerExecutor.shutdownNow();
+  }
+
+  /**
+   * Any request supersedes the older background ones, but only a foreground
+   * request supersedes a foreground one: the user is waiting for it.
+   */
+  private static class Generations {
+    private long last;
+    private long lastForeground;
+
+    private synchronized long next(final boolean background) {
+      last++;
+
+      if (!background) {
+        lastForeground = last;
+      }
+
+      return last;
+    }
+
+    private synchronized boolean isSuperseded(final long generation, final boolean background) {
+      return generation != (background ? last : lastForeground);
+    }
+  }
+
+  /**
+   * The result of the last compile, the class files are still in the output directory
+   * until another source is compiled there (always by this language).
+   */
+  private static class CompiledSnippet {
+    private final Path sourceFile;
+    private final Path outputDirectory;
+    private final List<Path> classFiles;
+    private final HashCode sourceHash;
+    private final CompilationResult result;
+
+    private CompiledSnippet(final Path sourceFile,
+                            final Path outputDirectory,
+                            final List<Path> classFiles,
+                            final HashCode sourceHash,
+                            final CompilationResult result) {
+      this.sourceFile = sourceFile;
+      this.outputDirectory = outputDirectory;
+      this.classFiles = classFiles;
+      this.sourceHash = sourceHash;
+      this.result = result;
+    }
+
+    /**
+     * The background compile uses a directory of its own, so only the name
+     * of the file (the name of the class) has to be the same
+     */
+    private boolean isCompiled(final Path sourceFile, @Nullable final HashCode sourceHash) {
+      return this.sourceFile.getFileName().equals(sourceFile.getFileName())
+          && this.sourceHash.equals(sourceHash);
+    }
+
+    /**
+     * @return The same snippet in the other output directory, null if the class files can't be copied
+     */
+    @Nullable
+    private CompiledSnippet copyTo(final Path sourceFile, final Path outputDirectory) {
+      if (this.outputDirectory.equals(outputDirectory)) {
+        return this;
+      }
+
+      final List<Path> copiedClassFiles = new ArrayList<>(classFiles.size());
+
+      try {
+        for (final Path classFile : classFiles) {
+          final Path destination = outputDirectory.resolve(this.outputDirectory.relativize(classFile));
+          java.nio.file.Files.createDirectories(destination.getParent());
+          java.nio.file.Files.copy(classFile, destination, StandardCopyOption.REPLACE_EXISTING);
+          copiedClassFiles.add(destination);
+        }
+      } catch (IOException | IllegalArgumentException e) {
+        // compiled again
+        return null;
+      }
+
+      return new CompiledSnippet(sourceFile, outputDirectory, copiedClassFiles, sourceHash, result);
+    }
   }
 }
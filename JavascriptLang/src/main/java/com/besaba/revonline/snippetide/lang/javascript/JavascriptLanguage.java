@@ -1,24 +1,68 @@
 package com.besaba.revonline.snippetide.lang.javascript;
 
 import com.besaba.revonline.snippetide.api.application.IDEApplicationLauncher;
+import com.besaba.revonline.snippetide.api.datashare.DataContainer;
+import com.besaba.revonline.snippetide.api.datashare.StructureFieldInfo;
+import com.besaba.revonline.snippetide.api.events.SessionId;
+import com.besaba.revonline.snippetide.api.events.boot.UnBootEvent;
 import com.besaba.revonline.snippetide.api.events.manager.EventManager;
-import com.besaba.revonline.snippetide.api.events.run.MessageFromProcess;
 import com.besaba.revonline.snippetide.api.events.run.RunInformationEvent;
 import com.besaba.revonline.snippetide.api.events.run.RunStartEvent;
+import com.besaba.revonline.snippetide.api.events.run.RunStopEvent;
 import com.besaba.revonline.snippetide.api.language.Language;
 import com.besaba.revonline.snippetide.api.datashare.StructureDataContainer;
 import com.google.common.eventbus.Subscribe;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
-import java.io.FileReader;
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 public class JavascriptLanguage implements Language {
+  private static final int ENGINE_POOL_SIZE = 2;
+
+  private static final int SIMPLE_RUN_CONFIGURATION_ID = 1;
+  private static final String TIMEOUT_FIELD = "Timeout (seconds)";
+  private static final String MAX_OUTPUT_FIELD = "Max output (KB)";
+  private static final int DEFAULT_TIMEOUT_SECONDS = 10;
+  private static final int DEFAULT_MAX_OUTPUT_KILOBYTES = 1024;
+
+  private final ScriptEnginePool enginePool = new ScriptEnginePool(ENGINE_POOL_SIZE);
+  private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    final Thread thread = new Thread(runnable, "Javascript-Watchdog");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final StructureDataContainer structureDataContainer = new StructureDataContainer.Builder(SIMPLE_RUN_CONFIGURATION_ID)
+      .setName("Run")
+      .addField(
+          TIMEOUT_FIELD,
+          new StructureFieldInfo<>(
+              Integer.class,
+              DEFAULT_TIMEOUT_SECONDS,
+              "The script is stopped if it runs for more than this",
+              seconds -> seconds != null && seconds > 0
+          )
+      )
+      .addField(
+          MAX_OUTPUT_FIELD,
+          new StructureFieldInfo<>(
+              Integer.class,
+              DEFAULT_MAX_OUTPUT_KILOBYTES,
+              "The script is stopped if it prints more than this",
+              kilobytes -> kilobytes != null && kilobytes > 0
+          )
+      )
+      .create();
+  // every session has its own run, guarded by this
+  private final Map<SessionId, ScriptRun> currentRuns = new HashMap<>();
+
+  public JavascriptLanguage() {
+    enginePool.warmUp();
+  }
+
   @NotNull
   public String getName() {
     return "Javascript";
@@ -36,39 +80,80 @@ public class JavascriptLanguage implements Language {
 
   @NotNull
   public StructureDataContainer[] getRunConfigurations() {
-    return new StructureDataContainer[0];
+    return new StructureDataContainer[] {
+        structureDataContainer
+    };
+  }
+
+  // the script runs in the engines of the IDE, its own fields have the timeout and the max output
+  @Override
+  public boolean runsExternalProcess() {
+    return false;
   }
 
   @Subscribe
-  public void onRunEvent(final RunStartEvent runStartEvent) {
+  public synchronized void onRunEvent(final RunStartEvent runStartEvent) {
     if (runStartEvent.getTarget() != this) {
       return;
     }
 
-    final ScriptEngineManager factory = new ScriptEngineManager();
-    final ScriptEngine scriptEngine = factory.getEngineByName("JavaScript");
     final EventManager eventManager = IDEApplicationLauncher.getIDEApplication().getEventManager();
-    final StringWriter writer = new StringWriter();
-    final PrintWriter printWriter = new PrintWriter(writer);
+    final DataContainer dataContainer = runStartEvent.getDataContainer();
+
+    eventManager.post(RunInformationEvent.noExternalProcess(runStartEvent));
+
+    // the output of the new run replaces the old one, so there is nothing to report
+    stopCurrentRun(runStartEvent.getSessionId(), null);
+
+    final ScriptRun run = new ScriptRun(
+        enginePool,
+        runStartEvent.getSourceFile(),
+        getIntValue(dataContainer, TIMEOUT_FIELD, DEFAULT_TIMEOUT_SECONDS),
+        getIntValue(dataContainer, MAX_OUTPUT_FIELD, DEFAULT_MAX_OUTPUT_KILOBYTES),
+        eventManager,
+        runStartEvent.getSessionId(),
+        watchdog
+    );
+
+    currentRuns.put(runStartEvent.getSessionId(), run);
+    run.start();
+  }
 
-    eventManager.post(RunInformationEvent.noExternalProcess());
+  @Subscribe
+  public synchronized void onStopEvent(final RunStopEvent runStopEvent) {
+    if (runStopEvent.getTarget() != this) {
+      return;
+    }
+
+    if (runStopEvent.getSessionId() == SessionId.BROADCAST) {
+      // posted by a plugin built before sessions existed, it stops every run
+      currentRuns.values().forEach(run -> run.stop("Script stopped by the user"));
+      currentRuns.clear();
+      return;
+    }
+
+    stopCurrentRun(runStopEvent.getSessionId(), "Script stopped by the user");
+  }
+
+  @Subscribe
+  public synchronized void onUnboot(final UnBootEvent unBootEvent) {
+    currentRuns.values().forEach(run -> run.stop(null));
+    currentRuns.clear();
+    watchdog.shutdown();
+  }
 
-    scriptEngine.getContext().setWriter(printWriter);
-    scriptEngine.getContext().setErrorWriter(printWriter);
+  private void stopCurrentRun(@NotNull final SessionId sessionId, @Nullable final String reason) {
+    final ScriptRun run = currentRuns.remove(sessionId);
 
-    try(final FileReader fileReader = new FileReader(runStartEvent.getSourceFile().toFile())) {
-      scriptEngine.eval(fileReader);
-      eventManager.post(new MessageFromProcess(writer.toString()));
-    } catch (IOException|ScriptException e) {
-      final String message = stacktraceToString(e);
-      eventManager.post(new MessageFromProcess(message));
+    if (run != null) {
+      run.stop(reason);
     }
   }
 
-  private String stacktraceToString(final Throwable e) {
-    final StringWriter stringWriter = new StringWriter();
-    final PrintWriter printWriter = new PrintWriter(stringWriter);
-    e.printStackTrace(printWriter);
-    return stringWriter.toString();
+  private int getIntValue(@NotNull final DataContainer dataContainer,
+                          @NotNull final String field,
+                          final int defaultValue) {
+    final Object value = dataContainer.getValues().get(field);
+    return value instanceof Integer ? (Integer) value : defaultValue;
   }
 }
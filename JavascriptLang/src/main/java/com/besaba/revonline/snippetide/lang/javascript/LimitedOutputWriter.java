@@ -0,0 +1,104 @@
+package com.besaba.revonline.snippetide.lang.javascript;
+
+import com.besaba.revonline.snippetide.api.events.SessionId;
+import com.besaba.revonline.snippetide.api.events.manager.EventManager;
+import com.besaba.revonline.snippetide.api.events.run.MessageFromProcess;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forwards what the script prints to the IDE a few lines at a time,
+ * so the user can follow a long run, and stops accepting output
+ * once the limit is reached.
+ */
+class LimitedOutputWriter extends Writer {
+  private static final long EMIT_INTERVAL_NANOSECONDS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  private final StringBuilder pending = new StringBuilder();
+  private final long maxCharacters;
+  @NotNull
+  private final EventManager eventManager;
+  @NotNull
+  private final SessionId sessionId;
+  @NotNull
+  private final Runnable onLimitReached;
+  private long writtenCharacters;
+  private long lastEmission = System.nanoTime() - EMIT_INTERVAL_NANOSECONDS;
+  private boolean limitReached;
+
+  /**
+   * @param maxCharacters How many characters the script can write
+   * @param eventManager Used to send the output to the IDE
+   * @param sessionId The session which asked for the run
+   * @param onLimitReached Invoked once, by the thread which is writing,
+   *                       when the script tries to write more than maxCharacters
+   */
+  LimitedOutputWriter(final long maxCharacters,
+                      @NotNull final EventManager eventManager,
+                      @NotNull final SessionId sessionId,
+                      @NotNull final Runnable onLimitReached) {
+    this.maxCharacters = maxCharacters;
+    this.eventManager = eventManager;
+    this.sessionId = sessionId;
+    this.onLimitReached = onLimitReached;
+  }
+
+  @Override
+  public void write(@NotNull final char[] buffer, final int offset, final int length) {
+    final boolean limitReachedNow;
+
+    synchronized (this) {
+      if (limitReached) {
+        return;
+      }
+
+      final long available = maxCharacters - writtenCharacters;
+      limitReachedNow = length > available;
+
+      if (limitReachedNow) {
+        pending.append(buffer, offset, (int) available);
+        writtenCharacters = maxCharacters;
+        limitReached = true;
+        emit(true);
+      } else {
+        pending.append(buffer, offset, length);
+        writtenCharacters += length;
+      }
+    }
+
+    if (limitReachedNow) {
+      onLimitReached.run();
+    }
+  }
+
+  @Override
+  public synchronized void flush() {
+    if (System.nanoTime() - lastEmission >= EMIT_INTERVAL_NANOSECONDS) {
+      emit(false);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    emit(true);
+  }
+
+  private void emit(final boolean everything) {
+    final int end = everything ? pending.length() : pending.lastIndexOf("\n") + 1;
+
+    if (end == 0) {
+      return;
+    }
+
+    // the IDE shows every message on its own line
+    final int messageEnd = pending.charAt(end - 1) == '\n' ? end - 1 : end;
+    final String message = pending.substring(0, messageEnd);
+
+    pending.delete(0, end);
+    lastEmission = System.nanoTime();
+
+    eventManager.post(new MessageFromProcess(sessionId, message));
+  }
+}
@@ -0,0 +1,180 @@
+package com.besaba.revonline.snippetide.lang.javascript;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.jetbrains.annotations.NotNull;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a small number of warm Javascript engines around, so a run
+ * doesn't have to pay the engine bootstrap every time.
+ *
+ * <p>Every engine has its own cache of compiled scripts keyed by the
+ * hash of the source, because a CompiledScript can only be evaluated
+ * by the engine which compiled it.</p>
+ *
+ * <p>The engines are shared but the scripts are not: every evaluation
+ * gets fresh bindings, so a run cannot see the globals of the previous one.</p>
+ */
+class ScriptEnginePool {
+  private static final String ENGINE_NAME = "JavaScript";
+  private static final int MAX_COMPILED_SCRIPTS_PER_ENGINE = 32;
+  private static final long BORROW_POLL_MILLISECONDS = 100;
+
+  private final ScriptEngineManager engineManager = new ScriptEngineManager();
+  private final BlockingQueue<PooledEngine> idleEngines = new LinkedBlockingQueue<>();
+  private final int size;
+  private int createdEngines;
+
+  ScriptEnginePool(final int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("The pool needs at least one engine");
+    }
+
+    this.size = size;
+  }
+
+  /**
+   * Creates the first engine in a background thread so that
+   * the first run doesn't have to wait for the bootstrap.
+   */
+  void warmUp() {
+    final Thread warmer = new Thread(() -> {
+      try {
+        release(borrow());
+      } catch (InterruptedException | IllegalStateException ignored) {
+        // nothing to warm, the run will report the problem
+      }
+    }, "Javascript-EngineWarmer");
+
+    warmer.setDaemon(true);
+    warmer.start();
+  }
+
+  /**
+   * Takes an idle engine from the pool, creating a new one if
+   * the pool is not full yet, or waits for one to be released.
+   *
+   * @return An engine that nobody else is using. Give it back with release.
+   * @throws IllegalStateException If the JRE doesn't provide a Javascript engine
+   */
+  @NotNull
+  PooledEngine borrow() throws InterruptedException {
+    while (true) {
+      final PooledEngine idleEngine = idleEngines.poll();
+
+      if (idleEngine != null) {
+        return idleEngine;
+      }
+
+      synchronized (this) {
+        if (createdEngines < size) {
+          createdEngines++;
+
+          try {
+            return createEngine();
+          } catch (IllegalStateException e) {
+            createdEngines--;
+            throw e;
+          }
+        }
+      }
+
+      // poll again later, a discarded engine frees a slot without releasing anything
+      final PooledEngine releasedEngine = idleEngines.poll(BORROW_POLL_MILLISECONDS, TimeUnit.MILLISECONDS);
+
+      if (releasedEngine != null) {
+        return releasedEngine;
+      }
+    }
+  }
+
+  void release(@NotNull final PooledEngine engine) {
+    idleEngines.offer(engine);
+  }
+
+  /**
+   * Throws away an engine which cannot be reused (for example
+   * because the thread using it has been killed), a new one
+   * will be created when needed.
+   */
+  synchronized void discard(@NotNull final PooledEngine engine) {
+    createdEngines--;
+  }
+
+  @NotNull
+  private PooledEngine createEngine() {
+    final ScriptEngine engine = engineManager.getEngineByName(ENGINE_NAME);
+
+    if (engine == null) {
+      throw new IllegalStateException("This JRE doesn't provide a " + ENGINE_NAME + " engine");
+    }
+
+    return new PooledEngine(engine);
+  }
+
+  static class PooledEngine {
+    @NotNull
+    private final ScriptEngine engine;
+    @NotNull
+    private final Cache<HashCode, CompiledScript> compiledScripts = CacheBuilder.newBuilder()
+        .maximumSize(MAX_COMPILED_SCRIPTS_PER_ENGINE)
+        .build();
+
+    private PooledEngine(@NotNull final ScriptEngine engine) {
+      this.engine = engine;
+    }
+
+    /**
+     * Evaluates the source with fresh bindings, reusing the
+     * compiled script if the same source was already evaluated
+     * by this engine.
+     *
+     * @param source The script
+     * @param output Where print and the errors of the script are written
+     */
+    void eval(@NotNull final String source, @NotNull final Writer output) throws ScriptException {
+      final ScriptContext context = new SimpleScriptContext();
+      context.setBindings(engine.createBindings(), ScriptContext.ENGINE_SCOPE);
+      context.setWriter(output);
+      context.setErrorWriter(output);
+
+      if (!(engine instanceof Compilable)) {
+        engine.eval(source, context);
+        return;
+      }
+
+      compile(source).eval(context);
+    }
+
+    @NotNull
+    private CompiledScript compile(@NotNull final String source) throws ScriptException {
+      final HashCode sourceHash = Hashing.sha1().hashString(source, StandardCharsets.UTF_8);
+
+      try {
+        return compiledScripts.get(sourceHash, () -> ((Compilable) engine).compile(source));
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof ScriptException) {
+          throw (ScriptException) e.getCause();
+        }
+
+        throw new ScriptException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package com.besaba.revonline.snippetide.lang.javascript;
+
+import com.besaba.revonline.snippetide.api.events.SessionId;
+import com.besaba.revonline.snippetide.api.events.manager.EventManager;
+import com.besaba.revonline.snippetide.api.events.run.MessageFromProcess;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.script.ScriptException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single evaluation of a script, executed in its own thread
+ * so that the event manager is never blocked by the script.
+ *
+ * <p>The script engine doesn't check if the thread has been interrupted,
+ * so a script which doesn't stop within a grace period after
+ * stop() is killed with Thread.stop and its engine is thrown away.</p>
+ */
+class ScriptRun implements Runnable {
+  private static final long FORCED_STOP_GRACE_MILLISECONDS = 500;
+
+  @NotNull
+  private final ScriptEnginePool enginePool;
+  @NotNull
+  private final Path sourceFile;
+  private final int timeoutSeconds;
+  @NotNull
+  private final EventManager eventManager;
+  @NotNull
+  private final SessionId sessionId;
+  @NotNull
+  private final ScheduledExecutorService watchdog;
+  @NotNull
+  private final LimitedOutputWriter output;
+  @NotNull
+  private final Thread thread = new Thread(this, "Javascript-Run");
+
+  private volatile boolean stopped;
+  @Nullable
+  private volatile String stopReason;
+  private ScheduledFuture<?> timeout;
+
+  ScriptRun(@NotNull final ScriptEnginePool enginePool,
+            @NotNull final Path sourceFile,
+            final int timeoutSeconds,
+            final int maxOutputKilobytes,
+            @NotNull final EventManager eventManager,
+            @NotNull final SessionId sessionId,
+            @NotNull final ScheduledExecutorService watchdog) {
+    this.enginePool = enginePool;
+    this.sourceFile = sourceFile;
+    this.timeoutSeconds = timeoutSeconds;
+    this.eventManager = eventManager;
+    this.sessionId = sessionId;
+    this.watchdog = watchdog;
+    this.output = new LimitedOutputWriter(
+        maxOutputKilobytes * 1024L,
+        eventManager,
+        sessionId,
+        () -> stop("Script stopped, it wrote more than " + maxOutputKilobytes + " KB of output")
+    );
+  }
+
+  void start() {
+    timeout = watchdog.schedule(
+        () -> stop("Script stopped after " + timeoutSeconds + " second(s)"),
+        timeoutSeconds,
+        TimeUnit.SECONDS
+    );
+
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Asks the script to stop.
+   *
+   * @param reason Shown to the user when the script ends,
+   *               null to stop it silently
+   */
+  synchronized void stop(@Nullable final String reason) {
+    if (stopped || !thread.isAlive()) {
+      return;
+    }
+
+    stopped = true;
+    stopReason = reason;
+    thread.interrupt();
+    watchdog.schedule(this::forceStop, FORCED_STOP_GRACE_MILLISECONDS, TimeUnit.MILLISECONDS);
+  }
+
+  @SuppressWarnings("deprecation")
+  private void forceStop() {
+    if (thread.isAlive()) {
+      thread.stop();
+    }
+  }
+
+  @Override
+  public void run() {
+    try {
+      final String source = new String(Files.readAllBytes(sourceFile), StandardCharsets.UTF_8);
+      final ScriptEnginePool.PooledEngine engine = enginePool.borrow();
+
+      try {
+        engine.eval(source, output);
+      } finally {
+        // a stopped engine could be in any state, don't give it to the next run
+        if (stopped) {
+          enginePool.discard(engine);
+        } else {
+          enginePool.release(engine);
+        }
+      }
+    } catch (IOException | ScriptException e) {
+      output.close();
+      eventManager.post(new MessageFromProcess(sessionId, stacktraceToString(e)));
+    } catch (IllegalStateException e) {
+      eventManager.post(new MessageFromProcess(sessionId, e.getMessage()));
+    } catch (InterruptedException e) {
+      // stopped while waiting for an engine
+    } catch (ThreadDeath e) {
+      // killed by forceStop, the reason is reported below
+    } finally {
+      timeout.cancel(false);
+      output.close();
+
+      final String reason = stopReason;
+
+      if (reason != null) {
+        eventManager.post(new MessageFromProcess(sessionId, reason));
+      }
+    }
+  }
+
+  @NotNull
+  private static String stacktraceToString(@NotNull final Throwable e) {
+    final StringWriter stringWriter = new StringWriter();
+    final PrintWriter printWriter = new PrintWriter(stringWriter);
+    e.printStackTrace(printWriter);
+    return stringWriter.toString();
+  }
+}
@@ -0,0 +1,118 @@
+package com.besaba.revonline.snippetide.lang.markdown;
+
+import com.github.rjeschke.txtmark.Processor;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Renders a document one top-level block at a time and caches
+ * the html of every block, so after an edit only the blocks
+ * which changed are processed again.
+ *
+ * <p>A block ends at a blank line followed by a line which is not
+ * indented (indented lines belong to the previous list item or code block).
+ * The items of a list are kept in a single block even when they are separated
+ * by blank lines, otherwise every item would become a list of its own.
+ * A fenced code block is always kept in a single block.
+ * Link definitions ([id]: url) are given to every block, so a link
+ * can still use a definition written anywhere in the document.</p>
+ */
+class MarkdownBlockRenderer {
+  private static final int MAX_CACHED_BLOCKS = 4096;
+  private static final Pattern LINK_DEFINITION = Pattern.compile(" {0,3}\\[[^\\]]+\\]:.*");
+  private static final Pattern LIST_ITEM = Pattern.compile("([*+-]|\\d+\\.)\\s.*");
+
+  private final Cache<HashCode, String> renderedBlocks = CacheBuilder.newBuilder()
+      .maximumSize(MAX_CACHED_BLOCKS)
+      .build();
+
+  @NotNull
+  String render(@NotNull final BufferedReader reader) throws IOException {
+    final List<String> blocks = new ArrayList<>();
+    final StringBuilder linkDefinitions = new StringBuilder();
+    StringBuilder block = new StringBuilder();
+    String fence = null;
+    boolean afterBlankLine = false;
+    boolean inList = false;
+
+    for (String line; (line = reader.readLine()) != null; ) {
+      final String trimmedLine = line.trim();
+
+      if (fence == null) {
+        if (trimmedLine.isEmpty()) {
+          if (block.length() > 0) {
+            block.append('\n');
+            afterBlankLine = true;
+          }
+          continue;
+        }
+
+        if (LINK_DEFINITION.matcher(line).matches()) {
+          linkDefinitions.append(line).append('\n');
+          continue;
+        }
+
+        if (!Character.isWhitespace(line.charAt(0))) {
+          final boolean listItem = LIST_ITEM.matcher(line).matches();
+
+          if (afterBlankLine && !(inList && listItem)) {
+            blocks.add(block.toString());
+            block = new StringBuilder();
+          }
+
+          // a line right after an item, without a blank line, is still part of it
+          if (afterBlankLine || block.length() == 0 || listItem) {
+            inList = listItem;
+          }
+        }
+
+        if (trimmedLine.startsWith("```") || trimmedLine.startsWith("~~~")) {
+          fence = trimmedLine.substring(0, 3);
+        }
+      } else if (trimmedLine.startsWith(fence)) {
+        fence = null;
+      }
+
+      afterBlankLine = false;
+      block.append(line).append('\n');
+    }
+
+    if (block.length() > 0) {
+      blocks.add(block.toString());
+    }
+
+    final String definitions = linkDefinitions.toString();
+    final StringBuilder html = new StringBuilder();
+
+    for (final String source : blocks) {
+      html.append(renderBlock(source, definitions));
+    }
+
+    return html.toString();
+  }
+
+  @NotNull
+  private String renderBlock(@NotNull final String block, @NotNull final String definitions) {
+    final String source = definitions.isEmpty() ? block : block + '\n' + definitions;
+    final HashCode sourceHash = Hashing.murmur3_128().hashString(source, StandardCharsets.UTF_8);
+
+    String html = renderedBlocks.getIfPresent(sourceHash);
+
+    if (html == null) {
+      html = Processor.process(source);
+      renderedBlocks.put(sourceHash, html);
+    }
+
+    return html;
+  }
+}
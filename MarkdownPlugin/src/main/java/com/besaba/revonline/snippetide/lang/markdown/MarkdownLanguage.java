@@ -2,18 +2,33 @@ package com.besaba.revonline.snippetide.lang.markdown;
 
 import com.besaba.revonline.snippetide.api.application.IDEApplicationLauncher;
 import com.besaba.revonline.snippetide.api.datashare.StructureDataContainer;
+import com.besaba.revonline.snippetide.api.events.SessionId;
 import com.besaba.revonline.snippetide.api.events.manager.EventManager;
 import com.besaba.revonline.snippetide.api.events.run.MessageFromProcess;
 import com.besaba.revonline.snippetide.api.events.run.RunInformationEvent;
 import com.besaba.revonline.snippetide.api.events.run.RunStartEvent;
 import com.besaba.revonline.snippetide.api.language.Language;
-import com.github.rjeschke.txtmark.Processor;
 import com.google.common.eventbus.Subscribe;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 
 public class MarkdownLanguage implements Language {
+  /**
+   * The html is sent to the IDE in messages of about this size
+   * (always cut at the end of a line) so that a big document
+   * doesn't end in a single huge message.
+   */
+  private static final int MESSAGE_CHUNK_SIZE = 8192;
+
+  /**
+   * Shared by every run, so a live run only renders the blocks
+   * which changed since the previous one
+   */
+  private final MarkdownBlockRenderer renderer = new MarkdownBlockRenderer();
+
   public String getName() {
     return "Markdown";
   }
@@ -30,6 +45,12 @@ public class MarkdownLanguage implements Language {
     return new StructureDataContainer[0];
   }
 
+  // the preview is rendered by the IDE
+  @Override
+  public boolean runsExternalProcess() {
+    return false;
+  }
+
   @Subscribe
   public void runPressed(final RunStartEvent runStartEvent) {
     if (runStartEvent.getTarget() != this) {
@@ -37,21 +58,44 @@ public class MarkdownLanguage implements Language {
     }
 
     final EventManager eventManager = IDEApplicationLauncher.getIDEApplication().getEventManager();
-    final String textFromFile;
+    final String markdownText;
 
-    try {
-      textFromFile = Files
-          .readAllLines(runStartEvent.getSourceFile())
-          .stream()
-          .reduce("", (acc, nxt) -> acc + "\n" + nxt);
+    try (final BufferedReader reader = Files.newBufferedReader(runStartEvent.getSourceFile(), StandardCharsets.UTF_8)) {
+      markdownText = renderer.render(reader);
     } catch (IOException e) {
-      eventManager.post(new MessageFromProcess("Unable to process the text :("));
+      // the IDE waits for the answer before showing the messages of the run
+      eventManager.post(RunInformationEvent.noExternalProcess(runStartEvent));
+      eventManager.post(new MessageFromProcess(runStartEvent.getSessionId(), "Unable to process the text :("));
       return;
     }
 
-    final String markdownText = Processor.process(textFromFile);
+    eventManager.post(RunInformationEvent.noExternalProcess(runStartEvent));
+    postInChunks(eventManager, runStartEvent.getSessionId(), markdownText);
+  }
+
+  private void postInChunks(final EventManager eventManager, final SessionId sessionId, final String text) {
+    int start = 0;
 
-    eventManager.post(RunInformationEvent.noExternalProcess());
-    eventManager.post(new MessageFromProcess(markdownText));
+    while (start < text.length()) {
+      int end = Math.min(start + MESSAGE_CHUNK_SIZE, text.length());
+
+      if (end < text.length()) {
+        final int lineEnd = text.lastIndexOf('\n', end - 1);
+
+        if (lineEnd >= start) {
+          end = lineEnd + 1;
+        } else {
+          // a line longer than the chunk, it cannot be split
+          final int nextLineEnd = text.indexOf('\n', end);
+          end = nextLineEnd == -1 ? text.length() : nextLineEnd + 1;
+        }
+      }
+
+      // the IDE shows every message on its own line
+      final int messageEnd = text.charAt(end - 1) == '\n' ? end - 1 : end;
+      eventManager.post(new MessageFromProcess(sessionId, text.substring(start, messageEnd)));
+
+      start = end;
+    }
   }
 }
@@ -0,0 +1,49 @@
+package com.besaba.revonline.snippetide.lang.markdown;
+
+import com.github.rjeschke.txtmark.Processor;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+
+public class MarkdownBlockRendererTest {
+  private final MarkdownBlockRenderer renderer = new MarkdownBlockRenderer();
+
+  @Test
+  public void paragraphsAreRenderedAsTheWholeDocument() throws Exception {
+    assertSameAsWholeDocument("# Title\n\nFirst paragraph\nstill first\n\nSecond *paragraph*\n");
+  }
+
+  @Test
+  public void looseListIsASingleList() throws Exception {
+    assertSameAsWholeDocument("Intro\n\n- one\n\n- two\n\n- three\n\nAfter the list\n");
+  }
+
+  @Test
+  public void looseNumberedListIsNotRestarted() throws Exception {
+    assertSameAsWholeDocument("1. one\n\n2. two\n   with more text\n\n    indented paragraph\n\n3. three\n");
+  }
+
+  @Test
+  public void tightListIsASingleList() throws Exception {
+    assertSameAsWholeDocument("* one\n* two\nlazy line\n* three\n\nParagraph\n");
+  }
+
+  @Test
+  public void renderingAgainAfterAnEditGivesTheSameOutput() throws Exception {
+    render("- one\n\n- two\n");
+
+    assertSameAsWholeDocument("- one\n\n- two\n\n- three\n");
+  }
+
+  private void assertSameAsWholeDocument(final String markdown) throws IOException {
+    assertEquals(Processor.process(markdown), render(markdown));
+  }
+
+  private String render(final String markdown) throws IOException {
+    return renderer.render(new BufferedReader(new StringReader(markdown)));
+  }
+}
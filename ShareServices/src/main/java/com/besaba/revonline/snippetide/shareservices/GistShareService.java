@@ -12,15 +12,18 @@ import com.google.common.eventbus.Subscribe;
 import javafx.scene.image.Image;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
-import java.net.HttpURLConnection;
+import java.io.Writer;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 
 public class GistShareService implements ShareService {
   private static final int SHARE_WITH_DESCRIPTION = 1;
+  private static final String GIST_API_URL = "https://api.github.com/gists";
   private final EventManager eventManager = IDEApplicationLauncher.getIDEApplication().getEventManager();
+  private final ShareHttpClient httpClient = ShareHttpClient.getSharedClient();
 
   private final StructureDataContainer[] shareParameters = new StructureDataContainer[] {
       new StructureDataContainer.Builder(SHARE_WITH_DESCRIPTION)
@@ -38,7 +41,7 @@ public class GistShareService implements ShareService {
 
   @NotNull
   public Image getImage() {
-    return new Image(GistShareService.class.getResourceAsStream("github_logo.png"));
+    return ShareServiceIcons.get("github_logo.png");
   }
 
   @Subscribe
@@ -47,37 +50,38 @@ public class GistShareService implements ShareService {
       return;
     }
 
+    final String requestId = event.getRequestId();
     final String fileName = event.getFileName();
     final String code = event.getCode();
     final String languageName = event.getLanguage().getName();
     final String description = (String) event.getParameters().getValues().get("Description");
 
-    final HttpURLConnection httpURLConnection
-        = ((HttpURLConnection) new URL("https://api.github.com/gists").openConnection());
-    final String completeJson = prepareJsonResponse(fileName, code, languageName, description);
-
-    httpURLConnection.setDoOutput(true);
-    httpURLConnection.setRequestMethod("POST");
-    httpURLConnection.connect();
-
-    try(final OutputStreamWriter outputStreamWriter = new OutputStreamWriter(httpURLConnection.getOutputStream(), StandardCharsets.UTF_8)) {
-      outputStreamWriter.write(completeJson);
-      outputStreamWriter.flush();
-
-      final int response = httpURLConnection.getResponseCode();
-
-      if (response != 201) {
-        eventManager.post(new ShareFailedEvent(null, "Code: " + response, this));
-        return;
-      }
-
-      final String location = httpURLConnection.getHeaderField("Location");
-      final String gistId = location.substring(location.lastIndexOf('/') + 1);
-      final String webUrl = "https://gist.github.com/anonymous/" + gistId;
-      eventManager.post(new ShareCompletedEvent(webUrl, this));
-    } finally {
-      httpURLConnection.disconnect();
-    }
+    // the json is escaped while it is written, the code is never copied
+    final ShareHttpClient.RequestBody body = output -> {
+      final Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+      writeJsonRequest(writer, fileName, code, languageName, description);
+      writer.flush();
+    };
+
+    // the answer arrives in a thread of the client, the event manager is free to go on
+    httpClient.post(new URL(GIST_API_URL), "application/json; charset=utf-8", body)
+        .whenComplete((response, error) -> {
+          if (error != null) {
+            eventManager.post(new ShareFailedEvent(error, "Unable to reach GitHub: " + error.getMessage(), this, requestId));
+            return;
+          }
+
+          final String location = response.getHeader("Location");
+
+          if (response.getCode() != 201 || location == null) {
+            eventManager.post(new ShareFailedEvent(null, "Code: " + response.getCode(), this, requestId));
+            return;
+          }
+
+          final String gistId = location.substring(location.lastIndexOf('/') + 1);
+          final String webUrl = "https://gist.github.com/anonymous/" + gistId;
+          eventManager.post(new ShareCompletedEvent(webUrl, this, requestId));
+        });
   }
 
   @NotNull
@@ -86,28 +90,21 @@ public class GistShareService implements ShareService {
     return shareParameters;
   }
 
-  private String prepareJsonResponse(@NotNull final String fileName,
-                                     @NotNull final String code,
-                                     @NotNull final String languageName,
-                                     @NotNull final String description) {
+  static void writeJsonRequest(@NotNull final Writer writer,
+                               @NotNull final String fileName,
+                               @NotNull final String code,
+                               @NotNull final String languageName,
+                               @NotNull final String description) throws IOException {
     // the quote method adds the "
-    final String rawJson = "{\n" +
-        "  \"description\": %s, \n" +
-        "  \"public\": true, \n" +
-        "  \"files\": {\n" +
-        "    %s: {\n" +
-        "      \"content\": %s,\n" +
-        "      \"language\": %s\n" +
-        "    }\n" +
-        "  }\n" +
-        "}   ";
-
-    final String escapedDescription = escapeForJson(description);
-    final String escapedFileNameForJson = escapeForJson(fileName);
-    final String escapedCodeForJson = escapeForJson(code);
-    final String escapedLanguageNameForJson = escapeForJson(languageName);
-
-    return String.format(rawJson, escapedDescription, escapedFileNameForJson, escapedCodeForJson, escapedLanguageNameForJson);
+    writer.write("{\n  \"description\": ");
+    JsonParserQuote.quote(description, writer);
+    writer.write(",\n  \"public\": true,\n  \"files\": {\n    ");
+    JsonParserQuote.quote(fileName, writer);
+    writer.write(": {\n      \"content\": ");
+    JsonParserQuote.quote(code, writer);
+    writer.write(",\n      \"language\": ");
+    JsonParserQuote.quote(languageName, writer);
+    writer.write("\n    }\n  }\n}");
   }
 
   public static String escapeForJson(final String text) {
@@ -1,49 +1,68 @@
 package com.besaba.revonline.snippetide.shareservices;
 
+import java.io.IOException;
+
 public class JsonParserQuote {
   // from jdk.nashorn.internal.parser package
   public static String quote(String value) {
-    StringBuilder product = new StringBuilder();
-    product.append("\"");
-    char[] var2 = value.toCharArray();
-    int var3 = var2.length;
-
-    for (char ch : var2) {
-      switch (ch) {
-        case '\b':
-          product.append("\\b");
-          break;
-        case '\t':
-          product.append("\\t");
-          break;
-        case '\n':
-          product.append("\\n");
-          break;
-        case '\f':
-          product.append("\\f");
-          break;
-        case '\r':
-          product.append("\\r");
-          break;
-        case '\"':
-          product.append("\\\"");
-          break;
-        case '\\':
-          product.append("\\\\");
-          break;
-        default:
-          if (ch < 32) {
-            product.append(unicodeEscape(ch));
-          } else {
-            product.append(ch);
-          }
-      }
+    StringBuilder product = new StringBuilder(value.length() + 2);
+
+    try {
+      quote(value, product);
+    } catch (IOException e) {
+      // a StringBuilder doesn't throw
+      throw new AssertionError(e);
     }
 
-    product.append("\"");
     return product.toString();
   }
 
+  /**
+   * Writes the value quoted and escaped directly to out,
+   * without making an escaped copy of the whole value.
+   */
+  public static void quote(CharSequence value, Appendable out) throws IOException {
+    out.append('"');
+    int start = 0;
+
+    for (int i = 0; i < value.length(); ++i) {
+      String escaped = escape(value.charAt(i));
+
+      if (escaped != null) {
+        out.append(value, start, i);
+        out.append(escaped);
+        start = i + 1;
+      }
+    }
+
+    out.append(value, start, value.length());
+    out.append('"');
+  }
+
+  /**
+   * @return The escape sequence for ch, null if ch doesn't need to be escaped
+   */
+  private static String escape(char ch) {
+    switch (ch) {
+      case '\b':
+        return "\\b";
+      case '\t':
+        return "\\t";
+      case '\n':
+        return "\\n";
+      case '\f':
+        return "\\f";
+      case '\r':
+        return "\\r";
+      case '\"':
+        return "\\\"";
+      case '\\':
+        return "\\\\";
+      default:
+        return ch < 32 ? unicodeEscape(ch) : null;
+    }
+  }
+
   static String unicodeEscape(char ch) {
     StringBuilder sb = new StringBuilder();
     sb.append("\\u");
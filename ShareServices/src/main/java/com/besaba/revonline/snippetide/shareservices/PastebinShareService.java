@@ -5,7 +5,6 @@ import com.besaba.revonline.pastebinapi.impl.factory.PastebinFactory;
 import com.besaba.revonline.pastebinapi.paste.Paste;
 import com.besaba.revonline.pastebinapi.paste.PasteExpire;
 import com.besaba.revonline.pastebinapi.paste.PasteVisiblity;
-import com.besaba.revonline.pastebinapi.response.Response;
 import com.besaba.revonline.snippetide.api.application.IDEApplicationLauncher;
 import com.besaba.revonline.snippetide.api.datashare.StructureDataContainer;
 import com.besaba.revonline.snippetide.api.datashare.StructureFieldInfo;
@@ -37,6 +36,8 @@ public class PastebinShareService implements ShareService {
 
   @NotNull
   private final EventManager eventManager = IDEApplicationLauncher.getIDEApplication().getEventManager();
+  @NotNull
+  private final ShareHttpClient httpClient = ShareHttpClient.getSharedClient();
 
   @NotNull
   @Override
@@ -47,7 +48,7 @@ public class PastebinShareService implements ShareService {
   @NotNull
   @Override
   public Image getImage() {
-    return new Image(PastebinShareService.class.getResourceAsStream("pastebin.png"));
+    return ShareServiceIcons.get("pastebin.png");
   }
 
   @Override
@@ -56,19 +57,25 @@ public class PastebinShareService implements ShareService {
       return;
     }
 
+    final String requestId = event.getRequestId();
     final String devKey = event.getParameters().getValues().get("Pastebin DevKey").toString();
 
     final PastebinFactory factory = new PastebinFactory();
     final Pastebin pastebin = factory.createPastebin(devKey);
 
     final Paste paste = generateData(event.getFileName(), event.getCode(), devKey, event.getLanguage().getName(), factory);
-    final Response<String> response = pastebin.post(paste);
 
-    if (response.hasError()) {
-      eventManager.post(new ShareFailedEvent(null, response.getError(), this));
-    } else {
-      eventManager.post(new ShareCompletedEvent(response.get(), this));
-    }
+    // the pastebin library blocks until the server answers, keep it away from the event manager
+    httpClient.submit(() -> pastebin.post(paste))
+        .whenComplete((response, error) -> {
+          if (error != null) {
+            eventManager.post(new ShareFailedEvent(error, "Unable to reach Pastebin: " + error.getMessage(), this, requestId));
+          } else if (response.hasError()) {
+            eventManager.post(new ShareFailedEvent(null, response.getError(), this, requestId));
+          } else {
+            eventManager.post(new ShareCompletedEvent(response.get(), this, requestId));
+          }
+        });
   }
 
   @NotNull
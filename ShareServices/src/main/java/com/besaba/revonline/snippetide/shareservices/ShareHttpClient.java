@@ -0,0 +1,255 @@
+package com.besaba.revonline.snippetide.shareservices;
+
+import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The HTTP client shared by the share services of this plugin.
+ *
+ * <p>Requests are executed by a small pool of background threads, so
+ * a slow or hung server never blocks the thread of the event manager.
+ * Every request has a connect and a read timeout and, when the connection
+ * fails, it is tried again a few times waiting twice as long after every attempt.
+ * Once the body has been sent nothing is retried here: a POST isn't idempotent,
+ * a server which is only slow would create the gist or the paste twice.
+ * A failed share (a 5xx too) is tried again by the share queue of the IDE,
+ * so the server receives at most one request for every attempt of the queue.</p>
+ *
+ * <p>The body is sent with chunked transfer encoding while it is
+ * written, so it is never kept in memory.</p>
+ *
+ * <p>HttpURLConnection keeps the connection alive and gives it to the
+ * next request for the same host when the response has been read until
+ * the end and its stream is closed, that's why the connections
+ * are never disconnect()ed.</p>
+ */
+class ShareHttpClient {
+  private static final int THREADS = 2;
+  private static final int CONNECT_TIMEOUT_MILLISECONDS = 10_000;
+  private static final int READ_TIMEOUT_MILLISECONDS = 30_000;
+  private static final int MAX_ATTEMPTS = 3;
+  private static final long FIRST_RETRY_DELAY_MILLISECONDS = 1000;
+
+  private static final ShareHttpClient sharedClient = new ShareHttpClient(
+      THREADS,
+      CONNECT_TIMEOUT_MILLISECONDS,
+      READ_TIMEOUT_MILLISECONDS,
+      MAX_ATTEMPTS,
+      FIRST_RETRY_DELAY_MILLISECONDS
+  );
+
+  @NotNull
+  private final ScheduledExecutorService executor;
+  private final int connectTimeoutMilliseconds;
+  private final int readTimeoutMilliseconds;
+  private final int maxAttempts;
+  private final long firstRetryDelayMilliseconds;
+
+  ShareHttpClient(final int threads,
+                  final int connectTimeoutMilliseconds,
+                  final int readTimeoutMilliseconds,
+                  final int maxAttempts,
+                  final long firstRetryDelayMilliseconds) {
+    if (maxAttempts <= 0) {
+      throw new IllegalArgumentException("A request needs at least one attempt");
+    }
+
+    this.executor = Executors.newScheduledThreadPool(
+        threads,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ShareServices-Http-%d").build()
+    );
+    this.connectTimeoutMilliseconds = connectTimeoutMilliseconds;
+    this.readTimeoutMilliseconds = readTimeoutMilliseconds;
+    this.maxAttempts = maxAttempts;
+    this.firstRetryDelayMilliseconds = firstRetryDelayMilliseconds;
+  }
+
+  @NotNull
+  static ShareHttpClient getSharedClient() {
+    return sharedClient;
+  }
+
+  /**
+   * Sends a POST request in background.
+   *
+   * @param url Where the request is sent
+   * @param contentType The content type of the body
+   * @param body Writes the body of the request
+   * @return Completed with the response of the server (which could be an error code),
+   *         or exceptionally if the server cannot be reached after every attempt
+   *         or the request fails after it has been sent
+   */
+  @NotNull
+  CompletableFuture<Response> post(@NotNull final URL url,
+                                   @NotNull final String contentType,
+                                   @NotNull final RequestBody body) {
+    final CompletableFuture<Response> response = new CompletableFuture<>();
+    executor.execute(() -> attempt(url, contentType, body, 1, response));
+    return response;
+  }
+
+  /**
+   * Runs a blocking task in the threads of the client, for the services
+   * which talk with the server through their own library.
+   */
+  @NotNull
+  <T> CompletableFuture<T> submit(@NotNull final Callable<T> task) {
+    final CompletableFuture<T> result = new CompletableFuture<>();
+
+    executor.execute(() -> {
+      try {
+        result.complete(task.call());
+      } catch (Exception e) {
+        result.completeExceptionally(e);
+      }
+    });
+
+    return result;
+  }
+
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private void attempt(@NotNull final URL url,
+                       @NotNull final String contentType,
+                       @NotNull final RequestBody body,
+                       final int attempt,
+                       @NotNull final CompletableFuture<Response> result) {
+    final HttpURLConnection connection;
+
+    try {
+      connection = connect(url, contentType);
+    } catch (IOException e) {
+      // nothing has been sent yet
+      if (attempt < maxAttempts) {
+        retry(url, contentType, body, attempt, result);
+        return;
+      }
+
+      result.completeExceptionally(e);
+      return;
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+      return;
+    }
+
+    try {
+      result.complete(send(connection, body));
+    } catch (IOException | RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+  }
+
+  private void retry(@NotNull final URL url,
+                     @NotNull final String contentType,
+                     @NotNull final RequestBody body,
+                     final int attempt,
+                     @NotNull final CompletableFuture<Response> result) {
+    final long delay = firstRetryDelayMilliseconds << (attempt - 1);
+
+    executor.schedule(
+        () -> attempt(url, contentType, body, attempt + 1, result),
+        delay,
+        TimeUnit.MILLISECONDS
+    );
+  }
+
+  @NotNull
+  private HttpURLConnection connect(@NotNull final URL url, @NotNull final String contentType) throws IOException {
+    final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+
+    connection.setConnectTimeout(connectTimeoutMilliseconds);
+    connection.setReadTimeout(readTimeoutMilliseconds);
+    connection.setDoOutput(true);
+    connection.setRequestMethod("POST");
+    connection.setRequestProperty("Content-Type", contentType);
+    // without a streaming mode HttpURLConnection keeps the whole body in memory to compute its length
+    connection.setChunkedStreamingMode(0);
+    connection.connect();
+
+    return connection;
+  }
+
+  @NotNull
+  private static Response send(@NotNull final HttpURLConnection connection,
+                               @NotNull final RequestBody body) throws IOException {
+    try (final OutputStream output = connection.getOutputStream()) {
+      body.writeTo(output);
+    }
+
+    final int code = connection.getResponseCode();
+    final String responseBody;
+
+    try (final InputStream input = code >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+      responseBody = input == null ? "" : CharStreams.toString(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    return new Response(code, connection.getHeaderFields(), responseBody);
+  }
+
+  /**
+   * Writes the body of a request
+   */
+  @FunctionalInterface
+  interface RequestBody {
+    void writeTo(@NotNull OutputStream output) throws IOException;
+  }
+
+  static class Response {
+    private final int code;
+    @NotNull
+    private final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    @NotNull
+    private final String body;
+
+    Response(final int code, @NotNull final Map<String, List<String>> headers, @NotNull final String body) {
+      this.code = code;
+      this.body = body;
+
+      // the status line is stored with a null key
+      headers.forEach((name, values) -> {
+        if (name != null) {
+          this.headers.put(name, values);
+        }
+      });
+    }
+
+    int getCode() {
+      return code;
+    }
+
+    /**
+     * @return The first value of the header, null if the server didn't send it
+     */
+    @Nullable
+    String getHeader(@NotNull final String name) {
+      final List<String> values = headers.getOrDefault(name, Collections.emptyList());
+      return values.isEmpty() ? null : values.get(0);
+    }
+
+    @NotNull
+    String getBody() {
+      return body;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.besaba.revonline.snippetide.shareservices;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import javafx.scene.image.Image;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * The icons of the share services, decoded the first time
+ * they are requested and then shared by every window.
+ */
+final class ShareServiceIcons {
+  private static final LoadingCache<String, Image> icons = CacheBuilder.newBuilder()
+      .build(new CacheLoader<String, Image>() {
+        @Override
+        public Image load(@NotNull final String resourceName) {
+          return decode(resourceName);
+        }
+      });
+
+  private ShareServiceIcons() {
+  }
+
+  /**
+   * @param resourceName The name of the image, relative to this package
+   */
+  @NotNull
+  static Image get(@NotNull final String resourceName) {
+    return icons.getUnchecked(resourceName);
+  }
+
+  @NotNull
+  private static Image decode(@NotNull final String resourceName) {
+    try (final InputStream input = ShareServiceIcons.class.getResourceAsStream(resourceName)) {
+      if (input == null) {
+        throw new IllegalArgumentException("Missing icon " + resourceName);
+      }
+
+      // the image is loaded synchronously, the stream can be closed right after
+      return new Image(input);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -4,6 +4,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.net.HttpURLConnection;
 import java.net.URL;
 
@@ -40,4 +41,21 @@ public class GistShareServiceTest {
     assertEquals("\"hello\"", GistShareService.escapeForJson("hello"));
     assertEquals("\"hell\\\"ol!\"", GistShareService.escapeForJson("hell\"ol!"));
   }
+
+  @Test
+  public void testWriteJsonRequest() throws Exception {
+    final StringWriter writer = new StringWriter();
+    GistShareService.writeJsonRequest(writer, "Solution.java", "a\tb\n\"c\"\u0001", "Java", "");
+
+    assertEquals("{\n" +
+        "  \"description\": \"\",\n" +
+        "  \"public\": true,\n" +
+        "  \"files\": {\n" +
+        "    \"Solution.java\": {\n" +
+        "      \"content\": \"a\\tb\\n\\\"c\\\"\\u0001\",\n" +
+        "      \"language\": \"Java\"\n" +
+        "    }\n" +
+        "  }\n" +
+        "}", writer.toString());
+  }
 }
\ No newline at end of file
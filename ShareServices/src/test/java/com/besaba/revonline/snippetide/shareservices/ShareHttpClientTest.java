@@ -0,0 +1,164 @@
+package com.besaba.revonline.snippetide.shareservices;
+
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ShareHttpClientTest {
+  private static final byte[] BODY = "{\"content\": \"hello\"}".getBytes(StandardCharsets.UTF_8);
+
+  private HttpServer server;
+  private ShareHttpClient client;
+
+  @Before
+  public void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.start();
+
+    client = new ShareHttpClient(2, 1000, 300, 3, 10);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    client.shutdown();
+    server.stop(0);
+  }
+
+  @Test
+  public void testPost() throws Exception {
+    final AtomicInteger receivedBytes = new AtomicInteger();
+    final AtomicReference<String> transferEncoding = new AtomicReference<>();
+
+    server.createContext("/gists", exchange -> {
+      transferEncoding.set(exchange.getRequestHeaders().getFirst("Transfer-Encoding"));
+      receivedBytes.set(ByteStreams.toByteArray(exchange.getRequestBody()).length);
+      exchange.getResponseHeaders().add("Location", "https://api.github.com/gists/abc");
+      respond(exchange, 201, "created");
+    });
+
+    final ShareHttpClient.Response response = post("/gists").get(5, TimeUnit.SECONDS);
+
+    assertEquals(201, response.getCode());
+    assertEquals("https://api.github.com/gists/abc", response.getHeader("location"));
+    assertEquals("created", response.getBody());
+    assertEquals(BODY.length, receivedBytes.get());
+    assertEquals("chunked", transferEncoding.get());
+  }
+
+  @Test
+  public void testServerErrorsAreNotRetried() throws Exception {
+    final AtomicInteger requests = new AtomicInteger();
+
+    server.createContext("/gists", exchange -> {
+      ByteStreams.toByteArray(exchange.getRequestBody());
+      respond(exchange, requests.incrementAndGet() < 3 ? 503 : 201, "");
+    });
+
+    // the share queue of the IDE tries again, with its own delays
+    assertEquals(503, post("/gists").get(5, TimeUnit.SECONDS).getCode());
+    assertEquals(1, requests.get());
+  }
+
+  @Test
+  public void testClientErrorsAreNotRetried() throws Exception {
+    final AtomicInteger requests = new AtomicInteger();
+
+    server.createContext("/gists", exchange -> {
+      requests.incrementAndGet();
+      ByteStreams.toByteArray(exchange.getRequestBody());
+      respond(exchange, 422, "invalid");
+    });
+
+    final ShareHttpClient.Response response = post("/gists").get(5, TimeUnit.SECONDS);
+
+    assertEquals(422, response.getCode());
+    assertEquals("invalid", response.getBody());
+    assertEquals(1, requests.get());
+  }
+
+  @Test
+  public void testHungServerDoesNotBlockOtherRequests() throws Exception {
+    final AtomicInteger hungRequests = new AtomicInteger();
+
+    server.createContext("/hung", exchange -> {
+      hungRequests.incrementAndGet();
+
+      try {
+        Thread.sleep(5000);
+      } catch (InterruptedException ignored) {
+      }
+    });
+    server.createContext("/ok", exchange -> {
+      ByteStreams.toByteArray(exchange.getRequestBody());
+      respond(exchange, 201, "");
+    });
+
+    final CompletableFuture<ShareHttpClient.Response> hung = post("/hung");
+    final CompletableFuture<ShareHttpClient.Response> ok = post("/ok");
+
+    assertEquals(201, ok.get(2, TimeUnit.SECONDS).getCode());
+
+    try {
+      hung.get(5, TimeUnit.SECONDS);
+      fail("The request to a hung server should time out");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof SocketTimeoutException);
+    }
+
+    // the server may have created the gist anyway, sending it again could duplicate it
+    Thread.sleep(100);
+    assertEquals(1, hungRequests.get());
+  }
+
+  @Test
+  public void testUnreachableServerFails() throws Exception {
+    final int port = server.getAddress().getPort();
+    server.stop(0);
+
+    final URL url = new URL("http", "localhost", port, "/gists");
+    final AtomicInteger bodies = new AtomicInteger();
+
+    try {
+      client.post(url, "application/json", output -> bodies.incrementAndGet()).get(5, TimeUnit.SECONDS);
+      fail("Nothing is listening on the port");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IOException);
+    }
+
+    // the body is written only to a connection which has been opened
+    assertEquals(0, bodies.get());
+  }
+
+  private CompletableFuture<ShareHttpClient.Response> post(final String path) throws IOException {
+    final URL url = new URL("http", "localhost", server.getAddress().getPort(), path);
+    return client.post(url, "application/json", output -> output.write(BODY));
+  }
+
+  private static void respond(final HttpExchange exchange, final int code, final String body) throws IOException {
+    final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(code, bytes.length == 0 ? -1 : bytes.length);
+
+    try (final OutputStream output = exchange.getResponseBody()) {
+      output.write(bytes);
+    }
+  }
+}
@@ -6,58 +6,76 @@ import com.besaba.revonline.snippetide.api.application.IDEInstanceContext;
 import com.besaba.revonline.snippetide.api.compiler.CompilationProblem;
 import com.besaba.revonline.snippetide.api.compiler.CompilationProblemType;
 import com.besaba.revonline.snippetide.api.compiler.CompilationResult;
+import com.besaba.revonline.snippetide.api.configuration.Configuration;
 import com.besaba.revonline.snippetide.api.datashare.DataContainer;
+import com.besaba.revonline.snippetide.api.events.SessionId;
 import com.besaba.revonline.snippetide.api.events.boot.UnBootEvent;
-import com.besaba.revonline.snippetide.api.events.compile.CompileFinishedEvent;
 import com.besaba.revonline.snippetide.api.events.compile.CompileStartEvent;
 import com.besaba.revonline.snippetide.api.events.compile.CompileStartEventBuilder;
 import com.besaba.revonline.snippetide.api.events.manager.EventManager;
+import com.besaba.revonline.snippetide.api.events.run.InputProgressEvent;
 import com.besaba.revonline.snippetide.api.events.run.MessageFromProcess;
 import com.besaba.revonline.snippetide.api.events.run.RunInformationEvent;
 import com.besaba.revonline.snippetide.api.events.run.RunStartEvent;
+import com.besaba.revonline.snippetide.api.events.run.RunStopEvent;
 import com.besaba.revonline.snippetide.api.events.run.SendMessageToProcessEvent;
-import com.besaba.revonline.snippetide.api.events.share.ShareCompletedEvent;
-import com.besaba.revonline.snippetide.api.events.share.ShareFailedEvent;
-import com.besaba.revonline.snippetide.api.events.share.ShareRequestEvent;
+import com.besaba.revonline.snippetide.api.language.AsyncLanguage;
 import com.besaba.revonline.snippetide.api.language.Language;
 import com.besaba.revonline.snippetide.api.plugins.Plugin;
 import com.besaba.revonline.snippetide.api.plugins.PluginManager;
 import com.besaba.revonline.snippetide.api.run.ManageRunConfigurationsContext;
+import com.besaba.revonline.snippetide.configuration.contract.ConfigurationSettingsContract;
 import com.besaba.revonline.snippetide.datashare.DataStructureManager;
 import com.besaba.revonline.snippetide.datashare.context.DataStructureManagerContext;
 import com.besaba.revonline.snippetide.datashare.context.RunConfigurationDataStructureManagerContext;
 import com.besaba.revonline.snippetide.datashare.context.ShareServiceParametersDataStructureManagerContext;
+import com.besaba.revonline.snippetide.diagnostics.EventDiagnosticsController;
+import com.besaba.revonline.snippetide.events.manager.impl.EventBusEventManager;
 import com.besaba.revonline.snippetide.keymap.Action;
 import com.besaba.revonline.snippetide.keymap.Keymap;
+import com.besaba.revonline.snippetide.language.EventLanguageAdapter;
+import com.besaba.revonline.snippetide.run.RunConfigurationFields;
+import com.besaba.revonline.snippetide.run.RunLimits;
 import com.besaba.revonline.snippetide.run.RunSnippet;
+import com.besaba.revonline.snippetide.run.TestCase;
+import com.besaba.revonline.snippetide.run.TestCaseResult;
+import com.besaba.revonline.snippetide.run.TestCaseRunner;
+import com.besaba.revonline.snippetide.share.PendingShare;
+import com.besaba.revonline.snippetide.share.ShareQueue;
+import com.besaba.revonline.snippetide.ui.FxmlTemplates;
 import com.google.common.eventbus.Subscribe;
 import com.google.common.io.Files;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.event.Event;
 import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
-import javafx.scene.control.ButtonBar;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.control.TabPane;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.image.ImageView;
-import javafx.scene.input.Clipboard;
-import javafx.scene.input.ClipboardContent;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import javafx.util.StringConverter;
 import org.apache.log4j.Logger;
 import org.controlsfx.control.Notifications;
@@ -71,10 +89,19 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * The controller of the view ide.fxml
@@ -83,11 +110,22 @@ public class IdeController {
   public static final String DEFAULT_SNIPPET_FILE_NAME = "Solution";
 
   private final static Logger logger = Logger.getLogger(IdeController.class);
+  /**
+   * How long the user has to stop typing before a live run starts
+   */
+  private static final Duration LIVE_RUN_DELAY = Duration.millis(300);
+  private static final int DEFAULT_IDLE_DELAY_MILLISECONDS = 1500;
+  private static final int DEFAULT_TEST_CASE_TIME_LIMIT_MILLISECONDS = 5000;
 
   @FXML
   private Menu shareOnMenu;
   @FXML
+  private Menu pendingSharesMenu;
+  @FXML
   private TextField inputField;
+  // shown while the input file of the run configuration is sent
+  @FXML
+  private ProgressBar inputProgress;
   @FXML
   private Button manageRunConfigurations;
   @FXML
@@ -116,6 +154,16 @@ public class IdeController {
   private TextArea codeArea;
   @FXML
   private MenuItem saveToOriginalFile;
+  @FXML
+  private CheckMenuItem liveRun;
+  @NotNull
+  private final PauseTransition liveRunDelay = new PauseTransition(LIVE_RUN_DELAY);
+  @FXML
+  private CheckMenuItem compileWhenIdle;
+  @NotNull
+  private final PauseTransition idleDelay = new PauseTransition();
+  // compiles and runs asked by the user which haven't been answered yet, only used by the JavaFX thread
+  private int foregroundRequests;
 
   // <editor-fold name="Compilation table fields">
   @FXML
@@ -126,15 +174,29 @@ public class IdeController {
   private TableColumn<CompilationProblem, Long> compilationTableLine;
   @FXML
   private TableColumn<CompilationProblem, String> compilationTableMessage;
+  // problems received from the compiler thread, added to the table in one go by the JavaFX thread
+  @NotNull
+  private final Queue<CompilationProblem> pendingProblems = new ConcurrentLinkedQueue<>();
+  @NotNull
+  private final AtomicBoolean pendingProblemsScheduled = new AtomicBoolean();
   // </editor-fold>
   @NotNull
   private final Optional<Path> originalFile;
   @NotNull
   private Optional<RunSnippet> runSnippetThread = Optional.empty();
+  @NotNull
+  private Optional<TestCaseRunner> testCaseRunner = Optional.empty();
+  @Nullable
+  private File lastTestCasesDirectory;
   private DataStructureManagerContext runconfigurationContext;
   private boolean dirtyCodeArea = false;
   @NotNull
   private final Stage stage;
+  // every compile and run of this window, the answers for the other windows are ignored
+  @NotNull
+  private final SessionId sessionId = SessionId.create();
+  // the language itself, or the adapter of a language which only knows the events
+  private AsyncLanguage asyncLanguage;
 
   /**
    * @param language What will be the language used by this view?
@@ -167,6 +229,7 @@ public class IdeController {
     prepareRunAndCompileKeysListener();
     prepareIde();
     prepareShareOnMenu();
+    preparePendingSharesMenu();
     prepareLanguagesList();
     prepareCompilationTable();
   }
@@ -185,7 +248,8 @@ public class IdeController {
           final Optional<DataContainer> dataContainer = new DataStructureManager(context).getDataContainer();
 
           dataContainer.ifPresent(container -> {
-            eventManager.post(new ShareRequestEvent(service, fileName, codeArea.getText(), language, container));
+            ShareQueue.getInstance().enqueue(p, service, fileName, codeArea.getText(), language, container);
+            Notifications.create().text("Sharing on " + service.getServiceName() + "...").showInformation();
           });
         });
         menuItem.setGraphic(new ImageView(service.getImage()));
@@ -195,6 +259,43 @@ public class IdeController {
     });
   }
 
+  /**
+   * Shows the shares which are still in the queue
+   * every time the context menu is opened.
+   */
+  private void preparePendingSharesMenu() {
+    codeArea.getContextMenu().setOnShowing(event -> {
+      final ShareQueue shareQueue = ShareQueue.getInstance();
+      final List<PendingShare> pendingShares = shareQueue.getPendingShares();
+
+      pendingSharesMenu.getItems().clear();
+      pendingSharesMenu.setDisable(pendingShares.isEmpty());
+      pendingSharesMenu.setText("Pending shares (" + pendingShares.size() + ")");
+
+      if (pendingShares.isEmpty()) {
+        return;
+      }
+
+      final long now = System.currentTimeMillis();
+
+      for (final PendingShare share : pendingShares) {
+        final String state = share.getFailedAttempts() == 0
+            ? "sending"
+            : "failed " + share.getFailedAttempts() + " time(s), next attempt in "
+              + Math.max(0, (share.getNextAttemptAt() - now) / 1000) + "s: " + share.getLastError();
+        final MenuItem item = new MenuItem(share.getServiceName() + " - " + share.getFileName() + " (" + state + ")");
+
+        item.setDisable(true);
+        pendingSharesMenu.getItems().add(item);
+      }
+
+      final MenuItem retryNow = new MenuItem("Retry now");
+      retryNow.setOnAction(retryEvent -> shareQueue.retryNow());
+
+      pendingSharesMenu.getItems().addAll(new SeparatorMenuItem(), retryNow);
+    });
+  }
+
   private void prepareIde() {
     final boolean present = originalFile.isPresent();
     saveToOriginalFile.setDisable(!present);
@@ -208,9 +309,57 @@ public class IdeController {
     }
 
     codeArea.setOnKeyTyped(event -> dirtyCodeArea = true);
+    prepareLiveRun();
+    prepareCompileWhenIdle();
     inputField.setOnKeyPressed(this::onInputSubmit);
   }
 
+  /**
+   * When live run is enabled the snippet is run again every time
+   * the user stops typing, useful for languages which are
+   * "run" inside the IDE, like Markdown.
+   */
+  private void prepareLiveRun() {
+    liveRunDelay.setOnFinished(event -> run());
+    codeArea.textProperty().addListener((observable, oldText, newText) -> {
+      if (liveRun.isSelected()) {
+        liveRunDelay.playFromStart();
+      }
+    });
+  }
+
+  /**
+   * When enabled the snippet is compiled in background every time the user
+   * stops typing, the language keeps the result and Run doesn't
+   * have to compile it again if the source is the same.
+   * The background compile has a directory of its own, so it never
+   * touches the files of the compile and run asked by the user.
+   */
+  private void prepareCompileWhenIdle() {
+    final Configuration configuration = application.getConfiguration();
+
+    compileWhenIdle.setSelected(configuration
+        .getAsBoolean(ConfigurationSettingsContract.Editor.COMPILE_WHEN_IDLE_QUERY)
+        .orElse(false));
+    compileWhenIdle.selectedProperty().addListener((observable, oldValue, newValue) -> {
+      configuration.set(ConfigurationSettingsContract.Editor.COMPILE_WHEN_IDLE_QUERY, newValue);
+
+      if (!newValue) {
+        idleDelay.stop();
+      }
+    });
+
+    idleDelay.setDuration(Duration.millis(configuration
+        .getAsInt(ConfigurationSettingsContract.Editor.IDLE_DELAY_QUERY)
+        .orElse(DEFAULT_IDLE_DELAY_MILLISECONDS)));
+    idleDelay.setOnFinished(event -> compileInBackground());
+    codeArea.textProperty().addListener((observable, oldText, newText) -> {
+      if (compileWhenIdle.isSelected()) {
+        idleDelay.playFromStart();
+      }
+    });
+  }
+
   private void onInputSubmit(final KeyEvent keyEvent) {
     if (!runSnippetThread.isPresent()) {
       return;
@@ -227,7 +376,7 @@ public class IdeController {
       final String messageToSend = inputField.getText();
       runTextArea.appendText(messageToSend);
       runTextArea.appendText(System.lineSeparator());
-      eventManager.post(new SendMessageToProcessEvent(messageToSend));
+      eventManager.post(new SendMessageToProcessEvent(sessionId, messageToSend));
       inputField.clear();
     });
   }
@@ -300,6 +449,7 @@ public class IdeController {
                               @NotNull final Language language) {
     this.plugin = plugin;
     this.language = language;
+    changeAsyncLanguage(language);
     this.runconfigurationContext = new RunConfigurationDataStructureManagerContext(plugin, language);
 
     // update text only if available, since this method is excepted to be called from constructor too
@@ -312,6 +462,14 @@ public class IdeController {
     }
   }
 
+  private void changeAsyncLanguage(@NotNull final Language language) {
+    if (asyncLanguage instanceof EventLanguageAdapter) {
+      ((EventLanguageAdapter) asyncLanguage).close();
+    }
+
+    asyncLanguage = EventLanguageAdapter.adapt(language, eventManager);
+  }
+
   private void prepareCompilationTable() {
     compilationTableType.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue().getType()));
     compilationTableLine.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue().getLine()));
@@ -344,14 +502,23 @@ public class IdeController {
   }
 
   private void run() {
+    run(this::startRun);
+  }
+
+  /**
+   * Compiles the snippet if needed and asks the language how to run it
+   *
+   * @param start Called in the JavaFX thread with what the language answered
+   */
+  private void run(@NotNull final Consumer<RunInformationEvent> start) {
+    // the user is waiting for this one
+    idleDelay.stop();
     stopIfAlreadyRunningRunThread();
     cleanRunTextArea();
+    cleanCompilationTable();
 
     final String sourceText = codeArea.getText();
-    final Path sourceFile = Paths.get(
-        application.getTemporaryDirectory().toString(),
-        fileName + language.getExtensions()[0]
-    );
+    final Path sourceFile = getSourceFile();
 
     if (!tryToWriteSourceToFile(sourceText, sourceFile)) {
       final Alert alert = new Alert(Alert.AlertType.ERROR, "Unable to write file content :(", ButtonType.OK);
@@ -363,7 +530,19 @@ public class IdeController {
         .getDataContainer();
 
     dataContainer.ifPresent(container -> {
-      eventManager.post(new RunStartEvent(language, sourceFile, application.getTemporaryDirectory(), container));
+      final RunStartEvent runStartEvent = new RunStartEvent(language, sourceFile, getSessionDirectory(), container, sessionId);
+
+      final CompletableFuture<Boolean> compiled = asyncLanguage.needsCompile()
+          ? compileSnippet(createCompileRequest(sourceFile, false)).thenApply(CompilationResult::successfulCompilation)
+          : CompletableFuture.completedFuture(true);
+
+      foregroundRequests++;
+      compiled
+          .thenCompose(successful -> successful ? asyncLanguage.run(runStartEvent) : CompletableFuture.completedFuture(null))
+          .whenComplete((runInformation, error) -> Platform.runLater(() -> {
+            foregroundRequests--;
+            onRunPrepared(runInformation, error, start);
+          }));
     });
   }
 
@@ -380,25 +559,98 @@ public class IdeController {
 
   private void compile() {
     logger.info("Pressed compile key");
+    idleDelay.stop();
 
     // if the code is too big what will happen?
-    final Path sourceFile = Paths.get(
-        application.getTemporaryDirectory().toString(),
-        fileName + language.getExtensions()[0]
-    );
+    final Path sourceFile = getSourceFile();
 
     if (!tryToWriteSourceToFile(sourceFile)) {
       return;
     }
 
-    final CompileStartEvent event = new CompileStartEventBuilder()
+    cleanCompilationTable();
+
+    final CompileStartEvent request = createCompileRequest(sourceFile, false);
+
+    if (logger.isDebugEnabled()) {
+      logger.debug("compile request -> " + request);
+    }
+
+    foregroundRequests++;
+    compileSnippet(request).whenComplete((result, error) -> Platform.runLater(() -> foregroundRequests--));
+  }
+
+  /**
+   * Compiles the snippet in the background directory, without notifications:
+   * the problems only go in the table.
+   */
+  private void compileInBackground() {
+    if (foregroundRequests > 0) {
+      // its result would replace the one the user is waiting for, tried again later
+      idleDelay.playFromStart();
+      return;
+    }
+
+    final Path sourceFile = getBackgroundDirectory().resolve(getSourceFile().getFileName());
+
+    if (!tryToWriteSourceToFile(codeArea.getText(), sourceFile, false)) {
+      return;
+    }
+
+    cleanCompilationTable();
+    compileSnippet(createCompileRequest(sourceFile, true));
+  }
+
+  /**
+   * The output goes in the directory of the source file
+   */
+  @NotNull
+  private CompileStartEvent createCompileRequest(@NotNull final Path sourceFile, final boolean background) {
+    return new CompileStartEventBuilder()
         .setTarget(language)
         .setSourceFile(sourceFile)
-        .setOutputDirectory(application.getTemporaryDirectory())
+        .setOutputDirectory(sourceFile.getParent())
+        .setSessionId(sessionId)
+        .setBackground(background)
         .build();
+  }
 
-    logger.debug("event sent -> " + event);
-    eventManager.post(event);
+  /**
+   * @return Completed after the result has been given to the JavaFX thread
+   */
+  @NotNull
+  private CompletableFuture<CompilationResult> compileSnippet(@NotNull final CompileStartEvent request) {
+    // the languages can compile in their own thread
+    return asyncLanguage.compile(request, this::onCompileProgress)
+        .whenComplete((result, error) -> Platform.runLater(() -> onCompileFinished(request, result, error)));
+  }
+
+  @NotNull
+  private Path getSourceFile() {
+    return getSessionDirectory().resolve(fileName + language.getExtensions()[0]);
+  }
+
+  /**
+   * Two windows can have a snippet with the same name, so every
+   * window writes its files in a directory of its own.
+   */
+  @NotNull
+  private Path getSessionDirectory() {
+    return getSessionDirectory(application.getTemporaryDirectory(), sessionId);
+  }
+
+  /**
+   * The background compile can't write the files of the compile
+   * asked by the user or the class files of the snippet running
+   */
+  @NotNull
+  private Path getBackgroundDirectory() {
+    return getSessionDirectory().resolve("background");
+  }
+
+  @NotNull
+  static Path getSessionDirectory(@NotNull final Path temporaryDirectory, @NotNull final SessionId sessionId) {
+    return temporaryDirectory.resolve(sessionId.toString());
   }
 
   private boolean tryToWriteSourceToFile(final Path destination) {
@@ -406,16 +658,29 @@ public class IdeController {
   }
 
   private boolean tryToWriteSourceToFile(final String source, final Path destination) {
-    try(final BufferedWriter writer = java.nio.file.Files.newBufferedWriter(
-        destination,
-        StandardCharsets.UTF_8,
-        StandardOpenOption.CREATE,
-        StandardOpenOption.TRUNCATE_EXISTING)
-       ) {
-      writer.write(source);
+    return tryToWriteSourceToFile(source, destination, true);
+  }
+
+  /**
+   * @param showError false to only log the error
+   */
+  private boolean tryToWriteSourceToFile(final String source, final Path destination, final boolean showError) {
+    try {
+      java.nio.file.Files.createDirectories(destination.getParent());
+
+      try (final BufferedWriter writer = java.nio.file.Files.newBufferedWriter(
+          destination,
+          StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING)
+         ) {
+        writer.write(source);
+      }
     } catch (IOException e) {
-      final Alert alert = new Alert(Alert.AlertType.ERROR, "Unable to compile the snippet :(", ButtonType.OK);
-      alert.showAndWait();
+      if (showError) {
+        final Alert alert = new Alert(Alert.AlertType.ERROR, "Unable to compile the snippet :(", ButtonType.OK);
+        alert.showAndWait();
+      }
 
       logger.fatal("Unable to write the source into the file!", e);
       return false;
@@ -424,19 +689,70 @@ public class IdeController {
     return true;
   }
 
-  @Subscribe
-  public void onCompileFinished(final CompileFinishedEvent compileFinishedEvent) {
+  /**
+   * The problems arrive one by one while the language is compiling, they are
+   * added to the table at most once per pulse of the JavaFX thread.
+   */
+  private void onCompileProgress(final List<CompilationProblem> problems) {
+    pendingProblems.addAll(problems);
+
+    if (pendingProblemsScheduled.compareAndSet(false, true)) {
+      Platform.runLater(this::addPendingProblemsToTheTable);
+    }
+  }
+
+  private void onCompileFinished(@NotNull final CompileStartEvent request,
+                                 @Nullable final CompilationResult compilationResult,
+                                 @Nullable final Throwable error) {
     logger.debug("compile finished!");
 
+    if (error != null) {
+      if (!isCancellation(error)) {
+        logger.error("The compile failed", error);
+        Notifications.create().text("Unable to compile the snippet:\n" + getMessage(error)).showError();
+      }
+
+      // else superseded by a newer compile, its result will arrive
+      return;
+    }
+
+    if (request.isBackground()) {
+      // the user is typing, only the table is updated
+      putCompilationResultIntoTheTable(compilationResult);
+      return;
+    }
+
     compileAndRunPane.getSelectionModel().select(0);
-    final CompilationResult compilationResult = compileFinishedEvent.getCompilationResult();
 
     showCompilationNotification(compilationResult);
     putCompilationResultIntoTheTable(compilationResult);
   }
 
+  private void addPendingProblemsToTheTable() {
+    pendingProblemsScheduled.set(false);
+
+    final List<CompilationProblem> problems = new ArrayList<>();
+    for (CompilationProblem problem; (problem = pendingProblems.poll()) != null; ) {
+      problems.add(problem);
+    }
+
+    if (!problems.isEmpty()) {
+      compilationTable.getItems().addAll(problems);
+    }
+  }
+
   private void putCompilationResultIntoTheTable(final CompilationResult compilationResult) {
-    compilationTable.setItems(FXCollections.observableArrayList(compilationResult.getProblems()));
+    addPendingProblemsToTheTable();
+
+    // the table already has them if the language reported them with CompileProgressEvent
+    if (compilationTable.getItems().size() != compilationResult.getProblems().size()) {
+      compilationTable.setItems(FXCollections.observableArrayList(compilationResult.getProblems()));
+    }
+  }
+
+  private void cleanCompilationTable() {
+    pendingProblems.clear();
+    compilationTable.getItems().clear();
   }
 
   private void showCompilationNotification(final CompilationResult compilationResult) {
@@ -522,8 +838,43 @@ public class IdeController {
     application.openIdeInstance(ideInstanceContext);
   }
 
-  @Subscribe
-  public void runInformationResponse(final RunInformationEvent runInformationEvent) {
+  /**
+   * @param runInformation null if the snippet didn't compile
+   */
+  private void onRunPrepared(@Nullable final RunInformationEvent runInformation,
+                             @Nullable final Throwable error,
+                             @NotNull final Consumer<RunInformationEvent> start) {
+    if (error != null) {
+      if (!isCancellation(error)) {
+        compileAndRunPane.getSelectionModel().select(1);
+        runTextArea.appendText(getMessage(error));
+        runTextArea.appendText(System.lineSeparator());
+      }
+
+      return;
+    }
+
+    if (runInformation != null) {
+      start.accept(runInformation);
+    }
+  }
+
+  private static boolean isCancellation(@NotNull final Throwable error) {
+    return unwrap(error) instanceof CancellationException;
+  }
+
+  @NotNull
+  private static String getMessage(@NotNull final Throwable error) {
+    final Throwable cause = unwrap(error);
+    return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+  }
+
+  @NotNull
+  private static Throwable unwrap(@NotNull final Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+  }
+
+  private void startRun(final RunInformationEvent runInformationEvent) {
     compileAndRunPane.getSelectionModel().select(1);
 
     stopIfAlreadyRunningRunThread();
@@ -532,20 +883,145 @@ public class IdeController {
       return;
     }
 
+    showInputSource(RunConfigurationFields.getInputFile(runInformationEvent.getRunStartEvent().getDataContainer()));
+
     final RunSnippet runSnippet = new RunSnippet(runInformationEvent, eventManager);
     runSnippetThread = Optional.of(runSnippet);
     runSnippet.start();
   }
 
+  /**
+   * The typed input isn't sent when the input is read from a file
+   */
+  private void showInputSource(@NotNull final Optional<Path> inputFile) {
+    inputField.setDisable(inputFile.isPresent());
+    inputField.setPromptText(inputFile.map(file -> "Input read from " + file).orElse(""));
+    inputProgress.setProgress(0);
+    inputProgress.setVisible(inputFile.isPresent());
+    inputProgress.setManaged(inputFile.isPresent());
+  }
+
+  @Subscribe
+  public void onInputProgress(final InputProgressEvent event) {
+    if (!sessionId.equals(event.getSessionId())) {
+      return;
+    }
+
+    Platform.runLater(() -> {
+      if (event.isCompleted()) {
+        inputProgress.setVisible(false);
+        inputProgress.setManaged(false);
+      } else {
+        inputProgress.setProgress((double) event.getSentBytes() / event.getTotalBytes());
+      }
+    });
+  }
+
   @Subscribe
   public void onMessageFromSubprocess(final MessageFromProcess messageFromProcess) {
+    // the plugins built before sessions existed write to every window
+    if (!sessionId.matches(messageFromProcess.getSessionId())) {
+      return;
+    }
+
     Platform.runLater(() -> {
       runTextArea.appendText(messageFromProcess.getMessage());
       runTextArea.appendText(System.lineSeparator());
     });
   }
 
+  @FXML
+  private void runTestCases(ActionEvent event) {
+    final DirectoryChooser directoryChooser = new DirectoryChooser();
+    directoryChooser.setTitle("Directory with the test cases (name" + TestCase.INPUT_EXTENSION
+        + " and name" + TestCase.EXPECTED_OUTPUT_EXTENSION + ")");
+    directoryChooser.setInitialDirectory(lastTestCasesDirectory);
+
+    final File directory = directoryChooser.showDialog(null);
+
+    if (directory == null) {
+      return;
+    }
+
+    lastTestCasesDirectory = directory;
+
+    final List<TestCase> testCases;
+    try {
+      testCases = TestCase.findAll(directory.toPath());
+    } catch (IOException e) {
+      logger.error("unable to list the test cases of " + directory, e);
+      new Alert(Alert.AlertType.ERROR, "Unable to read the directory " + directory, ButtonType.OK).show();
+      return;
+    }
+
+    if (testCases.isEmpty()) {
+      new Alert(Alert.AlertType.INFORMATION, "There are no test cases in " + directory + ": a test case is a name"
+          + TestCase.INPUT_EXTENSION + " file with a name" + TestCase.EXPECTED_OUTPUT_EXTENSION + " file", ButtonType.OK).show();
+      return;
+    }
+
+    run(runInformation -> startTestCases(runInformation, testCases));
+  }
+
+  private void startTestCases(final RunInformationEvent runInformationEvent, final List<TestCase> testCases) {
+    compileAndRunPane.getSelectionModel().select(1);
+
+    stopIfAlreadyRunningRunThread();
+
+    if (!runInformationEvent.needExternalProcess()) {
+      runTextArea.appendText(language.getName() + " doesn't run the snippet in a process, the test cases can't be run");
+      runTextArea.appendText(System.lineSeparator());
+      return;
+    }
+
+    final long timeLimit = application.getConfiguration()
+        .getAsInt(ConfigurationSettingsContract.TestCases.TIME_LIMIT_QUERY)
+        .orElse(DEFAULT_TEST_CASE_TIME_LIMIT_MILLISECONDS);
+    final Path workingDirectory = runInformationEvent.getRunStartEvent().getSourceFile().toAbsolutePath().getParent();
+    final TestCaseRunner runner = new TestCaseRunner(
+        runInformationEvent.getCommand(),
+        workingDirectory,
+        timeLimit,
+        RunLimits.from(runInformationEvent.getRunStartEvent().getDataContainer())
+    );
+    testCaseRunner = Optional.of(runner);
+
+    runTextArea.appendText("Running " + testCases.size() + " test cases");
+    runTextArea.appendText(System.lineSeparator());
+
+    final long start = System.nanoTime();
+    runner
+        .start(testCases, result -> Platform.runLater(() -> {
+          runTextArea.appendText(result.toString());
+          runTextArea.appendText(System.lineSeparator());
+        }))
+        .whenComplete((results, error) -> Platform.runLater(() -> {
+          if (testCaseRunner.orElse(null) == runner) {
+            testCaseRunner = Optional.empty();
+          }
+
+          if (error != null) {
+            if (!isCancellation(error)) {
+              runTextArea.appendText("Unable to run the test cases: " + getMessage(error));
+              runTextArea.appendText(System.lineSeparator());
+            }
+            return;
+          }
+
+          final long accepted = results
+              .stream()
+              .filter(result -> result.getVerdict() == TestCaseResult.Verdict.Accepted)
+              .count();
+          runTextArea.appendText(accepted + "/" + results.size() + " test cases passed in "
+              + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+          runTextArea.appendText(System.lineSeparator());
+        }));
+  }
+
   private void stopIfAlreadyRunningRunThread() {
+    testCaseRunner.ifPresent(TestCaseRunner::stop);
+    testCaseRunner = Optional.empty();
+
     if (!runSnippetThread.isPresent()) {
       return;
     }
@@ -591,6 +1067,30 @@ public class IdeController {
     }
   }
 
+  public void showEventDiagnostics(final ActionEvent actionEvent) {
+    if (!(eventManager instanceof EventBusEventManager)) {
+      new Alert(Alert.AlertType.INFORMATION, "The event manager doesn't collect metrics", ButtonType.OK).show();
+      return;
+    }
+
+    final EventDiagnosticsController controller =
+        new EventDiagnosticsController(((EventBusEventManager) eventManager).getMetrics());
+    final FXMLLoader loader = new FXMLLoader(EventDiagnosticsController.class.getResource("eventdiagnostics.fxml"));
+    loader.setControllerFactory(param -> controller);
+
+    try {
+      final Stage stage = new Stage();
+      stage.setScene(new Scene(FxmlTemplates.load(loader)));
+      stage.initOwner(runTextArea.getScene().getWindow());
+      stage.setTitle("Event diagnostics");
+      stage.setOnHidden(event -> controller.stop());
+      stage.show();
+    } catch (IOException e) {
+      new Alert(Alert.AlertType.ERROR, "Unable to open event diagnostics", ButtonType.OK).show();
+      logger.error("Failed to open event diagnostics", e);
+    }
+  }
+
   @FXML
   private void openManageConfigurations(ActionEvent actionEvent) {
     try {
@@ -604,34 +1104,23 @@ public class IdeController {
 
   public void stopRunSnippetThread(ActionEvent actionEvent) {
     stopIfAlreadyRunningRunThread();
-  }
 
-  @Subscribe
-  public void onSuccessfulShare(@NotNull final ShareCompletedEvent event) {
-    Platform.runLater(() -> {
-      final Optional<ButtonType> buttonType
-          = new Alert(Alert.AlertType.INFORMATION,
-          "Shared: " + event.getData(), ButtonType.OK,
-          new ButtonType("Copy", ButtonBar.ButtonData.APPLY)
-      ).showAndWait();
-
-      buttonType.ifPresent(button -> {
-        if (button.getButtonData() == ButtonBar.ButtonData.APPLY) {
-          final Clipboard clipboard = Clipboard.getSystemClipboard();
-          final ClipboardContent content = new ClipboardContent();
-          content.putString(event.getData());
-          clipboard.setContent(content);
-        }
-      });
-    });
+    // languages which run the snippet without an external process have to stop it by themselves
+    eventManager.post(new RunStopEvent(language, sessionId));
   }
 
-  @Subscribe
-  public void onFailedShare(@NotNull final ShareFailedEvent event) {
-    Platform.runLater(() -> {
-      new Alert(Alert.AlertType.ERROR, "Unable to share your code! :( " + event.getReason(), ButtonType.OK).show();
-      logger.error("share failed", event.getThrowable());
-    });
+  /**
+   * The window has been closed: stops listening to the events,
+   * the requests of the window which are still waiting are cancelled
+   */
+  public void close() {
+    eventManager.unregisterListener(this);
+    idleDelay.stop();
+    liveRunDelay.stop();
+
+    if (asyncLanguage instanceof EventLanguageAdapter) {
+      ((EventLanguageAdapter) asyncLanguage).close();
+    }
   }
 
   public class UnBootWorker {
@@ -645,6 +1134,8 @@ public class IdeController {
       logger.debug("unboot event");
       runSnippetThread.ifPresent(RunSnippet::stop);
       runSnippetThread = Optional.empty();
+      testCaseRunner.ifPresent(TestCaseRunner::stop);
+      testCaseRunner = Optional.empty();
     }
   }
 }
@@ -5,6 +5,9 @@ import com.besaba.revonline.snippetide.api.application.IDEInstanceContext;
 import com.besaba.revonline.snippetide.api.language.Language;
 import com.besaba.revonline.snippetide.api.plugins.Plugin;
 import com.besaba.revonline.snippetide.boot.Boot;
+import com.besaba.revonline.snippetide.boot.BootProgressListener;
+import com.besaba.revonline.snippetide.boot.StartupTrace;
+import com.besaba.revonline.snippetide.ui.FxmlTemplates;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.application.Preloader;
@@ -30,17 +33,29 @@ public class Main extends Application {
 
   @Override
   public void init() throws Exception {
+    final StartupTrace startupTrace = StartupTrace.getInstance();
+    final long start = System.nanoTime();
+
     try {
       final String strApplicationDir = getParameters().getNamed().get("applicationdir");
+      final BootProgressListener progressListener = (phase, durationNanos, completedPhases, totalPhases) ->
+          notifyPreloader(new Preloader.ProgressNotification((double) completedPhases / totalPhases));
 
       if (strApplicationDir != null) {
         final Path applicationDir = Paths.get(strApplicationDir);
-        ideApplication = boot.boot(applicationDir, null, null, null);
+        ideApplication = boot.boot(applicationDir, null, null, null, progressListener);
       } else {
-        ideApplication = boot.boot();
+        ideApplication = boot.boot(progressListener);
       }
 
+      startupTrace.record(StartupTrace.BOOT_CATEGORY, "boot", start);
+
       logApplicationStatus(ideApplication);
+
+      final long preloadStart = System.nanoTime();
+      // read while the preloader is still visible, the first window will only build it
+      FxmlTemplates.preload(Main.class.getResource("ide.fxml"));
+      startupTrace.record(StartupTrace.UI_CATEGORY, "fxml preload", preloadStart);
     } catch(Exception e) {
       notifyPreloader(new Preloader.ErrorNotification(null, "Boot exception: " + e.getMessage(), e));
       throw e;
@@ -92,7 +107,25 @@ public class Main extends Application {
     final Plugin plugin = firstPlugin;
 
     final IDEInstanceContext ideInstanceContext = new IDEInstanceContext(randomLanguage, plugin, null);
+    final long start = System.nanoTime();
     ideApplication.openIdeInstance(ideInstanceContext);
+    StartupTrace.getInstance().record(StartupTrace.UI_CATEGORY, "first window", start);
+
+    completeStartupTrace();
+  }
+
+  private void completeStartupTrace() {
+    final StartupTrace startupTrace = StartupTrace.getInstance();
+
+    if (!startupTrace.complete()) {
+      return;
+    }
+
+    try {
+      startupTrace.writeReport(ideApplication.getApplicationDirectory(), ideApplication.getVersion().toString());
+    } catch (IOException e) {
+      logger.error("Unable to write the startup report", e);
+    }
   }
 
   private void logApplicationStatus(final IDEApplication ideApplication) {
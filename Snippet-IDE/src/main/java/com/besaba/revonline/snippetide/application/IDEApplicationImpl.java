@@ -11,8 +11,10 @@ import com.besaba.revonline.snippetide.api.plugins.Plugin;
 import com.besaba.revonline.snippetide.api.plugins.PluginManager;
 import com.besaba.revonline.snippetide.api.plugins.Version;
 import com.besaba.revonline.snippetide.api.run.ManageRunConfigurationsContext;
+import com.besaba.revonline.snippetide.boot.StartupTrace;
 import com.besaba.revonline.snippetide.plugins.PluginsListController;
 import com.besaba.revonline.snippetide.run.ManageRunConfigurationsController;
+import com.besaba.revonline.snippetide.ui.FxmlTemplates;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
@@ -131,7 +133,7 @@ public class IDEApplicationImpl implements IDEApplication {
     final Scene scene;
 
     try {
-      scene = new Scene(loader.load(Main.class.getResourceAsStream("ide.fxml")));
+      scene = new Scene(FxmlTemplates.load(loader));
     } catch (IOException e) {
       final Alert alert = new Alert(Alert.AlertType.ERROR, "Unable to open or create a new instance of the IDE :( Check logs", ButtonType.OK);
       alert.show();
@@ -139,18 +141,11 @@ public class IDEApplicationImpl implements IDEApplication {
       return;
     }
 
-    stage.setOnCloseRequest(event -> {
-      logger.debug("IDEController " + ideController + " requested close, unregister controller to eventmanager");
-      eventManager.unregisterListener(ideController);
-    });
-
-    stage.focusedProperty().addListener((observable, oldValue, newValue) -> {
-      logger.debug("IDEController " + ideController + " has focus? " + newValue);
-      if (newValue) {
-        eventManager.registerListener(ideController);
-      } else {
-        eventManager.unregisterListener(ideController);
-      }
+    // the controller registers itself and keeps listening while unfocused, the events
+    // of its runs have its session. Hidden covers the close request and stage.close()
+    stage.setOnHidden(event -> {
+      logger.debug("IDEController " + ideController + " closed, unregister controller to eventmanager");
+      ideController.close();
     });
 
     stage.setTitle("SnippetIDE " + (fileToOpen == null ? "" : fileToOpen.toString()));
@@ -163,8 +158,8 @@ public class IDEApplicationImpl implements IDEApplication {
 
     final Stage stage = new Stage();
 
-    final FXMLLoader loader = new FXMLLoader(IdeController.class.getResource("about/"));
-    final Scene scene = new Scene(loader.load(IdeController.class.getResourceAsStream("about/about.fxml")));
+    final FXMLLoader loader = new FXMLLoader(IdeController.class.getResource("about/about.fxml"));
+    final Scene scene = new Scene(FxmlTemplates.load(loader));
     scene.getStylesheets().add(IdeController.class.getResource("about/about.css").toExternalForm());
     scene.setOnKeyPressed(event -> {
       if (event.getCode() == KeyCode.ESCAPE) {
@@ -178,6 +173,7 @@ public class IDEApplicationImpl implements IDEApplication {
     }));
 
     ((Text) scene.getRoot().lookup("#versionText")).setText("Version: " + getVersion().toString());
+    ((Text) scene.getRoot().lookup("#startupText")).setText(StartupTrace.getInstance().getSummary());
 
     stage.initStyle(StageStyle.UNDECORATED);
     stage.initOwner(window);
@@ -190,7 +186,7 @@ public class IDEApplicationImpl implements IDEApplication {
   @Override
   public void openPluginsList(@Nullable final Window window) throws IOException {
     final Stage stage = new Stage();
-    final Scene scene = new Scene(FXMLLoader.load(PluginsListController.class.getResource("pluginslist.fxml")));
+    final Scene scene = new Scene(FxmlTemplates.load(new FXMLLoader(PluginsListController.class.getResource("pluginslist.fxml"))));
 
     stage.initModality(Modality.WINDOW_MODAL);
     stage.initOwner(window);
@@ -202,9 +198,9 @@ public class IDEApplicationImpl implements IDEApplication {
 
   @Override
   public void openKeymapSetting(@Nullable final Window window) throws IOException {
-    final FXMLLoader loader = new FXMLLoader(IdeController.class.getResource("keymap/"));
+    final FXMLLoader loader = new FXMLLoader(IdeController.class.getResource("keymap/keymap.fxml"));
     final Stage stage = new Stage();
-    final Scene scene = new Scene(loader.load(IdeController.class.getResourceAsStream("keymap/keymap.fxml")));
+    final Scene scene = new Scene(FxmlTemplates.load(loader));
 
     stage.initModality(Modality.WINDOW_MODAL);
     stage.initOwner(window);
@@ -219,15 +215,13 @@ public class IDEApplicationImpl implements IDEApplication {
   public void openManageConfigurations(@NotNull final ManageRunConfigurationsContext runConfigurationsContext,
                                        @Nullable final Window window)
       throws IOException {
-    final FXMLLoader loader = new FXMLLoader(IdeController.class.getResource("runconfigurations/"));
+    final FXMLLoader loader = new FXMLLoader(IdeController.class.getResource("runconfigurations/managerunconfigurations.fxml"));
     loader.setControllerFactory(param -> param == ManageRunConfigurationsController.class ?
         new ManageRunConfigurationsController(runConfigurationsContext) :
         null
     );
     final Stage stage = new Stage();
-    final Scene scene = new Scene(
-        loader.load(IdeController.class.getResourceAsStream("runconfigurations/managerunconfigurations.fxml"))
-    );
+    final Scene scene = new Scene(FxmlTemplates.load(loader));
 
     stage.initModality(Modality.WINDOW_MODAL);
     stage.initOwner(window);
@@ -15,6 +15,7 @@ import com.besaba.revonline.snippetide.api.plugins.PluginManager;
 import com.besaba.revonline.snippetide.api.plugins.UnableToLoadPluginException;
 import com.besaba.revonline.snippetide.application.IDEApplicationImpl;
 import com.besaba.revonline.snippetide.plugins.JarPluginManager;
+import com.besaba.revonline.snippetide.share.ShareQueue;
 import org.apache.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -38,6 +39,13 @@ import java.util.List;
 public class Boot {
   private static final Path APPLICATION_PATH = Paths.get( System.getProperty("user.dir") , "SnippetIDE" );
 
+  private static final String CONFIGURATION_PHASE = "configuration";
+  private static final String DIRECTORIES_PHASE = "directories";
+  private static final String APPLICATION_PHASE = "application";
+  private static final String PLUGINS_SCAN_PHASE = "plugins scan";
+  private static final String PLUGINS_LOAD_PHASE = "plugins load";
+  private static final String SHARE_QUEUE_PHASE = "share queue";
+
   private volatile boolean booted;
   private static final Logger logger = Logger.getLogger(Boot.class);
   private IDEApplication ideApplication;
@@ -55,6 +63,10 @@ public class Boot {
     return boot(APPLICATION_PATH, null, null, null);
   }
 
+  public IDEApplication boot(@NotNull final BootProgressListener progressListener) {
+    return boot(APPLICATION_PATH, null, null, null, progressListener);
+  }
+
   /**
    * Prepare and initialize everything inside the application.
    *
@@ -70,12 +82,31 @@ public class Boot {
                              @Nullable EventManager eventManager,
                              @Nullable PluginManager pluginManager,
                              @Nullable Configuration configuration) {
+    return boot(applicationPath, eventManager, pluginManager, configuration, (phase, duration, completed, total) -> {});
+  }
+
+  /**
+   * Same as {@link #boot(Path, EventManager, PluginManager, Configuration)}
+   * but reports the progress to the listener.
+   *
+   * <p>The boot is split in phases, the phases which don't need each other
+   * (for example the configuration and the plugin directory scan) run at the same time.</p>
+   *
+   * @param progressListener Invoked every time a phase is completed
+   */
+  public IDEApplication boot(@NotNull final Path applicationPath,
+                             @Nullable EventManager eventManager,
+                             @Nullable PluginManager pluginManager,
+                             @Nullable Configuration configuration,
+                             @NotNull final BootProgressListener progressListener) {
     if (booted) {
       throw new IllegalStateException("Application already started");
     }
 
     if (eventManager == null) {
-      eventManager = new EventBusEventManager();
+      final EventBusEventManager eventBusEventManager = new EventBusEventManager();
+      eventBusEventManager.getMetrics().registerMBean();
+      eventManager = eventBusEventManager;
     }
 
     if (pluginManager == null) {
@@ -101,12 +132,30 @@ public class Boot {
     );
     ideApplication = application;
 
-    loadConfiguration(configuration);
-    createDirectories(application);
-
-    IDEApplicationLauncher.createApplication(application);
-
-    loadPlugins(pluginManager, applicationPath, eventManager);
+    final Configuration finalConfiguration = configuration;
+    final PluginManager finalPluginManager = pluginManager;
+    final EventManager finalEventManager = eventManager;
+    final List<Path> pluginFiles = new ArrayList<>();
+
+    new BootPipeline()
+        .addPhase(CONFIGURATION_PHASE, () -> loadConfiguration(finalConfiguration))
+        .addPhase(DIRECTORIES_PHASE, () -> createDirectories(application))
+        // once created the application is global and the IDE is booted: it must not happen if the boot fails
+        .addPhase(
+            APPLICATION_PHASE,
+            () -> IDEApplicationLauncher.createApplication(application),
+            CONFIGURATION_PHASE, DIRECTORIES_PHASE
+        )
+        .addPhase(PLUGINS_SCAN_PHASE, () -> pluginFiles.addAll(scanPlugins(applicationPath)), DIRECTORIES_PHASE)
+        // a plugin can use the application and the configuration as soon as it's created
+        .addPhase(
+            PLUGINS_LOAD_PHASE,
+            () -> loadPlugins(finalPluginManager, pluginFiles, finalEventManager),
+            APPLICATION_PHASE, PLUGINS_SCAN_PHASE
+        )
+        // the shares left in the queue can be sent only when their plugins are loaded
+        .addPhase(SHARE_QUEUE_PHASE, () -> ShareQueue.getInstance().start(), PLUGINS_LOAD_PHASE)
+        .run(progressListener);
 
     booted = true;
     return application;
@@ -149,33 +198,16 @@ public class Boot {
     }
   }
 
-  private void loadPlugins(@NotNull final PluginManager pluginManager,
-                                  @NotNull final Path applicationPath,
-                                  @NotNull final EventManager eventManager) {
+  @NotNull
+  private List<Path> scanPlugins(@NotNull final Path applicationPath) {
     final Path pluginPath = Paths.get(applicationPath.toAbsolutePath().toString(), "plugins");
+    final List<Path> pluginFiles = new ArrayList<>();
+
     try {
       Files.walkFileTree(pluginPath, new SimpleFileVisitor<Path>() {
         @Override
         public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
-          try {
-            final Plugin plugin = pluginManager.loadPlugin(file, ideApplication.getVersion());
-
-            if (!plugin.isEnabled()) {
-              logger.info("skipping " + plugin.getName() + " because it's disabled");
-              return FileVisitResult.CONTINUE;
-            }
-
-            // we need to register the languages created by the plugin not the plugin class!
-            plugin.getLanguages().forEach(eventManager::registerListener);
-            plugin.getShareServices().forEach(eventManager::registerListener);
-            logger.info("Loaded plugin " + file + "!");
-
-          } catch (UnableToLoadPluginException e) {
-            logger.fatal("Unable to load plugin " + e.getFileLocation() + "! The manager is " + e.getPluginManager(), e);
-          } catch (Exception e) {
-            logger.fatal("Unable to load plugin " + file + ".", e);
-          }
-
+          pluginFiles.add(file);
           return FileVisitResult.CONTINUE;
         }
       });
@@ -183,6 +215,37 @@ public class Boot {
       logger.fatal("Something went wrong during reading the plugin directory", e);
     }
 
+    return pluginFiles;
+  }
+
+  private void loadPlugins(@NotNull final PluginManager pluginManager,
+                           @NotNull final List<Path> pluginFiles,
+                           @NotNull final EventManager eventManager) {
+    for (final Path file : pluginFiles) {
+      final long start = System.nanoTime();
+
+      try {
+        final Plugin plugin = pluginManager.loadPlugin(file, ideApplication.getVersion());
+
+        if (!plugin.isEnabled()) {
+          logger.info("skipping " + plugin.getName() + " because it's disabled");
+          continue;
+        }
+
+        // we need to register the languages created by the plugin not the plugin class!
+        plugin.getLanguages().forEach(eventManager::registerListener);
+        plugin.getShareServices().forEach(eventManager::registerListener);
+        logger.info("Loaded plugin " + file + "!");
+
+      } catch (UnableToLoadPluginException e) {
+        logger.fatal("Unable to load plugin " + e.getFileLocation() + "! The manager is " + e.getPluginManager(), e);
+      } catch (Exception e) {
+        logger.fatal("Unable to load plugin " + file + ".", e);
+      } finally {
+        StartupTrace.getInstance().record(StartupTrace.PLUGIN_CATEGORY, file.getFileName().toString(), start);
+      }
+    }
+
     logger.info("Loaded " + pluginManager.getPluginsCount() + " plugin(s)");
   }
 
@@ -0,0 +1,120 @@
+package com.besaba.revonline.snippetide.boot;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The phases of the boot and what every phase needs.
+ *
+ * <p>A phase starts as soon as all its dependencies are completed,
+ * so the phases which don't depend on each other run at the same time.
+ * If a phase fails the phases which depend on it are not executed
+ * and run() throws the failure.</p>
+ */
+class BootPipeline {
+  private final static Logger logger = Logger.getLogger(BootPipeline.class);
+  private static final int THREADS = 3;
+
+  private final Map<String, Phase> phases = new LinkedHashMap<>();
+
+  /**
+   * @param name The name of the phase, used by the other phases to depend on it
+   * @param action What the phase does
+   * @param dependencies The phases which have to be completed before this one,
+   *                     they must be already added
+   */
+  @NotNull
+  BootPipeline addPhase(@NotNull final String name,
+                        @NotNull final Runnable action,
+                        @NotNull final String... dependencies) {
+    if (phases.containsKey(name)) {
+      throw new IllegalArgumentException("Phase " + name + " already added");
+    }
+
+    for (final String dependency : dependencies) {
+      if (!phases.containsKey(dependency)) {
+        throw new IllegalArgumentException("Phase " + name + " depends on the unknown phase " + dependency);
+      }
+    }
+
+    phases.put(name, new Phase(name, action, Arrays.asList(dependencies)));
+    return this;
+  }
+
+  /**
+   * Runs every phase and waits until all of them are completed.
+   *
+   * @throws BootFailedException If a phase failed
+   */
+  void run(@NotNull final BootProgressListener listener) {
+    final ExecutorService executor = Executors.newFixedThreadPool(
+        THREADS,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("Boot-Phase-%d").build()
+    );
+    final Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+    final int totalPhases = phases.size();
+    final int[] completedPhases = {0};
+
+    try {
+      // a phase is added only after its dependencies, so they are already in the map
+      for (final Phase phase : phases.values()) {
+        final CompletableFuture<?>[] dependencies = phase.dependencies
+            .stream()
+            .map(futures::get)
+            .toArray(CompletableFuture[]::new);
+
+        futures.put(phase.name, CompletableFuture.allOf(dependencies).thenRunAsync(() -> {
+          final long start = System.nanoTime();
+          phase.action.run();
+          final long duration = System.nanoTime() - start;
+
+          logger.info("Boot phase " + phase.name + " completed in " + TimeUnit.NANOSECONDS.toMillis(duration) + "ms");
+          StartupTrace.getInstance().record(StartupTrace.BOOT_CATEGORY, phase.name, start, start + duration);
+
+          synchronized (completedPhases) {
+            completedPhases[0]++;
+            listener.phaseCompleted(phase.name, duration, completedPhases[0], totalPhases);
+          }
+        }, executor));
+      }
+
+      CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[futures.size()])).join();
+    } catch (CompletionException e) {
+      final Throwable cause = e.getCause();
+
+      if (cause instanceof BootFailedException) {
+        throw (BootFailedException) cause;
+      }
+
+      throw new BootFailedException("Boot failed", cause);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static class Phase {
+    @NotNull
+    private final String name;
+    @NotNull
+    private final Runnable action;
+    @NotNull
+    private final List<String> dependencies;
+
+    private Phase(@NotNull final String name, @NotNull final Runnable action, @NotNull final List<String> dependencies) {
+      this.name = name;
+      this.action = action;
+      this.dependencies = dependencies;
+    }
+  }
+}
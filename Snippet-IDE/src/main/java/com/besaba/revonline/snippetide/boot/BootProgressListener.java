@@ -0,0 +1,20 @@
+package com.besaba.revonline.snippetide.boot;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives the progress of the boot, one call for every completed phase.
+ *
+ * <p>The phases can run at the same time, so the listener
+ * can be invoked by different threads (never concurrently).</p>
+ */
+@FunctionalInterface
+public interface BootProgressListener {
+  /**
+   * @param phase The name of the completed phase
+   * @param durationNanos How long the phase took
+   * @param completedPhases How many phases are completed, this one included
+   * @param totalPhases How many phases the boot has
+   */
+  void phaseCompleted(@NotNull String phase, long durationNanos, int completedPhases, int totalPhases);
+}
@@ -0,0 +1,224 @@
+package com.besaba.revonline.snippetide.boot;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.apache.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long every step of the startup takes.
+ *
+ * <p>The times are taken with System.nanoTime() and stored relative
+ * to the moment this class is loaded, which is right before the boot.
+ * The time the JVM needed to get there is saved too.</p>
+ *
+ * <p>When the first window is open the trace is completed and written
+ * as json in the application directory, so the startup of different
+ * releases can be compared.</p>
+ */
+public class StartupTrace {
+  private final static Logger logger = Logger.getLogger(StartupTrace.class);
+  private static final String REPORT_FILE_NAME = "startup-report.json";
+
+  public static final String BOOT_CATEGORY = "boot";
+  public static final String PLUGIN_CATEGORY = "plugin";
+  public static final String UI_CATEGORY = "ui";
+  public static final String INITIALIZATION_CATEGORY = "initialization";
+
+  private static final StartupTrace instance = new StartupTrace(
+      System.nanoTime(),
+      ManagementFactory.getRuntimeMXBean().getUptime()
+  );
+
+  private final long originNanos;
+  private final long jvmUptimeAtOriginMillis;
+  private final ConcurrentLinkedQueue<Step> steps = new ConcurrentLinkedQueue<>();
+  private volatile long totalNanos = -1;
+
+  StartupTrace(final long originNanos, final long jvmUptimeAtOriginMillis) {
+    this.originNanos = originNanos;
+    this.jvmUptimeAtOriginMillis = jvmUptimeAtOriginMillis;
+  }
+
+  @NotNull
+  public static StartupTrace getInstance() {
+    return instance;
+  }
+
+  /**
+   * Saves a step which started at startNanos and ends now.
+   *
+   * @param category What kind of step it is, one of the *_CATEGORY constants
+   * @param name The name of the step
+   * @param startNanos When the step started, taken with System.nanoTime()
+   */
+  public void record(@NotNull final String category, @NotNull final String name, final long startNanos) {
+    record(category, name, startNanos, System.nanoTime());
+  }
+
+  void record(@NotNull final String category, @NotNull final String name, final long startNanos, final long endNanos) {
+    // after the first window the steps aren't part of the startup anymore
+    if (isCompleted()) {
+      return;
+    }
+
+    steps.add(new Step(category, name, startNanos - originNanos, endNanos - startNanos));
+  }
+
+  /**
+   * Marks the startup as completed, no step is recorded after this call.
+   *
+   * @return false if the startup was already completed
+   */
+  public boolean complete() {
+    return complete(System.nanoTime());
+  }
+
+  synchronized boolean complete(final long endNanos) {
+    if (isCompleted()) {
+      return false;
+    }
+
+    totalNanos = endNanos - originNanos;
+    logger.info("Startup completed in " + TimeUnit.NANOSECONDS.toMillis(totalNanos) + "ms "
+        + "(" + jvmUptimeAtOriginMillis + "ms before the boot)");
+    return true;
+  }
+
+  public boolean isCompleted() {
+    return totalNanos >= 0;
+  }
+
+  @NotNull
+  public List<Step> getSteps() {
+    return ImmutableList.copyOf(steps);
+  }
+
+  /**
+   * @return A short description of the startup for the user
+   */
+  @NotNull
+  public String getSummary() {
+    if (!isCompleted()) {
+      return "Startup still in progress";
+    }
+
+    long bootNanos = 0;
+    long pluginsNanos = 0;
+    int plugins = 0;
+
+    for (final Step step : steps) {
+      if (step.category.equals(BOOT_CATEGORY)) {
+        bootNanos = Math.max(bootNanos, step.startNanos + step.durationNanos);
+      } else if (step.category.equals(PLUGIN_CATEGORY)) {
+        pluginsNanos += step.durationNanos;
+        plugins++;
+      }
+    }
+
+    return "Started in " + TimeUnit.NANOSECONDS.toMillis(totalNanos) + "ms"
+        + " (boot " + TimeUnit.NANOSECONDS.toMillis(bootNanos) + "ms"
+        + ", " + plugins + " plugin(s) " + TimeUnit.NANOSECONDS.toMillis(pluginsNanos) + "ms"
+        + ", JVM " + jvmUptimeAtOriginMillis + "ms)";
+  }
+
+  /**
+   * Writes the report of the startup in the directory, replacing the old one.
+   *
+   * @param version The version of the application, saved in the report
+   */
+  public void writeReport(@NotNull final Path directory, @NotNull final String version) throws IOException {
+    final Report report = new Report(
+        version,
+        System.getProperty("java.version"),
+        System.currentTimeMillis(),
+        jvmUptimeAtOriginMillis,
+        TimeUnit.NANOSECONDS.toMillis(totalNanos),
+        getSteps()
+    );
+    final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    final Path temporaryFile = directory.resolve(REPORT_FILE_NAME + ".tmp");
+
+    try (final Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+      gson.toJson(report, writer);
+    }
+
+    Files.move(temporaryFile, directory.resolve(REPORT_FILE_NAME), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * A step of the startup, the times are in nanoseconds
+   * since the start of the trace.
+   */
+  public static class Step {
+    @NotNull
+    private final String category;
+    @NotNull
+    private final String name;
+    private final long startNanos;
+    private final long durationNanos;
+
+    Step(@NotNull final String category, @NotNull final String name, final long startNanos, final long durationNanos) {
+      this.category = category;
+      this.name = name;
+      this.startNanos = startNanos;
+      this.durationNanos = durationNanos;
+    }
+
+    @NotNull
+    public String getCategory() {
+      return category;
+    }
+
+    @NotNull
+    public String getName() {
+      return name;
+    }
+
+    public long getStartNanos() {
+      return startNanos;
+    }
+
+    public long getDurationNanos() {
+      return durationNanos;
+    }
+  }
+
+  /**
+   * What is written in the json file
+   */
+  private static class Report {
+    private final String version;
+    private final String javaVersion;
+    private final long createdAt;
+    private final long jvmUptimeAtOriginMillis;
+    private final long totalMillis;
+    private final List<Step> steps;
+
+    private Report(final String version,
+                   final String javaVersion,
+                   final long createdAt,
+                   final long jvmUptimeAtOriginMillis,
+                   final long totalMillis,
+                   final List<Step> steps) {
+      this.version = version;
+      this.javaVersion = javaVersion;
+      this.createdAt = createdAt;
+      this.jvmUptimeAtOriginMillis = jvmUptimeAtOriginMillis;
+      this.totalMillis = totalMillis;
+      this.steps = steps;
+    }
+  }
+}
@@ -16,6 +16,30 @@ public class ConfigurationSettingsContract {
     public static final String RUN_QUERY = SECTION_NAME + "." + RUN_ENTRY;
   }
 
+  public static class Editor {
+    public static final String SECTION_NAME = "editor";
+
+    public static final String COMPILE_WHEN_IDLE_ENTRY = "compilewhenidle";
+    public static final String IDLE_DELAY_ENTRY = "idledelay";
+
+    public static final String COMPILE_WHEN_IDLE_QUERY = SECTION_NAME + "." + COMPILE_WHEN_IDLE_ENTRY;
+    /**
+     * Milliseconds without typing before the background compile starts
+     */
+    public static final String IDLE_DELAY_QUERY = SECTION_NAME + "." + IDLE_DELAY_ENTRY;
+  }
+
+  public static class TestCases {
+    public static final String SECTION_NAME = "testcases";
+
+    public static final String TIME_LIMIT_ENTRY = "timelimit";
+
+    /**
+     * Milliseconds a test case can run before it's killed
+     */
+    public static final String TIME_LIMIT_QUERY = SECTION_NAME + "." + TIME_LIMIT_ENTRY;
+  }
+
   public static class RunConfigurations {
     public static final String SECTION_NAME = "runconfigurations";
 
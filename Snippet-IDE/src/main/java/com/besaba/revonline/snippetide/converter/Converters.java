@@ -1,5 +1,6 @@
 package com.besaba.revonline.snippetide.converter;
 
+import com.besaba.revonline.snippetide.boot.StartupTrace;
 import com.google.common.collect.ImmutableTable;
 import org.reflections.Reflections;
 
@@ -9,6 +10,7 @@ public class Converters {
   private final static ImmutableTable<Class<?>, Class<?>, Converter<?, ?>> converters;
 
   static {
+    final long start = System.nanoTime();
     final ImmutableTable.Builder<Class<?>, Class<?>, Converter<?, ?>> builder = ImmutableTable.builder();
     final Reflections reflections = new Reflections();
     final Set<Class<? extends Converter>> subtypes = reflections.getSubTypesOf(Converter.class);
@@ -23,6 +25,7 @@ public class Converters {
     }
 
     converters = builder.build();
+    StartupTrace.getInstance().record(StartupTrace.INITIALIZATION_CATEGORY, "converters", start);
   }
 
   @SuppressWarnings("unchecked")
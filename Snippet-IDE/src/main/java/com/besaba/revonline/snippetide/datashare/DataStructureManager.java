@@ -1,6 +1,5 @@
 package com.besaba.revonline.snippetide.datashare;
 
-import com.besaba.revonline.snippetide.IdeController;
 import com.besaba.revonline.snippetide.api.application.IDEApplicationLauncher;
 import com.besaba.revonline.snippetide.api.configuration.Configuration;
 import com.besaba.revonline.snippetide.api.datashare.DataContainer;
@@ -13,20 +12,17 @@ import com.besaba.revonline.snippetide.run.SimplePropertySheetItem;
 import com.google.common.collect.ImmutableMap;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonBar;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
+import javafx.scene.layout.Region;
 import javafx.util.Callback;
 import org.apache.log4j.Logger;
 import org.controlsfx.control.PropertySheet;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
@@ -84,16 +80,7 @@ public class DataStructureManager {
     final Dialog<DataContainer> fillRunConfiguration = new Dialog<>();
     fillRunConfiguration.setTitle("Data");
 
-    final Parent root;
-
-    try {
-      root = FXMLLoader.load(IdeController.class.getResource("structure/fillcontainer.fxml"));
-    } catch (IOException e) {
-      new Alert(Alert.AlertType.ERROR, "Unable to open run configuration dialog :(", ButtonType.OK).show();
-      return Optional.empty();
-    }
-
-    final TabPane structuresTabPane = ((TabPane) root.lookup("#configurations"));
+    final TabPane structuresTabPane = createStructuresTabPane();
 
     for (final StructureDataContainer structure : structures) {
       final Tab tab = new DataStructureTab(structure.getName(), structure);
@@ -112,7 +99,7 @@ public class DataStructureManager {
       structuresTabPane.getTabs().add(tab);
     }
 
-    fillRunConfiguration.getDialogPane().setContent(root);
+    fillRunConfiguration.getDialogPane().setContent(structuresTabPane);
     fillRunConfiguration.getDialogPane().getButtonTypes().add(ButtonType.OK);
     fillRunConfiguration.getDialogPane().getButtonTypes().add(new ButtonType("Use and save", ButtonBar.ButtonData.APPLY));
     fillRunConfiguration.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
@@ -187,16 +174,7 @@ public class DataStructureManager {
     final Dialog<DataContainer> fillRunConfiguration = new Dialog<>();
     fillRunConfiguration.setTitle("Data");
 
-    final Parent root;
-
-    try {
-      root = FXMLLoader.load(IdeController.class.getResource("structure/fillcontainer.fxml"));
-    } catch (IOException e) {
-      new Alert(Alert.AlertType.ERROR, "Unable to open run configuration dialog :(", ButtonType.OK).show();
-      return Optional.empty();
-    }
-
-    final TabPane structuresTabPane = ((TabPane) root.lookup("#configurations"));
+    final TabPane structuresTabPane = createStructuresTabPane();
     final StructureDataContainer structure = context.getStructureFromId(dataContainer.getParentId());
 
     final Tab tab = new DataStructureTab(structure.getName(), structure);
@@ -206,7 +184,12 @@ public class DataStructureManager {
     structure.getFields().forEach((name, fieldInfo) -> {
       final SimplePropertySheetItem item = new SimplePropertySheetItem(name, fieldInfo);
 
-      item.setValue(tryToFixValue(String.class.cast(currentValues.get(name)), String.class, fieldInfo.getType()));
+      final Object currentValue = currentValues.get(name);
+
+      // a field added after the values were saved
+      item.setValue(currentValue != null
+          ? tryToFixValue(String.class.cast(currentValue), String.class, fieldInfo.getType())
+          : fieldInfo.getDefaultValue());
 
       items.add(item);
     });
@@ -221,7 +204,7 @@ public class DataStructureManager {
 
     structuresTabPane.getTabs().add(tab);
 
-    fillRunConfiguration.getDialogPane().setContent(root);
+    fillRunConfiguration.getDialogPane().setContent(structuresTabPane);
     fillRunConfiguration.getDialogPane().getButtonTypes().add(ButtonType.APPLY);
     fillRunConfiguration.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
 
@@ -255,6 +238,25 @@ public class DataStructureManager {
     return fillRunConfiguration.showAndWait();
   }
 
+  /**
+   * The pane where every structure has its own tab.
+   *
+   * <p>Built in code because it's opened every time a value is
+   * requested and parsing an fxml only for an empty TabPane is not worth it.</p>
+   */
+  @NotNull
+  private static TabPane createStructuresTabPane() {
+    final TabPane structuresTabPane = new TabPane();
+
+    structuresTabPane.setId("configurations");
+    structuresTabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+    structuresTabPane.setPrefSize(429, 445);
+    structuresTabPane.setMinSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+    structuresTabPane.setMaxSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+
+    return structuresTabPane;
+  }
+
   @SuppressWarnings("unchecked")
   private Map<String, Object> tryToFixValues(final Map<String, Object> values, final int defaultDataContainer) {
     final StructureDataContainer structure = context.getStructureFromId(defaultDataContainer);
@@ -4,6 +4,7 @@ import com.besaba.revonline.snippetide.api.datashare.StructureDataContainer;
 import com.besaba.revonline.snippetide.api.language.Language;
 import com.besaba.revonline.snippetide.api.plugins.Plugin;
 import com.besaba.revonline.snippetide.configuration.contract.ConfigurationSettingsContract;
+import com.besaba.revonline.snippetide.run.RunConfigurationFields;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Arrays;
@@ -33,7 +34,7 @@ public class RunConfigurationDataStructureManagerContext extends DataStructureMa
 
   @Override
   public StructureDataContainer getStructureFromId(final int structureId) {
-    return Arrays.stream(language.getRunConfigurations())
+    return Arrays.stream(getDataContainerStructures())
         .filter(structure -> structure.getId() == structureId)
         .findFirst()
         .orElseThrow(AssertionError::new);
@@ -41,6 +42,6 @@ public class RunConfigurationDataStructureManagerContext extends DataStructureMa
 
   @Override
   public StructureDataContainer[] getDataContainerStructures() {
-    return language.getRunConfigurations();
+    return RunConfigurationFields.structuresOf(language);
   }
 }
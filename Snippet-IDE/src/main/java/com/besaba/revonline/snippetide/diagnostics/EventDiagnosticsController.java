@@ -0,0 +1,112 @@
+package com.besaba.revonline.snippetide.diagnostics;
+
+import com.besaba.revonline.snippetide.events.manager.impl.EventBusMetricsMXBean;
+import com.besaba.revonline.snippetide.events.manager.impl.EventTypeStatistics;
+import com.besaba.revonline.snippetide.events.manager.impl.SubscriberStatistics;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.util.Duration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Function;
+
+/**
+ * Shows the metrics of the event manager, refreshed every second
+ * while the window is open.
+ */
+public class EventDiagnosticsController {
+  @FXML
+  private TableView<EventTypeStatistics> eventTypesTable;
+  @FXML
+  private TableColumn<EventTypeStatistics, String> eventType;
+  @FXML
+  private TableColumn<EventTypeStatistics, Long> posts;
+  @FXML
+  private TableColumn<EventTypeStatistics, Long> deadEvents;
+  @FXML
+  private TableColumn<EventTypeStatistics, Long> averageQueueWait;
+  @FXML
+  private TableColumn<EventTypeStatistics, Long> maxQueueWait;
+  @FXML
+  private TableColumn<EventTypeStatistics, Long> averageDispatchLatency;
+  @FXML
+  private TableColumn<EventTypeStatistics, Long> maxDispatchLatency;
+
+  @FXML
+  private TableView<SubscriberStatistics> subscribersTable;
+  @FXML
+  private TableColumn<SubscriberStatistics, String> subscriber;
+  @FXML
+  private TableColumn<SubscriberStatistics, Long> invocations;
+  @FXML
+  private TableColumn<SubscriberStatistics, Long> failures;
+  @FXML
+  private TableColumn<SubscriberStatistics, Long> totalTime;
+  @FXML
+  private TableColumn<SubscriberStatistics, Long> averageTime;
+  @FXML
+  private TableColumn<SubscriberStatistics, Long> maxTime;
+
+  @FXML
+  private Label summaryLabel;
+
+  @NotNull
+  private final EventBusMetricsMXBean metrics;
+  private final Timeline refreshTimeline = new Timeline(new KeyFrame(Duration.seconds(1), event -> refresh()));
+
+  public EventDiagnosticsController(@NotNull final EventBusMetricsMXBean metrics) {
+    this.metrics = metrics;
+  }
+
+  public void initialize() {
+    bind(eventType, EventTypeStatistics::getEventType);
+    bind(posts, EventTypeStatistics::getPosts);
+    bind(deadEvents, EventTypeStatistics::getDeadEvents);
+    bind(averageQueueWait, EventTypeStatistics::getAverageQueueWait);
+    bind(maxQueueWait, EventTypeStatistics::getMaxQueueWait);
+    bind(averageDispatchLatency, EventTypeStatistics::getAverageDispatchLatency);
+    bind(maxDispatchLatency, EventTypeStatistics::getMaxDispatchLatency);
+
+    bind(subscriber, SubscriberStatistics::getSubscriber);
+    bind(invocations, SubscriberStatistics::getInvocations);
+    bind(failures, SubscriberStatistics::getFailures);
+    bind(totalTime, SubscriberStatistics::getTotalTime);
+    bind(averageTime, SubscriberStatistics::getAverageTime);
+    bind(maxTime, SubscriberStatistics::getMaxTime);
+
+    refresh();
+    refreshTimeline.setCycleCount(Animation.INDEFINITE);
+    refreshTimeline.play();
+  }
+
+  /**
+   * Stops the refresh, call it when the window is closed
+   */
+  public void stop() {
+    refreshTimeline.stop();
+  }
+
+  @FXML
+  private void reset(final ActionEvent actionEvent) {
+    metrics.reset();
+    refresh();
+  }
+
+  private void refresh() {
+    eventTypesTable.getItems().setAll(metrics.getEventTypes());
+    subscribersTable.getItems().setAll(metrics.getSubscribers());
+    summaryLabel.setText("Queue depth: " + metrics.getQueueDepth()
+        + " (max " + metrics.getMaxQueueDepth() + "), dead events: " + metrics.getDeadEvents());
+  }
+
+  private static <S, T> void bind(@NotNull final TableColumn<S, T> column, @NotNull final Function<S, T> getter) {
+    column.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(getter.apply(param.getValue())));
+  }
+}
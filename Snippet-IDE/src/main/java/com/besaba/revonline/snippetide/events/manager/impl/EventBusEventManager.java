@@ -3,58 +3,229 @@ package com.besaba.revonline.snippetide.events.manager.impl;
 import com.besaba.revonline.snippetide.api.events.Event;
 import com.besaba.revonline.snippetide.api.events.boot.UnBootEvent;
 import com.besaba.revonline.snippetide.api.events.manager.EventManager;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.eventbus.DeadEvent;
-import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
+import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Dispatches the events like the Guava EventBus (subscribers of the
+ * super types receive the event too, the events posted by a subscriber are
+ * dispatched after the current one, DeadEvent when nobody is listening)
+ * but measures every dispatch, see {@link EventBusMetrics}.
+ */
 public class EventBusEventManager implements EventManager {
   private final static Logger logger = Logger.getLogger(EventBusEventManager.class);
-  private final ExecutorService executorService = Executors.newSingleThreadExecutor(new ThreadFactory() {
-    private final ThreadFactory originalThreadFactory = Executors.defaultThreadFactory();
-
-    @Override
-    public Thread newThread(final Runnable r) {
-      final Thread thread = originalThreadFactory.newThread(r);
-      thread.setName("EventManager-Thread");
-      return thread;
-    }
-  });
 
-  private final EventBus eventBus = new EventBus((throwable, subscriberExceptionContext) -> {
-    logger.fatal("Exception inside the EventBus");
-    logger.fatal("Throwable", throwable);
-    logger.fatal("Event: " + subscriberExceptionContext.getEvent());
-    logger.fatal("Method: " + subscriberExceptionContext.getSubscriberMethod());
-  });
+  private static final LoadingCache<Class<?>, ImmutableList<Method>> subscriberMethods = CacheBuilder.newBuilder()
+      .weakKeys()
+      .build(new CacheLoader<Class<?>, ImmutableList<Method>>() {
+        @Override
+        public ImmutableList<Method> load(@NotNull final Class<?> listenerClass) {
+          return findSubscriberMethods(listenerClass);
+        }
+      });
+
+  private static final LoadingCache<Class<?>, ImmutableSet<Class<?>>> typeHierarchies = CacheBuilder.newBuilder()
+      .weakKeys()
+      .build(new CacheLoader<Class<?>, ImmutableSet<Class<?>>>() {
+        @Override
+        public ImmutableSet<Class<?>> load(@NotNull final Class<?> eventClass) {
+          return ImmutableSet.<Class<?>>copyOf(TypeToken.of(eventClass).getTypes().rawTypes());
+        }
+      });
+
+  // it's a single thread so new event should wait in the queue
+  private final ThreadPoolExecutor executorService = new ThreadPoolExecutor(
+      1, 1, 0, TimeUnit.MILLISECONDS,
+      new LinkedBlockingQueue<>(),
+      new ThreadFactoryBuilder().setNameFormat("EventManager-Thread").build()
+  );
+
+  private final ConcurrentMap<Class<?>, Set<EventSubscriber>> subscribersByType = new ConcurrentHashMap<>();
+  private final EventBusMetrics metrics = new EventBusMetrics(() -> executorService.getQueue().size());
+
+  private final ThreadLocal<Queue<QueuedEvent>> eventsToDispatch = ThreadLocal.withInitial(ArrayDeque::new);
+  private final ThreadLocal<Boolean> dispatching = ThreadLocal.withInitial(() -> false);
 
   {
-    eventBus.register(this);
+    registerListener(this);
   }
 
   public void registerListener(@NotNull final Object listener) {
-    eventBus.register(listener);
+    for (final EventSubscriber subscriber : findSubscribers(listener)) {
+      subscribersByType
+          .computeIfAbsent(subscriber.getMethod().getParameterTypes()[0], type -> new CopyOnWriteArraySet<>())
+          .add(subscriber);
+    }
   }
 
   public void unregisterListener(@NotNull final Object listener) {
-    eventBus.unregister(listener);
+    for (final EventSubscriber subscriber : findSubscribers(listener)) {
+      final Set<EventSubscriber> subscribers = subscribersByType.get(subscriber.getMethod().getParameterTypes()[0]);
+
+      if (subscribers == null || !subscribers.remove(subscriber)) {
+        throw new IllegalArgumentException(
+            "missing event subscriber for an annotated method. Is " + listener + " registered?"
+        );
+      }
+    }
   }
 
   public void post(@NotNull final Event<?> event) {
+    final long postedAt = System.nanoTime();
+    final EventBusMetrics.EventTypeMetrics typeMetrics = metrics.forEventType(event.getClass());
+    typeMetrics.posts.increment();
+
     if (event.isUseNewThread()) {
-      // create a new thread and post the event
-      // it's a single thread so new event should wait in the queue
-      executorService.submit(() -> eventBus.post(event));
+      executorService.submit(() -> {
+        typeMetrics.queueWait.record(System.nanoTime() - postedAt);
+        dispatch(event, postedAt);
+      });
+      metrics.queued(executorService.getQueue().size());
     } else {
-      eventBus.post(event);
+      dispatch(event, postedAt);
     }
   }
 
+  /**
+   * @return The metrics of this event manager, they are exposed via JMX too
+   *         when the event manager is the one of the application
+   */
+  @NotNull
+  public EventBusMetrics getMetrics() {
+    return metrics;
+  }
+
+  private void dispatch(@NotNull final Object event, final long postedAt) {
+    final Queue<QueuedEvent> queue = eventsToDispatch.get();
+    final EventBusMetrics.EventTypeMetrics typeMetrics = metrics.forEventType(event.getClass());
+    boolean delivered = false;
+
+    for (final Class<?> type : typeHierarchies.getUnchecked(event.getClass())) {
+      final Set<EventSubscriber> subscribers = subscribersByType.get(type);
+
+      if (subscribers != null) {
+        for (final EventSubscriber subscriber : subscribers) {
+          queue.offer(new QueuedEvent(event, subscriber, typeMetrics, postedAt));
+          delivered = true;
+        }
+      }
+    }
+
+    if (!delivered && !(event instanceof DeadEvent)) {
+      metrics.deadEvent(event.getClass());
+      dispatch(new DeadEvent(this, event), postedAt);
+    }
+
+    dispatchQueuedEvents();
+  }
+
+  /**
+   * Only the first dispatch of the thread runs the subscribers,
+   * so an event posted by a subscriber is received by everyone
+   * after the current event.
+   */
+  private void dispatchQueuedEvents() {
+    if (dispatching.get()) {
+      return;
+    }
+
+    dispatching.set(true);
+    try {
+      final Queue<QueuedEvent> queue = eventsToDispatch.get();
+      QueuedEvent queuedEvent;
+
+      while ((queuedEvent = queue.poll()) != null) {
+        invoke(queuedEvent);
+      }
+    } finally {
+      dispatching.remove();
+      eventsToDispatch.remove();
+    }
+  }
+
+  private void invoke(@NotNull final QueuedEvent queuedEvent) {
+    final EventSubscriber subscriber = queuedEvent.subscriber;
+    final long start = System.nanoTime();
+    queuedEvent.typeMetrics.dispatchLatency.record(start - queuedEvent.postedAt);
+
+    try {
+      subscriber.handleEvent(queuedEvent.event);
+    } catch (InvocationTargetException e) {
+      subscriber.getMetrics().failures.increment();
+      logger.fatal("Exception inside the EventBus");
+      logger.fatal("Throwable", e.getCause());
+      logger.fatal("Event: " + queuedEvent.event);
+      logger.fatal("Method: " + subscriber.getMethod());
+    } finally {
+      subscriber.getMetrics().handlerTime.record(System.nanoTime() - start);
+    }
+  }
+
+  @NotNull
+  private List<EventSubscriber> findSubscribers(@NotNull final Object listener) {
+    final List<Method> methods = subscriberMethods.getUnchecked(listener.getClass());
+    final List<EventSubscriber> subscribers = new ArrayList<>(methods.size());
+
+    for (final Method method : methods) {
+      subscribers.add(new EventSubscriber(listener, method, metrics.forSubscriber(method)));
+    }
+
+    return subscribers;
+  }
+
+  /**
+   * The methods annotated with @Subscribe of the class and of its super types,
+   * a method overridden by the class is found only once.
+   */
+  @NotNull
+  private static ImmutableList<Method> findSubscriberMethods(@NotNull final Class<?> listenerClass) {
+    final Map<List<Object>, Method> methods = new LinkedHashMap<>();
+
+    for (final Class<?> type : TypeToken.of(listenerClass).getTypes().rawTypes()) {
+      for (final Method method : type.getDeclaredMethods()) {
+        if (!method.isAnnotationPresent(Subscribe.class) || method.isSynthetic()) {
+          continue;
+        }
+
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length != 1) {
+          throw new IllegalArgumentException("Method " + method + " has @Subscribe annotation, but requires "
+              + parameterTypes.length + " arguments.  Event subscriber methods must require a single argument.");
+        }
+
+        methods.putIfAbsent(Arrays.asList(method.getName(), Arrays.asList(parameterTypes)), method);
+      }
+    }
+
+    return ImmutableList.copyOf(methods.values());
+  }
+
   @Subscribe
   public void deadEvent(DeadEvent deadEvent) {
     logger.fatal("Dead event!");
@@ -65,5 +236,23 @@ public class EventBusEventManager implements EventManager {
   @Subscribe
   public void onUnboot(final UnBootEvent event) {
     executorService.shutdown();
+    metrics.unregisterMBean();
+  }
+
+  private static class QueuedEvent {
+    private final Object event;
+    private final EventSubscriber subscriber;
+    private final EventBusMetrics.EventTypeMetrics typeMetrics;
+    private final long postedAt;
+
+    private QueuedEvent(final Object event,
+                        final EventSubscriber subscriber,
+                        final EventBusMetrics.EventTypeMetrics typeMetrics,
+                        final long postedAt) {
+      this.event = event;
+      this.subscriber = subscriber;
+      this.typeMetrics = typeMetrics;
+      this.postedAt = postedAt;
+    }
   }
 }
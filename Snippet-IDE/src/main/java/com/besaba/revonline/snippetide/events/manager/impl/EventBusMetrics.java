@@ -0,0 +1,177 @@
+package com.besaba.revonline.snippetide.events.manager.impl;
+
+import org.apache.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counts what the event manager does, per event class and per subscriber method.
+ *
+ * <p>Every update is a lock free add, so the metrics are always on.</p>
+ */
+public class EventBusMetrics implements EventBusMetricsMXBean {
+  private final static Logger logger = Logger.getLogger(EventBusMetrics.class);
+  public static final String OBJECT_NAME = "com.besaba.revonline.snippetide:type=EventManager";
+
+  private final ConcurrentMap<Class<?>, EventTypeMetrics> eventTypes = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Method, SubscriberMetrics> subscribers = new ConcurrentHashMap<>();
+  private final LongAdder deadEvents = new LongAdder();
+  private final AtomicInteger maxQueueDepth = new AtomicInteger();
+  @NotNull
+  private final IntSupplier queueDepth;
+
+  private boolean registered;
+
+  EventBusMetrics(@NotNull final IntSupplier queueDepth) {
+    this.queueDepth = queueDepth;
+  }
+
+  @NotNull
+  EventTypeMetrics forEventType(@NotNull final Class<?> eventType) {
+    final EventTypeMetrics metrics = eventTypes.get(eventType);
+    return metrics != null ? metrics : eventTypes.computeIfAbsent(eventType, type -> new EventTypeMetrics());
+  }
+
+  @NotNull
+  SubscriberMetrics forSubscriber(@NotNull final Method method) {
+    return subscribers.computeIfAbsent(method, m -> new SubscriberMetrics());
+  }
+
+  void deadEvent(@NotNull final Class<?> eventType) {
+    deadEvents.increment();
+    forEventType(eventType).deadEvents.increment();
+  }
+
+  void queued(final int depth) {
+    maxQueueDepth.accumulateAndGet(depth, Math::max);
+  }
+
+  @Override
+  public List<EventTypeStatistics> getEventTypes() {
+    final List<EventTypeStatistics> statistics = new ArrayList<>(eventTypes.size());
+
+    eventTypes.forEach((type, metrics) -> statistics.add(new EventTypeStatistics(
+        type.getName(),
+        metrics.posts.sum(),
+        metrics.deadEvents.sum(),
+        metrics.queueWait.getAverageMicros(),
+        metrics.queueWait.getMaxMicros(),
+        metrics.dispatchLatency.getAverageMicros(),
+        metrics.dispatchLatency.getMaxMicros()
+    )));
+
+    statistics.sort(Comparator.comparing(EventTypeStatistics::getPosts).reversed());
+    return statistics;
+  }
+
+  @Override
+  public List<SubscriberStatistics> getSubscribers() {
+    final List<SubscriberStatistics> statistics = new ArrayList<>(subscribers.size());
+
+    subscribers.forEach((method, metrics) -> statistics.add(new SubscriberStatistics(
+        method.getDeclaringClass().getSimpleName() + "#" + method.getName(),
+        metrics.handlerTime.getCount(),
+        metrics.failures.sum(),
+        metrics.handlerTime.getTotalMicros(),
+        metrics.handlerTime.getAverageMicros(),
+        metrics.handlerTime.getMaxMicros()
+    )));
+
+    // the slowest subscribers first
+    statistics.sort(Comparator.comparing(SubscriberStatistics::getTotalTime).reversed());
+    return statistics;
+  }
+
+  @Override
+  public int getQueueDepth() {
+    return queueDepth.getAsInt();
+  }
+
+  @Override
+  public int getMaxQueueDepth() {
+    return maxQueueDepth.get();
+  }
+
+  @Override
+  public long getDeadEvents() {
+    return deadEvents.sum();
+  }
+
+  @Override
+  public void reset() {
+    eventTypes.values().forEach(EventTypeMetrics::reset);
+    subscribers.values().forEach(SubscriberMetrics::reset);
+    deadEvents.reset();
+    maxQueueDepth.set(0);
+  }
+
+  /**
+   * Registers the metrics in the platform MBean server.
+   * Only the first event manager is registered, the others
+   * (tests, tools) can still read their metrics directly.
+   */
+  public synchronized void registerMBean() {
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    try {
+      final ObjectName name = new ObjectName(OBJECT_NAME);
+
+      if (!server.isRegistered(name)) {
+        server.registerMBean(this, name);
+        registered = true;
+      }
+    } catch (JMException e) {
+      logger.error("Unable to register the event manager metrics", e);
+    }
+  }
+
+  public synchronized void unregisterMBean() {
+    if (!registered) {
+      return;
+    }
+
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+      registered = false;
+    } catch (JMException e) {
+      logger.error("Unable to unregister the event manager metrics", e);
+    }
+  }
+
+  static class EventTypeMetrics {
+    final LongAdder posts = new LongAdder();
+    final LongAdder deadEvents = new LongAdder();
+    final LatencyRecorder queueWait = new LatencyRecorder();
+    final LatencyRecorder dispatchLatency = new LatencyRecorder();
+
+    void reset() {
+      posts.reset();
+      deadEvents.reset();
+      queueWait.reset();
+      dispatchLatency.reset();
+    }
+  }
+
+  static class SubscriberMetrics {
+    final LatencyRecorder handlerTime = new LatencyRecorder();
+    final LongAdder failures = new LongAdder();
+
+    void reset() {
+      handlerTime.reset();
+      failures.reset();
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.besaba.revonline.snippetide.events.manager.impl;
+
+import java.util.List;
+
+/**
+ * The metrics of {@link EventBusEventManager}, exposed via JMX
+ * as {@value EventBusMetrics#OBJECT_NAME}
+ */
+public interface EventBusMetricsMXBean {
+  List<EventTypeStatistics> getEventTypes();
+
+  List<SubscriberStatistics> getSubscribers();
+
+  /**
+   * @return Events waiting for the event manager thread now
+   */
+  int getQueueDepth();
+
+  int getMaxQueueDepth();
+
+  long getDeadEvents();
+
+  /**
+   * Starts counting again from zero
+   */
+  void reset();
+}
@@ -0,0 +1,81 @@
+package com.besaba.revonline.snippetide.events.manager.impl;
+
+import com.google.common.eventbus.AllowConcurrentEvents;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * A method annotated with @Subscribe of a registered listener.
+ *
+ * <p>Like in the Guava EventBus the method receives one event at a time,
+ * unless it's annotated with {@link AllowConcurrentEvents}.</p>
+ */
+class EventSubscriber {
+  @NotNull
+  private final Object target;
+  @NotNull
+  private final Method method;
+  @NotNull
+  private final EventBusMetrics.SubscriberMetrics metrics;
+  private final boolean concurrent;
+
+  EventSubscriber(@NotNull final Object target,
+                  @NotNull final Method method,
+                  @NotNull final EventBusMetrics.SubscriberMetrics metrics) {
+    this.target = target;
+    this.method = method;
+    this.metrics = metrics;
+    this.concurrent = method.isAnnotationPresent(AllowConcurrentEvents.class);
+    method.setAccessible(true);
+  }
+
+  @NotNull
+  Method getMethod() {
+    return method;
+  }
+
+  @NotNull
+  EventBusMetrics.SubscriberMetrics getMetrics() {
+    return metrics;
+  }
+
+  void handleEvent(@NotNull final Object event) throws InvocationTargetException {
+    if (concurrent) {
+      invoke(event);
+    } else {
+      synchronized (this) {
+        invoke(event);
+      }
+    }
+  }
+
+  private void invoke(@NotNull final Object event) throws InvocationTargetException {
+    try {
+      method.invoke(target, event);
+    } catch (IllegalArgumentException e) {
+      throw new Error("Method rejected target/argument: " + event, e);
+    } catch (IllegalAccessException e) {
+      throw new Error("Method became inaccessible: " + event, e);
+    }
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    final EventSubscriber that = (EventSubscriber) o;
+    return target == that.target && method.equals(that.method);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * System.identityHashCode(target) + method.hashCode();
+  }
+}
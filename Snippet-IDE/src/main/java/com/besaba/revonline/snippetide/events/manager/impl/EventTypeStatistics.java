@@ -0,0 +1,69 @@
+package com.besaba.revonline.snippetide.events.manager.impl;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * What happened to the events of one class, the times are in microseconds.
+ *
+ * <p>The dispatch latency is the time between the post and the moment
+ * a subscriber receives the event, it includes the queue wait of the
+ * events posted in the event manager thread.</p>
+ */
+public class EventTypeStatistics {
+  private final String eventType;
+  private final long posts;
+  private final long deadEvents;
+  private final long averageQueueWait;
+  private final long maxQueueWait;
+  private final long averageDispatchLatency;
+  private final long maxDispatchLatency;
+
+  @ConstructorProperties({"eventType", "posts", "deadEvents", "averageQueueWait",
+      "maxQueueWait", "averageDispatchLatency", "maxDispatchLatency"})
+  public EventTypeStatistics(final String eventType,
+                             final long posts,
+                             final long deadEvents,
+                             final long averageQueueWait,
+                             final long maxQueueWait,
+                             final long averageDispatchLatency,
+                             final long maxDispatchLatency) {
+    this.eventType = eventType;
+    this.posts = posts;
+    this.deadEvents = deadEvents;
+    this.averageQueueWait = averageQueueWait;
+    this.maxQueueWait = maxQueueWait;
+    this.averageDispatchLatency = averageDispatchLatency;
+    this.maxDispatchLatency = maxDispatchLatency;
+  }
+
+  public String getEventType() {
+    return eventType;
+  }
+
+  public long getPosts() {
+    return posts;
+  }
+
+  /**
+   * How many times nobody was listening to the event
+   */
+  public long getDeadEvents() {
+    return deadEvents;
+  }
+
+  public long getAverageQueueWait() {
+    return averageQueueWait;
+  }
+
+  public long getMaxQueueWait() {
+    return maxQueueWait;
+  }
+
+  public long getAverageDispatchLatency() {
+    return averageDispatchLatency;
+  }
+
+  public long getMaxDispatchLatency() {
+    return maxDispatchLatency;
+  }
+}
@@ -0,0 +1,48 @@
+package com.besaba.revonline.snippetide.events.manager.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count, total and max of a duration, cheap enough to be
+ * updated by every event without locks.
+ */
+class LatencyRecorder {
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  void record(final long nanos) {
+    count.increment();
+    totalNanos.add(nanos);
+
+    long max = maxNanos.get();
+    while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+      max = maxNanos.get();
+    }
+  }
+
+  long getCount() {
+    return count.sum();
+  }
+
+  long getTotalMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(totalNanos.sum());
+  }
+
+  long getAverageMicros() {
+    final long count = getCount();
+    return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / count);
+  }
+
+  long getMaxMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+  }
+
+  void reset() {
+    count.reset();
+    totalNanos.reset();
+    maxNanos.set(0);
+  }
+}
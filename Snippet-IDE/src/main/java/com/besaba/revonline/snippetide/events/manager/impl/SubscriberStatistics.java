@@ -0,0 +1,61 @@
+package com.besaba.revonline.snippetide.events.manager.impl;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * The time spent inside one subscriber method (of every instance
+ * of its class), the times are in microseconds.
+ */
+public class SubscriberStatistics {
+  private final String subscriber;
+  private final long invocations;
+  private final long failures;
+  private final long totalTime;
+  private final long averageTime;
+  private final long maxTime;
+
+  @ConstructorProperties({"subscriber", "invocations", "failures", "totalTime", "averageTime", "maxTime"})
+  public SubscriberStatistics(final String subscriber,
+                              final long invocations,
+                              final long failures,
+                              final long totalTime,
+                              final long averageTime,
+                              final long maxTime) {
+    this.subscriber = subscriber;
+    this.invocations = invocations;
+    this.failures = failures;
+    this.totalTime = totalTime;
+    this.averageTime = averageTime;
+    this.maxTime = maxTime;
+  }
+
+  /**
+   * The class and the name of the method, for example IdeController#onCompileFinished
+   */
+  public String getSubscriber() {
+    return subscriber;
+  }
+
+  public long getInvocations() {
+    return invocations;
+  }
+
+  /**
+   * How many invocations threw an exception
+   */
+  public long getFailures() {
+    return failures;
+  }
+
+  public long getTotalTime() {
+    return totalTime;
+  }
+
+  public long getAverageTime() {
+    return averageTime;
+  }
+
+  public long getMaxTime() {
+    return maxTime;
+  }
+}
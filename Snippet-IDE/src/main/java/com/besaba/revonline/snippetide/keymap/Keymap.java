@@ -46,7 +46,10 @@ public class Keymap {
       final KeyCodeCombination combination = getCombination(action);
 
       if (combination == null) {
-        logger.info("action " + action + " seems to don't have an associated keymap");
+        // it would be written for every key pressed
+        if (logger.isDebugEnabled()) {
+          logger.debug("action " + action + " seems to don't have an associated keymap");
+        }
         continue;
       }
 
@@ -55,7 +58,9 @@ public class Keymap {
       }
     }
 
-    logger.debug("no association found for event: " + event);
+    if (logger.isDebugEnabled()) {
+      logger.debug("no association found for event: " + event);
+    }
     return null;
   }
 
@@ -4,6 +4,7 @@ import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.event.Event;
 import javafx.fxml.FXML;
+import com.besaba.revonline.snippetide.ui.FxmlTemplates;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.control.Alert;
@@ -49,7 +50,7 @@ public class KeymapUIController {
     final Node root;
 
     try {
-      root = FXMLLoader.load(KeymapUIController.class.getResource("associatekey.fxml"));
+      root = FxmlTemplates.load(new FXMLLoader(KeymapUIController.class.getResource("associatekey.fxml")));
     } catch (IOException e) {
       new Alert(Alert.AlertType.ERROR, "Unable to open associate-key view. Try again", ButtonType.OK).showAndWait();
       return;
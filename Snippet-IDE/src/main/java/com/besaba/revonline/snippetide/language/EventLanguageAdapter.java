@@ -0,0 +1,283 @@
+package com.besaba.revonline.snippetide.language;
+
+import com.besaba.revonline.snippetide.api.compiler.CompilationProblem;
+import com.besaba.revonline.snippetide.api.compiler.CompilationResult;
+import com.besaba.revonline.snippetide.api.datashare.StructureDataContainer;
+import com.besaba.revonline.snippetide.api.events.SessionId;
+import com.besaba.revonline.snippetide.api.events.compile.CompileFinishedEvent;
+import com.besaba.revonline.snippetide.api.events.compile.CompileProgressEvent;
+import com.besaba.revonline.snippetide.api.events.compile.CompileStartEvent;
+import com.besaba.revonline.snippetide.api.events.manager.EventManager;
+import com.besaba.revonline.snippetide.api.events.run.RunInformationEvent;
+import com.besaba.revonline.snippetide.api.events.run.RunStartEvent;
+import com.besaba.revonline.snippetide.api.language.AsyncLanguage;
+import com.besaba.revonline.snippetide.api.language.Language;
+import com.google.common.eventbus.Subscribe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Lets the IDE call a language which only knows the event protocol
+ * as if it were an {@link AsyncLanguage}.
+ *
+ * <p>The requests are posted to the language and the futures are completed
+ * with the answers of the same session. The events don't say which request they
+ * answer, so a request cancels the one of the same session which is still waiting:
+ * the next answer goes to the newest request.</p>
+ *
+ * <p>A language built before sessions existed answers with the BROADCAST session:
+ * its compile answers go to one of its requests which are waiting, and a
+ * RunInformationEvent without RunStartEvent is matched only if it is posted
+ * while the adapter is posting the request (the language answers in its subscriber).</p>
+ *
+ * <p>The constructor registers the adapter in the event manager,
+ * call close() when it isn't needed anymore.</p>
+ */
+public class EventLanguageAdapter implements AsyncLanguage, AutoCloseable {
+  @NotNull
+  private final Language language;
+  @NotNull
+  private final EventManager eventManager;
+  private final boolean needsCompile;
+  private final ConcurrentMap<SessionId, PendingCompile> pendingCompiles = new ConcurrentHashMap<>();
+  private final ConcurrentMap<SessionId, CompletableFuture<RunInformationEvent>> pendingRuns = new ConcurrentHashMap<>();
+  // the run request this thread is posting
+  private final ThreadLocal<RunStartEvent> postingRun = new ThreadLocal<>();
+
+  public EventLanguageAdapter(@NotNull final Language language, @NotNull final EventManager eventManager) {
+    this.language = language;
+    this.eventManager = eventManager;
+    this.needsCompile = needsCompile(language);
+
+    eventManager.registerListener(this);
+  }
+
+  /**
+   * @return The language itself if it already implements AsyncLanguage
+   */
+  @NotNull
+  public static AsyncLanguage adapt(@NotNull final Language language, @NotNull final EventManager eventManager) {
+    return language instanceof AsyncLanguage ? (AsyncLanguage) language : new EventLanguageAdapter(language, eventManager);
+  }
+
+  /**
+   * @return false if the language can run a snippet without compiling it: an AsyncLanguage
+   *         which says so, or a language which doesn't listen to CompileStartEvent
+   */
+  public static boolean needsCompile(@NotNull final Language language) {
+    return language instanceof AsyncLanguage
+        ? ((AsyncLanguage) language).needsCompile()
+        : subscribesTo(language.getClass(), CompileStartEvent.class);
+  }
+
+  @NotNull
+  @Override
+  public CompletableFuture<CompilationResult> compile(@NotNull final CompileStartEvent request,
+                                                      @NotNull final Consumer<List<CompilationProblem>> progress) {
+    final SessionId sessionId = request.getSessionId();
+    final PendingCompile pendingCompile = new PendingCompile(request, progress);
+
+    final PendingCompile previous = pendingCompiles.put(sessionId, pendingCompile);
+    if (previous != null) {
+      previous.future.cancel(false);
+    }
+
+    pendingCompile.future.whenComplete((result, error) -> pendingCompiles.remove(sessionId, pendingCompile));
+
+    eventManager.post(request);
+    return pendingCompile.future;
+  }
+
+  @NotNull
+  @Override
+  public CompletableFuture<RunInformationEvent> run(@NotNull final RunStartEvent request) {
+    final SessionId sessionId = request.getSessionId();
+    final CompletableFuture<RunInformationEvent> future = new CompletableFuture<>();
+
+    final CompletableFuture<RunInformationEvent> previous = pendingRuns.put(sessionId, future);
+    if (previous != null) {
+      previous.cancel(false);
+    }
+
+    future.whenComplete((runInformation, error) -> pendingRuns.remove(sessionId, future));
+
+    postingRun.set(request);
+    try {
+      eventManager.post(request);
+    } finally {
+      postingRun.remove();
+    }
+
+    return future;
+  }
+
+  /**
+   * @return false if the language doesn't listen to CompileStartEvent, it would never answer
+   */
+  @Override
+  public boolean needsCompile() {
+    return needsCompile;
+  }
+
+  @Subscribe
+  public void onCompileProgress(final CompileProgressEvent event) {
+    if (event.getTarget() != language) {
+      return;
+    }
+
+    final PendingCompile pendingCompile = getPendingCompile(event.getSessionId());
+
+    if (pendingCompile != null) {
+      pendingCompile.progress.accept(event.getProblems());
+    }
+  }
+
+  @Subscribe
+  public void onCompileFinished(final CompileFinishedEvent event) {
+    if (event.getTarget() != language) {
+      return;
+    }
+
+    final PendingCompile pendingCompile = getPendingCompile(event.getSessionId());
+
+    if (pendingCompile != null && isAnswerTo(event, pendingCompile.request)) {
+      pendingCompile.future.complete(event.getCompilationResult());
+    }
+  }
+
+  /**
+   * A language which doesn't know background compiles answers every request in
+   * the foreground, so a foreground answer is taken by a background request too.
+   * Except while a run of the session is waiting: a language which compiles
+   * before running answers the run even if nobody asked for that compile.
+   * A background answer never goes to a foreground request, it answers the
+   * background request the foreground one has superseded.
+   */
+  private boolean isAnswerTo(final CompileFinishedEvent event, final CompileStartEvent request) {
+    if (event.isBackground()) {
+      return request.isBackground();
+    }
+
+    return !request.isBackground() || !pendingRuns.containsKey(request.getSessionId());
+  }
+
+  @Subscribe
+  public void onRunInformation(final RunInformationEvent event) {
+    final RunStartEvent request = event.getRunStartEvent();
+
+    if (request == null) {
+      onRunInformationWithoutRequest(event);
+      return;
+    }
+
+    if (request.getTarget() != language) {
+      return;
+    }
+
+    final CompletableFuture<RunInformationEvent> future = pendingRuns.get(event.getSessionId());
+
+    if (future != null) {
+      future.complete(event);
+    }
+  }
+
+  /**
+   * The deprecated RunInformationEvent.noExternalProcess(), the IDE gets
+   * the same answer with the request it answers
+   */
+  private void onRunInformationWithoutRequest(final RunInformationEvent event) {
+    final RunStartEvent request = postingRun.get();
+
+    if (request == null) {
+      return;
+    }
+
+    final CompletableFuture<RunInformationEvent> future = pendingRuns.get(request.getSessionId());
+
+    if (future != null) {
+      future.complete(new RunInformationEvent(event.getCommand(), request, event.needExternalProcess()));
+    }
+  }
+
+  @Nullable
+  private PendingCompile getPendingCompile(final SessionId sessionId) {
+    if (sessionId == SessionId.BROADCAST) {
+      return pendingCompiles.values().stream().findFirst().orElse(null);
+    }
+
+    return pendingCompiles.get(sessionId);
+  }
+
+  /**
+   * Stops listening to the answers of the language, the requests
+   * which are still waiting are cancelled
+   */
+  @Override
+  public void close() {
+    eventManager.unregisterListener(this);
+
+    pendingCompiles.values().forEach(pendingCompile -> pendingCompile.future.cancel(false));
+    pendingRuns.values().forEach(future -> future.cancel(false));
+  }
+
+  @NotNull
+  @Override
+  public String getName() {
+    return language.getName();
+  }
+
+  @NotNull
+  @Override
+  public String[] getExtensions() {
+    return language.getExtensions();
+  }
+
+  @NotNull
+  @Override
+  public String getTemplate() {
+    return language.getTemplate();
+  }
+
+  @NotNull
+  @Override
+  public StructureDataContainer[] getRunConfigurations() {
+    return language.getRunConfigurations();
+  }
+
+  @Override
+  public boolean runsExternalProcess() {
+    return language.runsExternalProcess();
+  }
+
+  static boolean subscribesTo(@NotNull final Class<?> listenerClass, @NotNull final Class<?> eventClass) {
+    for (Class<?> type = listenerClass; type != null; type = type.getSuperclass()) {
+      for (final Method method : type.getDeclaredMethods()) {
+        if (method.isAnnotationPresent(Subscribe.class)
+            && method.getParameterCount() == 1
+            && method.getParameterTypes()[0] == eventClass) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  private static class PendingCompile {
+    private final CompileStartEvent request;
+    private final Consumer<List<CompilationProblem>> progress;
+    private final CompletableFuture<CompilationResult> future = new CompletableFuture<>();
+
+    private PendingCompile(final CompileStartEvent request, final Consumer<List<CompilationProblem>> progress) {
+      this.request = request;
+      this.progress = progress;
+    }
+  }
+}
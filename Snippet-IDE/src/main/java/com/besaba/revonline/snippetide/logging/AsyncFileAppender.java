@@ -0,0 +1,246 @@
+package com.besaba.revonline.snippetide.logging;
+
+import org.apache.log4j.FileAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.Filter;
+import org.apache.log4j.spi.LoggingEvent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A FileAppender which doesn't write in the thread which logs.
+ *
+ * <p>The events go in a {@link RingBuffer} and a daemon thread writes them,
+ * flushing the file once per batch. The thread which logs never takes a lock:
+ * when the buffer is full the events below WARN are discarded (the number of discarded
+ * events is written in the file later), WARN and above wait for a free slot.</p>
+ *
+ * <p>The log4j AsyncAppender can't be configured with a properties file
+ * and it locks on every event, that's why this one exists.</p>
+ *
+ * <p>Options (besides the ones of FileAppender): BufferSize (default 8192)
+ * and LocationInfo (default false, %C %F %L %M need it and are slow).</p>
+ */
+public class AsyncFileAppender extends FileAppender {
+  private static final long FULL_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+  private static final long CLOSE_TIMEOUT_MILLISECONDS = 5000;
+
+  private int bufferSize = 8192;
+  private boolean locationInfo;
+
+  private final LongAdder discarded = new LongAdder();
+  private volatile RingBuffer<LoggingEvent> buffer;
+  private volatile Thread writerThread;
+  private volatile boolean running;
+  // set by the writer before it parks, the producers unpark it only when it is set
+  private volatile boolean writerParked;
+
+  public AsyncFileAppender() {
+    // the writer thread flushes after every batch
+    setImmediateFlush(false);
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  public void setBufferSize(final int bufferSize) {
+    this.bufferSize = bufferSize;
+  }
+
+  public boolean getLocationInfo() {
+    return locationInfo;
+  }
+
+  public void setLocationInfo(final boolean locationInfo) {
+    this.locationInfo = locationInfo;
+  }
+
+  /**
+   * @return How many events have been discarded because the buffer was full
+   */
+  public long getDiscardedCount() {
+    return discarded.sum();
+  }
+
+  @Override
+  public void activateOptions() {
+    super.activateOptions();
+
+    if (writerThread != null) {
+      return;
+    }
+
+    buffer = new RingBuffer<>(bufferSize);
+    running = true;
+
+    final Thread thread = new Thread(this::writeLoop, "Log-Writer");
+    thread.setDaemon(true);
+    thread.start();
+    writerThread = thread;
+
+    // the writer is a daemon, what is still in the buffer would be lost
+    Runtime.getRuntime().addShutdownHook(new Thread(this::close, "Log-Flush"));
+  }
+
+  /**
+   * Not synchronized (AppenderSkeleton.doAppend is), the event
+   * is only prepared and put in the buffer.
+   */
+  @Override
+  public void doAppend(final LoggingEvent event) {
+    final RingBuffer<LoggingEvent> buffer = this.buffer;
+
+    if (buffer == null || !running) {
+      // not activated or closed, the usual synchronous path reports the problem
+      super.doAppend(event);
+      return;
+    }
+
+    if (!isAsSevereAsThreshold(event.getLevel()) || !isAccepted(event)) {
+      return;
+    }
+
+    prepare(event);
+
+    if (buffer.offer(event)) {
+      wakeWriter();
+      return;
+    }
+
+    if (!event.getLevel().isGreaterOrEqual(Level.WARN)) {
+      discarded.increment();
+      return;
+    }
+
+    while (!buffer.offer(event)) {
+      if (!running) {
+        super.doAppend(event);
+        return;
+      }
+
+      LockSupport.parkNanos(FULL_WAIT_NANOS);
+    }
+
+    wakeWriter();
+  }
+
+  /**
+   * Stops the writer after it has written what is in the buffer
+   */
+  @Override
+  public void close() {
+    running = false;
+
+    final Thread thread = writerThread;
+    if (thread != null && thread != Thread.currentThread()) {
+      LockSupport.unpark(thread);
+
+      try {
+        thread.join(CLOSE_TIMEOUT_MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    super.close();
+  }
+
+  private boolean isAccepted(final LoggingEvent event) {
+    for (Filter filter = getFirstFilter(); filter != null; filter = filter.getNext()) {
+      switch (filter.decide(event)) {
+        case Filter.DENY:
+          return false;
+        case Filter.ACCEPT:
+          return true;
+        default:
+          break;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * What depends on the thread which logs has to be taken now
+   */
+  private void prepare(final LoggingEvent event) {
+    event.getNDC();
+    event.getThreadName();
+    event.getMDCCopy();
+    event.getRenderedMessage();
+    event.getThrowableStrRep();
+
+    if (locationInfo) {
+      event.getLocationInformation();
+    }
+  }
+
+  /**
+   * The writer sets writerParked before it checks the buffer the last time,
+   * and the event has been published before this check, so either the writer
+   * sees the event or the producer sees the flag
+   */
+  private void wakeWriter() {
+    if (writerParked) {
+      LockSupport.unpark(writerThread);
+    }
+  }
+
+  private void writeLoop() {
+    while (running) {
+      if (!writeBatch()) {
+        // no timeout: an idle IDE doesn't wake the writer up, the producers and close() do
+        writerParked = true;
+
+        if (running && buffer.isEmpty()) {
+          LockSupport.park(this);
+        }
+
+        writerParked = false;
+      }
+    }
+
+    writeBatch();
+  }
+
+  /**
+   * @return false if the buffer was empty
+   */
+  private boolean writeBatch() {
+    LoggingEvent event = buffer.poll();
+
+    if (event == null) {
+      return false;
+    }
+
+    synchronized (this) {
+      final long discardedEvents = discarded.sumThenReset();
+      if (discardedEvents > 0) {
+        append(new LoggingEvent(
+            AsyncFileAppender.class.getName(),
+            Logger.getLogger(AsyncFileAppender.class),
+            Level.WARN,
+            discardedEvents + " log event(s) discarded, the buffer is full",
+            null
+        ));
+      }
+
+      // a batch is at most a lap of the buffer, so the writer doesn't keep the lock forever
+      int written = 0;
+      do {
+        append(event);
+        written++;
+      } while (written < buffer.capacity() && (event = buffer.poll()) != null);
+
+      if (qw != null) {
+        qw.flush();
+      }
+    }
+
+    return true;
+  }
+}
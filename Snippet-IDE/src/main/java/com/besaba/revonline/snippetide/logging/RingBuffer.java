@@ -0,0 +1,104 @@
+package com.besaba.revonline.snippetide.logging;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded queue for many producers and one consumer, without locks.
+ *
+ * <p>Every slot has a sequence number which says if the slot can be written
+ * (sequence == position) or read (sequence == position + 1), so producers
+ * only compete on the tail with a CAS and never wait for each other.</p>
+ */
+class RingBuffer<E> {
+  private final int mask;
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail = new AtomicLong();
+  // only the consumer touches it
+  private long head;
+
+  /**
+   * @param capacity Rounded up to a power of two
+   */
+  RingBuffer(final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+
+    final int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+    mask = size - 1;
+    elements = new AtomicReferenceArray<>(size);
+    sequences = new AtomicLongArray(size);
+
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Can be called by any thread
+   *
+   * @return false if the buffer is full
+   */
+  boolean offer(@NotNull final E element) {
+    long position = tail.get();
+
+    while (true) {
+      final int index = (int) position & mask;
+      final long difference = sequences.get(index) - position;
+
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          elements.lazySet(index, element);
+          // a full store, a consumer which checks isEmpty() after a volatile write sees it
+          sequences.set(index, position + 1);
+          return true;
+        }
+
+        position = tail.get();
+      } else if (difference < 0) {
+        // the consumer didn't read the element written a lap ago
+        return false;
+      } else {
+        // another producer took the slot
+        position = tail.get();
+      }
+    }
+  }
+
+  /**
+   * Only the consumer thread can call it
+   */
+  boolean isEmpty() {
+    return sequences.get((int) head & mask) != head + 1;
+  }
+
+  /**
+   * Only the consumer thread can call it
+   *
+   * @return null if the buffer is empty
+   */
+  @Nullable
+  E poll() {
+    final int index = (int) head & mask;
+
+    if (sequences.get(index) != head + 1) {
+      return null;
+    }
+
+    final E element = elements.get(index);
+    elements.lazySet(index, null);
+    sequences.lazySet(index, head + mask + 1);
+    head++;
+    return element;
+  }
+}
@@ -56,14 +56,15 @@ public class JarPluginManager implements PluginManager {
       throw new UnableToLoadPluginException(e, file, this);
     }
 
-    final ZipEntry manifestEntry = jarFile.getEntry("manifest.json");
+    // the classes are loaded by the class loader of the plugin, the jar is needed only for the manifest
+    try (final JarFile closeableJarFile = jarFile) {
+      final ZipEntry manifestEntry = closeableJarFile.getEntry("manifest.json");
 
-    if (manifestEntry == null) {
-      throw new UnableToLoadPluginException("Missing manifest.json file!", file, this);
-    }
+      if (manifestEntry == null) {
+        throw new UnableToLoadPluginException("Missing manifest.json file!", file, this);
+      }
 
-    try {
-      final Plugin plugin = parseManifest(file, jarFile, manifestEntry);
+      final Plugin plugin = parseManifest(file, closeableJarFile, manifestEntry);
 
       if (ideVersion.compareTo(plugin.getMinIdeVersion()) == -1) {
         throw new UnableToLoadPluginException("Plugin " + plugin.getName() + " is not compatible with running IDE", file, this);
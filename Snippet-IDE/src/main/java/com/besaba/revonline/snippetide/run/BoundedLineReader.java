@@ -0,0 +1,117 @@
+package com.besaba.revonline.snippetide.run;
+
+import com.google.common.io.CountingInputStream;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits the output of a process in lines keeping at most a line in memory:
+ * a line longer than the max length is split too, so a snippet which
+ * writes without new lines can't fill the memory of the IDE.
+ *
+ * <p>The bytes are counted when they are read from the process,
+ * not when a line is complete.</p>
+ */
+class BoundedLineReader implements Closeable {
+  private static final int BUFFER_SIZE = 8192;
+
+  @NotNull
+  private final CountingInputStream input;
+  @NotNull
+  private final Reader reader;
+  private final int maxLineLength;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private final StringBuilder line = new StringBuilder();
+  // the last character was a \r, the \n after it (maybe in the next buffer) doesn't end another line
+  private boolean afterCarriageReturn;
+  // the line has just been split because it was too long, its line separator doesn't end another line
+  private boolean afterSplit;
+
+  BoundedLineReader(@NotNull final InputStream input, @NotNull final Charset charset, final int maxLineLength) {
+    this.input = new CountingInputStream(input);
+    this.reader = new InputStreamReader(this.input, charset);
+    this.maxLineLength = maxLineLength;
+  }
+
+  /**
+   * @see Reader#ready()
+   */
+  boolean ready() throws IOException {
+    return reader.ready();
+  }
+
+  /**
+   * Reads at most a buffer, it blocks if nothing can be read
+   *
+   * @return The lines completed, without the line separator
+   */
+  @NotNull
+  List<String> read() throws IOException {
+    final int read = reader.read(buffer);
+
+    if (read < 0) {
+      return Collections.emptyList();
+    }
+
+    final List<String> lines = new ArrayList<>();
+
+    for (int i = 0; i < read; i++) {
+      final char character = buffer[i];
+
+      if (character == '\n' || character == '\r') {
+        if (!afterSplit && !(character == '\n' && afterCarriageReturn)) {
+          lines.add(takeLine());
+        }
+
+        afterSplit = false;
+      } else {
+        line.append(character);
+        afterSplit = line.length() >= maxLineLength;
+
+        if (afterSplit) {
+          lines.add(takeLine());
+        }
+      }
+
+      afterCarriageReturn = character == '\r';
+    }
+
+    return lines;
+  }
+
+  /**
+   * @return The bytes read from the process, some of them can still be in the buffer of the reader
+   */
+  long getReadBytes() {
+    return input.getCount();
+  }
+
+  /**
+   * @return The last line if the output doesn't end with a new line, it's removed
+   */
+  @NotNull
+  String takeIncompleteLine() {
+    return takeLine();
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  @NotNull
+  private String takeLine() {
+    final String text = line.toString();
+    line.setLength(0);
+    return text;
+  }
+}
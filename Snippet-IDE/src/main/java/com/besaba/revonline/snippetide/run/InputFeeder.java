@@ -0,0 +1,63 @@
+package com.besaba.revonline.snippetide.run;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sends a file to the standard input of a process with FileChannel.transferTo:
+ * the file isn't read line by line or in memory, and the snippet can start
+ * reading while the rest is still being sent.
+ */
+final class InputFeeder {
+  /**
+   * How much is sent between two progress reports
+   */
+  static final long CHUNK_SIZE = 4 * 1024 * 1024;
+
+  interface Progress {
+    void update(long sentBytes, long totalBytes);
+  }
+
+  private InputFeeder() {
+  }
+
+  /**
+   * Blocks until the whole file is written or the process stops reading it.
+   * The target isn't closed.
+   *
+   * @param progress Called after every chunk, the last time with sentBytes == totalBytes
+   * @return The bytes sent
+   */
+  static long transfer(@NotNull final Path file,
+                       @NotNull final WritableByteChannel target,
+                       @NotNull final Progress progress) throws IOException {
+    try (final FileChannel input = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long size = input.size();
+      long position = 0;
+
+      while (position < size) {
+        final long sent = input.transferTo(position, Math.min(CHUNK_SIZE, size - position), target);
+
+        if (sent == 0) {
+          // the file has been truncated while it was sent
+          break;
+        }
+
+        position += sent;
+        progress.update(position, size);
+      }
+
+      if (position == 0 || position != size) {
+        // the last report has to say that everything has been sent, even if the file was shorter
+        progress.update(position, position);
+      }
+
+      return position;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.besaba.revonline.snippetide.run;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Compares the output of the snippet with the expected one line by line while
+ * the snippet is still writing it, only the current line of both is kept in memory.
+ *
+ * <p>The spaces at the end of a line and the empty lines at the end of
+ * the output don't matter.</p>
+ */
+final class OutputComparator {
+  private static final int MAX_SHOWN_LENGTH = 50;
+
+  private OutputComparator() {
+  }
+
+  /**
+   * Stops reading at the first difference, the rest of the output isn't read.
+   *
+   * @return null if the outputs are the same, otherwise the first difference
+   */
+  @Nullable
+  static String compare(@NotNull final BufferedReader actual, @NotNull final BufferedReader expected) throws IOException {
+    for (long line = 1; ; line++) {
+      final String actualLine = actual.readLine();
+      final String expectedLine = expected.readLine();
+
+      if (actualLine == null && expectedLine == null) {
+        return null;
+      }
+
+      if (actualLine == null) {
+        return onlyEmptyLinesLeft(expectedLine, expected)
+            ? null
+            : "line " + line + ": expected " + quote(expectedLine) + " but the output ended";
+      }
+
+      if (expectedLine == null) {
+        return onlyEmptyLinesLeft(actualLine, actual)
+            ? null
+            : "line " + line + ": expected the end of the output but was " + quote(actualLine);
+      }
+
+      if (!stripTrailingSpaces(actualLine).equals(stripTrailingSpaces(expectedLine))) {
+        return "line " + line + ": expected " + quote(expectedLine) + " but was " + quote(actualLine);
+      }
+    }
+  }
+
+  private static boolean onlyEmptyLinesLeft(@NotNull final String currentLine,
+                                            @NotNull final BufferedReader reader) throws IOException {
+    for (String line = currentLine; line != null; line = reader.readLine()) {
+      if (!stripTrailingSpaces(line).isEmpty()) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  @NotNull
+  static String stripTrailingSpaces(@NotNull final String line) {
+    int end = line.length();
+
+    while (end > 0 && Character.isWhitespace(line.charAt(end - 1))) {
+      end--;
+    }
+
+    return line.substring(0, end);
+  }
+
+  @NotNull
+  private static String quote(@NotNull final String line) {
+    return "\"" + (line.length() > MAX_SHOWN_LENGTH ? line.substring(0, MAX_SHOWN_LENGTH) + "..." : line) + "\"";
+  }
+}
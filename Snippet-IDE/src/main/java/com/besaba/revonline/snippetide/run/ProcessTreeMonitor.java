@@ -0,0 +1,378 @@
+package com.besaba.revonline.snippetide.run;
+
+import com.besaba.revonline.snippetide.api.run.ResourceUsage;
+import com.besaba.revonline.snippetide.api.run.RunLimit;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a process and the processes it starts while they run, reading /proc,
+ * and kills all of them when they exceed a limit.
+ *
+ * <p>A process can't be read anymore once it has ended, so the values are the ones of the
+ * last sample: the last few milliseconds of a process may be missing.
+ * Where there is no /proc (not Linux) only the wall time is measured, and only
+ * the wall time and the output limits are enforced.</p>
+ */
+class ProcessTreeMonitor {
+  private final static Logger logger = Logger.getLogger(ProcessTreeMonitor.class);
+  private static final Path PROC = Paths.get("/proc");
+  // USER_HZ, the unit of the times in /proc/<pid>/stat, is 100 on every Linux
+  private static final long CLOCK_TICKS_PER_SECOND = 100;
+  private static final long SAMPLE_INTERVAL_MILLISECONDS = 10;
+  // looking for new processes reads a file for every thread, it's done less often
+  private static final int SAMPLES_BETWEEN_CHILDREN_LOOKUPS = 10;
+
+  private static final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("RunSnippet-Monitor").build()
+  );
+
+  private final long start = System.nanoTime();
+  @NotNull
+  private final Process process;
+  @NotNull
+  private final RunLimits limits;
+  // the processes which are still alive
+  private final Set<Long> tree = new LinkedHashSet<>();
+  // the last values read of every process, even the ended ones
+  private final Map<Long, ProcessSample> lastSamples = new HashMap<>();
+  private long peakResidentBytes;
+  private int samples;
+  @Nullable
+  private volatile RunLimit exceededLimit;
+  @NotNull
+  private final ScheduledFuture<?> sampling;
+
+  ProcessTreeMonitor(@NotNull final Process process, @NotNull final RunLimits limits) {
+    this.process = process;
+    this.limits = limits;
+
+    final long pid = Files.isDirectory(PROC) ? pidOf(process) : -1;
+
+    if (pid > 0) {
+      tree.add(pid);
+    }
+
+    // without the pid there is nothing to read, but the wall time is still checked
+    sampling = sampler.scheduleWithFixedDelay(this::sample, 0, SAMPLE_INTERVAL_MILLISECONDS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Kills the processes, if no other limit has been exceeded before
+   */
+  synchronized void limitExceeded(@NotNull final RunLimit limit) {
+    if (exceededLimit != null) {
+      return;
+    }
+
+    logger.debug("limit exceeded: " + limit);
+    exceededLimit = limit;
+    killTree();
+  }
+
+  /**
+   * @return The limit which made the monitor kill the processes, null if they ended by themselves
+   */
+  @Nullable
+  RunLimit getExceededLimit() {
+    return exceededLimit;
+  }
+
+  /**
+   * Stops measuring, call it when the process has ended
+   */
+  @NotNull
+  ResourceUsage finish() {
+    final long wallTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    final ResourceUsage.Builder usage = new ResourceUsage.Builder(wallTimeMillis);
+
+    sampling.cancel(false);
+
+    synchronized (this) {
+      if (lastSamples.isEmpty()) {
+        // it ended before the first sample, zeros would be wrong
+        return usage.create();
+      }
+
+      long userTicks = 0;
+      long systemTicks = 0;
+      long peakOfOneProcess = 0;
+      long voluntaryContextSwitches = 0;
+      long involuntaryContextSwitches = 0;
+      long readBytes = 0;
+      long writtenBytes = 0;
+
+      for (final ProcessSample sample : lastSamples.values()) {
+        userTicks += sample.userTicks;
+        systemTicks += sample.systemTicks;
+        peakOfOneProcess = Math.max(peakOfOneProcess, sample.peakResidentBytes);
+        voluntaryContextSwitches += sample.voluntaryContextSwitches;
+        involuntaryContextSwitches += sample.involuntaryContextSwitches;
+        readBytes += sample.readBytes;
+        writtenBytes += sample.writtenBytes;
+      }
+
+      return usage
+          .setCpuMillis(ticksToMillis(userTicks), ticksToMillis(systemTicks))
+          // the kernel knows the peak of every process, the samples only the peak of all of them together
+          .setPeakResidentBytes(Math.max(peakResidentBytes, peakOfOneProcess))
+          .setContextSwitches(voluntaryContextSwitches, involuntaryContextSwitches)
+          .setIo(readBytes, writtenBytes)
+          .create();
+    }
+  }
+
+  private synchronized void sample() {
+    if (samples++ % SAMPLES_BETWEEN_CHILDREN_LOOKUPS == 0) {
+      findChildren();
+    }
+
+    long residentBytes = 0;
+
+    for (final Iterator<Long> iterator = tree.iterator(); iterator.hasNext(); ) {
+      final long pid = iterator.next();
+      final ProcessSample sample = ProcessSample.read(PROC.resolve(Long.toString(pid)));
+
+      if (sample == null) {
+        iterator.remove();
+        continue;
+      }
+
+      lastSamples.put(pid, sample);
+      residentBytes += sample.residentBytes;
+    }
+
+    peakResidentBytes = Math.max(peakResidentBytes, residentBytes);
+    checkLimits(residentBytes);
+  }
+
+  private void checkLimits(final long residentBytes) {
+    if (exceededLimit != null) {
+      return;
+    }
+
+    final long wallTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    if (limits.getWallTimeMillis() > 0 && wallTimeMillis > limits.getWallTimeMillis()) {
+      limitExceeded(RunLimit.WallTime);
+    } else if (limits.getCpuTimeMillis() > 0 && getCpuMillis() > limits.getCpuTimeMillis()) {
+      limitExceeded(RunLimit.CpuTime);
+    } else if (limits.getMemoryBytes() > 0 && residentBytes > limits.getMemoryBytes()) {
+      limitExceeded(RunLimit.Memory);
+    }
+  }
+
+  private long getCpuMillis() {
+    long ticks = 0;
+
+    for (final ProcessSample sample : lastSamples.values()) {
+      ticks += sample.userTicks + sample.systemTicks;
+    }
+
+    return ticksToMillis(ticks);
+  }
+
+  /**
+   * Process.destroyForcibly kills only the process started by the IDE,
+   * the others are killed with their pids
+   */
+  private void killTree() {
+    if (!tree.isEmpty()) {
+      // the processes started since the last lookup
+      findChildren();
+
+      final List<String> command = new ArrayList<>();
+      command.add("kill");
+      command.add("-KILL");
+      tree.forEach(pid -> command.add(Long.toString(pid)));
+
+      try {
+        new ProcessBuilder(command).redirectErrorStream(true).start();
+      } catch (IOException e) {
+        logger.error("unable to kill the processes " + tree, e);
+      }
+    }
+
+    process.destroyForcibly();
+  }
+
+  private void findChildren() {
+    final Deque<Long> toVisit = new ArrayDeque<>(tree);
+
+    while (!toVisit.isEmpty()) {
+      final Path tasks = PROC.resolve(Long.toString(toVisit.poll())).resolve("task");
+
+      try (final DirectoryStream<Path> threads = Files.newDirectoryStream(tasks)) {
+        for (final Path thread : threads) {
+          for (final long child : parsePids(readFirstLine(thread.resolve("children")))) {
+            if (tree.add(child)) {
+              toVisit.add(child);
+            }
+          }
+        }
+      } catch (IOException e) {
+        // the process has ended, or the kernel doesn't list the children
+        logger.debug("unable to read the children in " + tasks);
+      }
+    }
+  }
+
+  private static long ticksToMillis(final long ticks) {
+    return ticks * 1000 / CLOCK_TICKS_PER_SECOND;
+  }
+
+  /**
+   * Process has pid() only from Java 9, before it's a private field of the implementation
+   *
+   * @return -1 if it can't be found
+   */
+  static long pidOf(@NotNull final Process process) {
+    try {
+      return (Long) Process.class.getMethod("pid").invoke(process);
+    } catch (NoSuchMethodException e) {
+      try {
+        final Field pid = process.getClass().getDeclaredField("pid");
+        pid.setAccessible(true);
+        return ((Number) pid.get(process)).longValue();
+      } catch (ReflectiveOperationException | RuntimeException notFound) {
+        return -1;
+      }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return -1;
+    }
+  }
+
+  @NotNull
+  static List<Long> parsePids(@NotNull final String line) {
+    final List<Long> pids = new ArrayList<>();
+
+    for (final String pid : line.trim().split("\\s+")) {
+      if (!pid.isEmpty()) {
+        pids.add(Long.parseLong(pid));
+      }
+    }
+
+    return pids;
+  }
+
+  @NotNull
+  private static String readFirstLine(@NotNull final Path file) throws IOException {
+    final List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+    return lines.isEmpty() ? "" : lines.get(0);
+  }
+
+  /**
+   * What /proc says about a process at a given time
+   */
+  static class ProcessSample {
+    final long userTicks;
+    final long systemTicks;
+    final long residentBytes;
+    final long peakResidentBytes;
+    final long voluntaryContextSwitches;
+    final long involuntaryContextSwitches;
+    final long readBytes;
+    final long writtenBytes;
+
+    private ProcessSample(final long userTicks,
+                          final long systemTicks,
+                          final Map<String, Long> status,
+                          final Map<String, Long> io) {
+      this.userTicks = userTicks;
+      this.systemTicks = systemTicks;
+      // in kB
+      this.residentBytes = status.getOrDefault("VmRSS", 0L) * 1024;
+      this.peakResidentBytes = status.getOrDefault("VmHWM", 0L) * 1024;
+      this.voluntaryContextSwitches = status.getOrDefault("voluntary_ctxt_switches", 0L);
+      this.involuntaryContextSwitches = status.getOrDefault("nonvoluntary_ctxt_switches", 0L);
+      this.readBytes = io.getOrDefault("rchar", 0L);
+      this.writtenBytes = io.getOrDefault("wchar", 0L);
+    }
+
+    /**
+     * @return null if the process has ended
+     */
+    @Nullable
+    static ProcessSample read(@NotNull final Path processDirectory) {
+      try {
+        final String stat = readFirstLine(processDirectory.resolve("stat"));
+        final List<String> status = Files.readAllLines(processDirectory.resolve("status"), StandardCharsets.US_ASCII);
+        List<String> io;
+
+        try {
+          io = Files.readAllLines(processDirectory.resolve("io"), StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+          // it can be read only by the owner
+          io = Collections.emptyList();
+        }
+
+        return parse(stat, status, io);
+      } catch (IOException | RuntimeException e) {
+        return null;
+      }
+    }
+
+    @NotNull
+    static ProcessSample parse(@NotNull final String stat,
+                               @NotNull final List<String> status,
+                               @NotNull final List<String> io) {
+      // the name of the program, between parentheses, can contain spaces: the fields are counted after it
+      final String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+      // utime and stime are the 14th and 15th field, the state (the 3rd) is the first after the name
+      final long userTicks = Long.parseLong(fields[14 - 3]);
+      final long systemTicks = Long.parseLong(fields[15 - 3]);
+
+      return new ProcessSample(userTicks, systemTicks, parseValues(status), parseValues(io));
+    }
+
+    /**
+     * Lines like "VmRSS:     1234 kB" or "rchar: 5678"
+     */
+    @NotNull
+    private static Map<String, Long> parseValues(@NotNull final List<String> lines) {
+      final Map<String, Long> values = new HashMap<>();
+
+      for (final String line : lines) {
+        final int separator = line.indexOf(':');
+
+        if (separator < 0) {
+          continue;
+        }
+
+        final String[] value = line.substring(separator + 1).trim().split("\\s+");
+
+        try {
+          values.put(line.substring(0, separator), Long.parseLong(value[0]));
+        } catch (NumberFormatException e) {
+          // not a number, like the name of the process
+        }
+      }
+
+      return values;
+    }
+  }
+}
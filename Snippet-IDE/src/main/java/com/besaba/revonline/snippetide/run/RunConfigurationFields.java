@@ -0,0 +1,114 @@
+package com.besaba.revonline.snippetide.run;
+
+import com.besaba.revonline.snippetide.api.datashare.DataContainer;
+import com.besaba.revonline.snippetide.api.datashare.StructureDataContainer;
+import com.besaba.revonline.snippetide.api.datashare.StructureFieldInfo;
+import com.besaba.revonline.snippetide.api.language.Language;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The fields the IDE adds to the run configurations of the languages which run a process:
+ * the language doesn't read them, the IDE uses them when it starts the process of the snippet.
+ */
+public final class RunConfigurationFields {
+  public static final String INPUT_FILE_FIELD = "Input file";
+  public static final String TIMEOUT_FIELD = "Timeout (seconds)";
+  public static final String CPU_TIME_FIELD = "CPU time limit (seconds)";
+  public static final String MAX_MEMORY_FIELD = "Max memory (MB)";
+  public static final String MAX_OUTPUT_FIELD = "Max output (KB)";
+
+  // the snippets ran without limits before these fields existed, only the output is bounded to protect the IDE
+  static final int DEFAULT_TIMEOUT_SECONDS = 0;
+  static final int DEFAULT_CPU_TIME_SECONDS = 0;
+  static final int DEFAULT_MAX_MEMORY_MEGABYTES = 0;
+  static final int DEFAULT_MAX_OUTPUT_KILOBYTES = 1024;
+
+  private RunConfigurationFields() {
+  }
+
+  /**
+   * @return The run configurations of the language, with the fields of the IDE
+   *         only if the snippet runs in a process
+   */
+  @NotNull
+  public static StructureDataContainer[] structuresOf(@NotNull final Language language) {
+    final StructureDataContainer[] structures = language.getRunConfigurations();
+
+    if (!language.runsExternalProcess()) {
+      return structures;
+    }
+
+    return Arrays.stream(structures)
+        .map(RunConfigurationFields::addTo)
+        .toArray(StructureDataContainer[]::new);
+  }
+
+  /**
+   * @return The same structure with the fields of the IDE, a field of the language
+   *         with the same name wins
+   */
+  @NotNull
+  public static StructureDataContainer addTo(@NotNull final StructureDataContainer structure) {
+    final StructureDataContainer.Builder builder = new StructureDataContainer.Builder(structure.getId())
+        .setName(structure.getName())
+        .addField(
+            INPUT_FILE_FIELD,
+            new StructureFieldInfo<>(
+                Path.class,
+                Paths.get(""),
+                "The standard input of the snippet is read from this file, leave it empty to type it",
+                path -> path == null || path.toString().isEmpty() || Files.isRegularFile(path)
+            )
+        )
+        .addField(TIMEOUT_FIELD, limitField(DEFAULT_TIMEOUT_SECONDS, "The snippet is killed if it runs for more than this, 0 for no limit"))
+        .addField(CPU_TIME_FIELD, limitField(DEFAULT_CPU_TIME_SECONDS, "The snippet is killed if it uses the CPU for more than this, 0 for no limit"))
+        .addField(MAX_MEMORY_FIELD, limitField(DEFAULT_MAX_MEMORY_MEGABYTES, "The snippet is killed if its processes have more than this in RAM, a Java snippet gets a max heap a bit smaller. 0 for no limit"))
+        .addField(MAX_OUTPUT_FIELD, limitField(DEFAULT_MAX_OUTPUT_KILOBYTES, "The snippet is killed if it writes more than this, 0 for no limit"));
+
+    structure.getFields().forEach(builder::addField);
+    return builder.create();
+  }
+
+  @NotNull
+  private static StructureFieldInfo<Integer> limitField(final int defaultValue, @NotNull final String description) {
+    return new StructureFieldInfo<>(Integer.class, defaultValue, description, value -> value != null && value >= 0);
+  }
+
+  /**
+   * @return The value of a limit, the default one if the configuration was saved before the field existed
+   */
+  static int getLimit(@NotNull final DataContainer dataContainer, @NotNull final String field, final int defaultValue) {
+    final Object value = dataContainer.getValues().get(field);
+
+    if (value instanceof Integer) {
+      return (Integer) value;
+    }
+
+    try {
+      return value != null ? Integer.parseInt(value.toString()) : defaultValue;
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  /**
+   * @return Empty if the user types the input
+   */
+  @NotNull
+  public static Optional<Path> getInputFile(@NotNull final DataContainer dataContainer) {
+    final Object value = dataContainer.getValues().get(INPUT_FILE_FIELD);
+
+    // saved before the field existed, or left empty
+    if (value == null || value.toString().isEmpty()) {
+      return Optional.empty();
+    }
+
+    return Optional.of(value instanceof Path ? (Path) value : Paths.get(value.toString()));
+  }
+}
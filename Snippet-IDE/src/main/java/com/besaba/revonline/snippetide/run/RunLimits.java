@@ -0,0 +1,160 @@
+package com.besaba.revonline.snippetide.run;
+
+import com.besaba.revonline.snippetide.api.datashare.DataContainer;
+import com.besaba.revonline.snippetide.api.run.RunLimit;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The limits of the run configuration, 0 means no limit.
+ *
+ * <p>They are enforced by the IDE: the processes of the snippet are killed when
+ * the monitor sees a limit exceeded. Where it's possible the process is also started
+ * with the limits the kernel and the JVM enforce by themselves (prlimit for the CPU time,
+ * -Xmx for the heap when the command runs java), which stop it even between two samples.</p>
+ *
+ * <p>The resident memory of a JVM is the heap plus metaspace, code cache, thread stacks
+ * and GC structures, so the max heap is only a part of the memory limit: a snippet which fills
+ * its heap usually gets an OutOfMemoryError before the monitor kills it, but one with many
+ * threads or direct buffers can still be killed first.</p>
+ */
+public class RunLimits {
+  private static final Path[] PRLIMIT_LOCATIONS = {Paths.get("/usr/bin/prlimit"), Paths.get("/bin/prlimit")};
+  // JAVA_TOOL_OPTIONS would reach every JVM, but the JVM prints it as the first line of the errors
+  private static final List<String> JAVA_PROGRAMS = Arrays.asList("java", "java.exe", "javaw", "javaw.exe");
+  // about what a JVM with a few threads needs besides the heap
+  private static final long JVM_OVERHEAD_BYTES = 64L * 1024 * 1024;
+
+  private final long wallTimeMillis;
+  private final long cpuTimeMillis;
+  private final long memoryBytes;
+  private final long outputBytes;
+
+  RunLimits(final long wallTimeMillis, final long cpuTimeMillis, final long memoryBytes, final long outputBytes) {
+    this.wallTimeMillis = wallTimeMillis;
+    this.cpuTimeMillis = cpuTimeMillis;
+    this.memoryBytes = memoryBytes;
+    this.outputBytes = outputBytes;
+  }
+
+  @NotNull
+  public static RunLimits from(@NotNull final DataContainer dataContainer) {
+    return new RunLimits(
+        RunConfigurationFields.getLimit(dataContainer,
+            RunConfigurationFields.TIMEOUT_FIELD, RunConfigurationFields.DEFAULT_TIMEOUT_SECONDS) * 1000L,
+        RunConfigurationFields.getLimit(dataContainer,
+            RunConfigurationFields.CPU_TIME_FIELD, RunConfigurationFields.DEFAULT_CPU_TIME_SECONDS) * 1000L,
+        RunConfigurationFields.getLimit(dataContainer,
+            RunConfigurationFields.MAX_MEMORY_FIELD, RunConfigurationFields.DEFAULT_MAX_MEMORY_MEGABYTES) * 1024L * 1024L,
+        RunConfigurationFields.getLimit(dataContainer,
+            RunConfigurationFields.MAX_OUTPUT_FIELD, RunConfigurationFields.DEFAULT_MAX_OUTPUT_KILOBYTES) * 1024L
+    );
+  }
+
+  public long getWallTimeMillis() {
+    return wallTimeMillis;
+  }
+
+  public long getCpuTimeMillis() {
+    return cpuTimeMillis;
+  }
+
+  public long getMemoryBytes() {
+    return memoryBytes;
+  }
+
+  public long getOutputBytes() {
+    return outputBytes;
+  }
+
+  /**
+   * Adds to the process the limits enforced by the kernel and by the JVM
+   */
+  @NotNull
+  ProcessBuilder configure(@NotNull final ProcessBuilder processBuilder) {
+    if (memoryBytes > 0) {
+      processBuilder.command(withMaxHeap(processBuilder.command()));
+    }
+
+    if (cpuTimeMillis > 0) {
+      processBuilder.command(withCpuLimit(processBuilder.command()));
+    }
+
+    return processBuilder;
+  }
+
+  /**
+   * @return The memory limit without the overhead of the JVM, at most 3/4 of it
+   *         (the GC structures grow with the heap) and at least 1/4 of it
+   */
+  long getMaxHeapBytes() {
+    return Math.max(memoryBytes / 4, Math.min(memoryBytes / 4 * 3, memoryBytes - JVM_OVERHEAD_BYTES));
+  }
+
+  /**
+   * Only the JVM started by the command gets the max heap, the -Xmx of the command
+   * comes after it and wins
+   */
+  @NotNull
+  private List<String> withMaxHeap(@NotNull final List<String> command) {
+    if (command.isEmpty()) {
+      return command;
+    }
+
+    final String program = command.get(0);
+    if (!JAVA_PROGRAMS.contains(program.substring(Math.max(program.lastIndexOf('/'), program.lastIndexOf('\\')) + 1))) {
+      return command;
+    }
+
+    final List<String> limitedCommand = new ArrayList<>(command);
+    limitedCommand.add(1, "-Xmx" + Math.max(1, getMaxHeapBytes() / (1024 * 1024)) + "m");
+    return limitedCommand;
+  }
+
+  /**
+   * The kernel sends SIGXCPU at the soft limit and kills the process a second later.
+   * The limit is for every process, the monitor checks the sum.
+   */
+  @NotNull
+  private List<String> withCpuLimit(@NotNull final List<String> command) {
+    for (final Path prlimit : PRLIMIT_LOCATIONS) {
+      if (Files.isExecutable(prlimit)) {
+        final long seconds = (cpuTimeMillis + 999) / 1000;
+        final List<String> limitedCommand = new ArrayList<>();
+
+        limitedCommand.add(prlimit.toString());
+        limitedCommand.add("--cpu=" + seconds + ":" + (seconds + 1));
+        limitedCommand.add("--");
+        limitedCommand.addAll(command);
+        return limitedCommand;
+      }
+    }
+
+    return command;
+  }
+
+  /**
+   * @return What is shown to the user when the process is killed
+   */
+  @NotNull
+  String describe(@NotNull final RunLimit limit) {
+    switch (limit) {
+      case WallTime:
+        return "the time limit of " + wallTimeMillis / 1000 + " s has been exceeded";
+      case CpuTime:
+        return "the CPU time limit of " + cpuTimeMillis / 1000 + " s has been exceeded";
+      case Memory:
+        return "the memory limit of " + memoryBytes / (1024 * 1024) + " MB has been exceeded";
+      case Output:
+        return "the output limit of " + outputBytes / 1024 + " KB has been exceeded";
+      default:
+        throw new AssertionError(limit);
+    }
+  }
+}
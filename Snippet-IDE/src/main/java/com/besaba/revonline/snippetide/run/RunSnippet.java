@@ -1,30 +1,43 @@
 package com.besaba.revonline.snippetide.run;
 
+import com.besaba.revonline.snippetide.api.events.SessionId;
 import com.besaba.revonline.snippetide.api.events.manager.EventManager;
+import com.besaba.revonline.snippetide.api.events.run.InputProgressEvent;
 import com.besaba.revonline.snippetide.api.events.run.MessageFromProcess;
+import com.besaba.revonline.snippetide.api.events.run.RunFinishedEvent;
 import com.besaba.revonline.snippetide.api.events.run.RunInformationEvent;
 import com.besaba.revonline.snippetide.api.events.run.SendMessageToProcessEvent;
+import com.besaba.revonline.snippetide.api.run.ResourceUsage;
+import com.besaba.revonline.snippetide.api.run.RunLimit;
 import com.google.common.eventbus.Subscribe;
 import org.apache.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Please make sure to call methods stop / start from only the main thread
  */
 public class RunSnippet implements Runnable {
   private final static Logger logger = Logger.getLogger(RunSnippet.class);
+  // a longer line is shown in more messages
+  private static final int MAX_LINE_LENGTH = 8192;
   private volatile boolean running;
   private volatile Thread workingThread;
+  // sends the input file of the run configuration, if there is one
+  private volatile Thread inputThread;
 
   private final RunInformationEvent runInformationEvent;
   @NotNull
@@ -51,14 +64,21 @@ public class RunSnippet implements Runnable {
       workingThread.interrupt();
     }
 
+    final Thread currentInputThread = inputThread;
+    if (currentInputThread != null) {
+      currentInputThread.interrupt();
+    }
+
     synchronized (processWriterLock) {
-      try {
-        processWriter.close();
-      } catch (IOException e) {
-        logger.fatal("unable to close processwriter", e);
-      }
+      if (processWriter != null) {
+        try {
+          processWriter.close();
+        } catch (IOException e) {
+          logger.fatal("unable to close processwriter", e);
+        }
 
-      processWriter = null;
+        processWriter = null;
+      }
     }
 
     this.eventManager.unregisterListener(this);
@@ -69,7 +89,9 @@ public class RunSnippet implements Runnable {
    * Call it only from one thread (javafx thread?)
    */
   public void start() {
-    logger.debug("start called -> workingThread is " + workingThread);
+    if (logger.isDebugEnabled()) {
+      logger.debug("start called -> workingThread is " + workingThread);
+    }
 
     if (workingThread != null) {
       workingThread.interrupt();
@@ -103,7 +125,7 @@ public class RunSnippet implements Runnable {
       e.printStackTrace(printWriter);
       final String message = stringWriter.toString();
 
-      eventManager.post(new MessageFromProcess(message));
+      eventManager.post(new MessageFromProcess(runInformationEvent.getSessionId(), message));
     }
 
     workingThread = null;
@@ -112,20 +134,34 @@ public class RunSnippet implements Runnable {
   private void execute(final String command, final Path workingDirectory) throws IOException, InterruptedException {
     logger.debug("received command: " + command);
     logger.debug("working directory: " + workingDirectory);
-    final Process process = new ProcessBuilder(command)
+    final RunLimits limits = RunLimits.from(runInformationEvent.getRunStartEvent().getDataContainer());
+    final Process process = limits.configure(new ProcessBuilder(splitCommand(command)))
         .directory(workingDirectory.getParent().toFile())
         .start();
-
-    synchronized (processWriterLock) {
-      processWriter = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+    final ProcessTreeMonitor monitor = new ProcessTreeMonitor(process, limits);
+
+    final Optional<Path> inputFile = RunConfigurationFields.getInputFile(
+        runInformationEvent.getRunStartEvent().getDataContainer()
+    );
+
+    if (inputFile.isPresent()) {
+      inputThread = new Thread(() -> sendInputFile(process, inputFile.get()), "RunSnippet-Input-Thread");
+      inputThread.setDaemon(true);
+      inputThread.start();
+    } else {
+      synchronized (processWriterLock) {
+        processWriter = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+      }
     }
 
-    try(final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+    try (final BoundedLineReader reader = new BoundedLineReader(process.getInputStream(), Charset.defaultCharset(), MAX_LINE_LENGTH)) {
       while (running) {
         if (!running || workingThread.isInterrupted()) {
-          logger.debug("running is " + running);
-          logger.debug("workingThread.isInterrupted " + workingThread.isInterrupted());
-          logger.debug("process is alive " + process.isAlive());
+          if (logger.isDebugEnabled()) {
+            logger.debug("running is " + running);
+            logger.debug("workingThread.isInterrupted " + workingThread.isInterrupted());
+            logger.debug("process is alive " + process.isAlive());
+          }
           throw new IOException("Exit forced");
         }
 
@@ -135,39 +171,157 @@ public class RunSnippet implements Runnable {
         }
 
         if (reader.ready()) {
-          logger.debug("reader is ready to read a message");
+          final List<String> messages = reader.read();
 
-          final String message = reader.readLine();
+          if (monitor.getExceededLimit() != null) {
+            continue;
+          }
 
-          logger.debug("message read " + message);
+          if (limits.getOutputBytes() > 0 && reader.getReadBytes() > limits.getOutputBytes()) {
+            monitor.limitExceeded(RunLimit.Output);
+            continue;
+          }
 
-          eventManager.post(new MessageFromProcess(message));
+          messages.forEach(this::postMessage);
         }
       }
 
+      final String lastMessage = reader.takeIncompleteLine();
+      if (!lastMessage.isEmpty() && monitor.getExceededLimit() == null) {
+        postMessage(lastMessage);
+      }
+
       logger.debug("ending... kill process forcibly");
       process.destroyForcibly();
 
       logger.debug("waiting for the exitCode (it should terminate now)");
 
       final int exitCode = process.waitFor();
-      eventManager.post(new MessageFromProcess("Process finished with exit code " + exitCode));
+      final ResourceUsage resourceUsage = monitor.finish();
+      final RunLimit exceededLimit = monitor.getExceededLimit();
+
+      if (exceededLimit != null) {
+        eventManager.post(new MessageFromProcess(
+            runInformationEvent.getSessionId(),
+            "Process killed: " + limits.describe(exceededLimit) + "."
+        ));
+      }
+
+      eventManager.post(new MessageFromProcess(
+          runInformationEvent.getSessionId(),
+          "Process finished with exit code " + exitCode + ". " + resourceUsage
+      ));
+      eventManager.post(new RunFinishedEvent(runInformationEvent.getSessionId(), exitCode, resourceUsage, exceededLimit));
       logger.debug("post exit message (exit is " + exitCode + ")");
     } catch (IOException | InterruptedException e) {
       logger.fatal("something went wrong in the message reading / exit process", e);
       process.destroyForcibly();
+      monitor.finish();
       throw e;
     } finally {
       workingThread = null;
+
+      final Thread currentInputThread = inputThread;
+      if (currentInputThread != null) {
+        currentInputThread.interrupt();
+        inputThread = null;
+      }
+    }
+  }
+
+  private void postMessage(@NotNull final String message) {
+    // once per line of output, the message is built only if it's going to be written
+    if (logger.isDebugEnabled()) {
+      logger.debug("message read " + message);
+    }
+
+    eventManager.post(new MessageFromProcess(runInformationEvent.getSessionId(), message));
+  }
+
+  /**
+   * Runs in its own thread: the process can't read its input
+   * if the thread which reads its output is blocked writing it.
+   */
+  private void sendInputFile(final Process process, final Path inputFile) {
+    final SessionId sessionId = runInformationEvent.getSessionId();
+
+    // closing it is the end of the input for the snippet
+    try (final WritableByteChannel processInput = Channels.newChannel(process.getOutputStream())) {
+      final long sent = InputFeeder.transfer(
+          inputFile,
+          processInput,
+          (sentBytes, totalBytes) -> eventManager.post(new InputProgressEvent(sessionId, sentBytes, totalBytes))
+      );
+
+      logger.debug("input file sent, " + sent + " bytes");
+    } catch (ClosedByInterruptException e) {
+      logger.debug("input file not sent, the run has been stopped");
+    } catch (IOException e) {
+      // the snippet can end without reading the whole input
+      if (process.isAlive()) {
+        logger.error("unable to send the input file " + inputFile, e);
+        eventManager.post(new MessageFromProcess(sessionId, "Unable to send the input file: " + e.getMessage()));
+      }
     }
   }
 
+  /**
+   * Splits the command sent by the language in the program and its arguments.
+   * The parts are separated by spaces, a part between double quotes can contain spaces.
+   *
+   * <p>Passing the whole command as the program works only on Windows.</p>
+   */
+  @NotNull
+  static List<String> splitCommand(@NotNull final String command) {
+    final List<String> parts = new ArrayList<>();
+    final StringBuilder part = new StringBuilder();
+    boolean quoted = false;
+    boolean partStarted = false;
+
+    for (int i = 0; i < command.length(); i++) {
+      final char character = command.charAt(i);
+
+      if (character == '"') {
+        quoted = !quoted;
+        partStarted = true;
+      } else if (character == ' ' && !quoted) {
+        if (partStarted) {
+          parts.add(part.toString());
+          part.setLength(0);
+          partStarted = false;
+        }
+      } else {
+        part.append(character);
+        partStarted = true;
+      }
+    }
+
+    if (partStarted) {
+      parts.add(part.toString());
+    }
+
+    return parts;
+  }
+
   @Subscribe
   public void onSendMessageToProcess(@NotNull final SendMessageToProcessEvent event) {
+    if (!event.getSessionId().matches(runInformationEvent.getSessionId())) {
+      // the input of another window
+      return;
+    }
+
     final String message = event.getMessage();
 
     synchronized (processWriterLock) {
-      logger.debug("send -> " + message);
+      if (processWriter == null) {
+        // the input is read from a file
+        logger.debug("message not sent, the process doesn't read the typed input");
+        return;
+      }
+
+      if (logger.isDebugEnabled()) {
+        logger.debug("send -> " + message);
+      }
       try {
         processWriter.write(message);
         processWriter.write(System.lineSeparator());
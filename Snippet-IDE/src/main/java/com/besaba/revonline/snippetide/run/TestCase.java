@@ -0,0 +1,79 @@
+package com.besaba.revonline.snippetide.run;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An input file and the output the snippet should write when it reads it
+ */
+public class TestCase {
+  public static final String INPUT_EXTENSION = ".in";
+  public static final String EXPECTED_OUTPUT_EXTENSION = ".out";
+
+  @NotNull
+  private final String name;
+  @NotNull
+  private final Path input;
+  @NotNull
+  private final Path expectedOutput;
+
+  public TestCase(@NotNull final String name, @NotNull final Path input, @NotNull final Path expectedOutput) {
+    this.name = name;
+    this.input = input;
+    this.expectedOutput = expectedOutput;
+  }
+
+  /**
+   * Finds the test cases of a directory: every name.in with a name.out next to it.
+   * An input without the expected output isn't a test case.
+   *
+   * @return The test cases sorted by name
+   */
+  @NotNull
+  public static List<TestCase> findAll(@NotNull final Path directory) throws IOException {
+    final List<TestCase> testCases = new ArrayList<>();
+
+    try (final DirectoryStream<Path> inputs = Files.newDirectoryStream(directory, "*" + INPUT_EXTENSION)) {
+      for (final Path input : inputs) {
+        final String fileName = input.getFileName().toString();
+        final String name = fileName.substring(0, fileName.length() - INPUT_EXTENSION.length());
+        final Path expectedOutput = input.resolveSibling(name + EXPECTED_OUTPUT_EXTENSION);
+
+        if (Files.isRegularFile(input) && Files.isRegularFile(expectedOutput)) {
+          testCases.add(new TestCase(name, input, expectedOutput));
+        }
+      }
+    }
+
+    Collections.sort(testCases, Comparator.comparing(TestCase::getName));
+    return testCases;
+  }
+
+  @NotNull
+  public String getName() {
+    return name;
+  }
+
+  @NotNull
+  public Path getInput() {
+    return input;
+  }
+
+  @NotNull
+  public Path getExpectedOutput() {
+    return expectedOutput;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,64 @@
+package com.besaba.revonline.snippetide.run;
+
+import org.jetbrains.annotations.NotNull;
+
+public class TestCaseResult {
+  public enum Verdict {
+    Accepted,
+    WrongAnswer,
+    TimeLimitExceeded,
+    MemoryLimitExceeded,
+    OutputLimitExceeded,
+    RuntimeError,
+    /**
+     * The snippet couldn't be started or its output couldn't be read
+     */
+    Error
+  }
+
+  @NotNull
+  private final TestCase testCase;
+  @NotNull
+  private final Verdict verdict;
+  private final long elapsedMilliseconds;
+  @NotNull
+  private final String message;
+
+  public TestCaseResult(@NotNull final TestCase testCase,
+                        @NotNull final Verdict verdict,
+                        final long elapsedMilliseconds,
+                        @NotNull final String message) {
+    this.testCase = testCase;
+    this.verdict = verdict;
+    this.elapsedMilliseconds = elapsedMilliseconds;
+    this.message = message;
+  }
+
+  @NotNull
+  public TestCase getTestCase() {
+    return testCase;
+  }
+
+  @NotNull
+  public Verdict getVerdict() {
+    return verdict;
+  }
+
+  public long getElapsedMilliseconds() {
+    return elapsedMilliseconds;
+  }
+
+  /**
+   * @return Why the test case didn't pass, empty if it passed
+   */
+  @NotNull
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String toString() {
+    return testCase.getName() + ": " + verdict + " (" + elapsedMilliseconds + " ms)"
+        + (message.isEmpty() ? "" : " " + message);
+  }
+}
@@ -0,0 +1,270 @@
+package com.besaba.revonline.snippetide.run;
+
+import com.besaba.revonline.snippetide.api.run.RunLimit;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the snippet once for every test case, as many at the same time as the cores.
+ *
+ * <p>The input file is given to the process as its standard input, so it's never
+ * read by the IDE, and the output is compared with the expected one while the process
+ * is writing it: at the first difference the process is killed.</p>
+ *
+ * <p>Every test case has the limits of the run configuration, like a normal run:
+ * the processes are killed when they exceed the memory or the CPU time, and the IDE
+ * never reads more output than the limit, so the test cases running at the same time
+ * can't fill its memory. The time limit of the test cases is checked too.</p>
+ *
+ * <p>When no limit is exceeded only the process of the command is killed: if the snippet
+ * starts other processes which keep its output open the test case ends when they end.</p>
+ *
+ * <p>A runner runs the test cases only once.</p>
+ */
+public class TestCaseRunner {
+  @NotNull
+  private final List<String> command;
+  @NotNull
+  private final Path workingDirectory;
+  private final long timeLimitMilliseconds;
+  @NotNull
+  private final RunLimits limits;
+  @NotNull
+  private final ExecutorService executor;
+  @NotNull
+  private final ScheduledExecutorService watchdog;
+  private final Set<Process> processes = ConcurrentHashMap.newKeySet();
+  private final List<CompletableFuture<TestCaseResult>> results = new ArrayList<>();
+  private volatile boolean stopped;
+
+  /**
+   * @param command The command of RunInformationEvent
+   * @param workingDirectory Where the snippet is run
+   * @param timeLimitMilliseconds How long a test case can run before it's killed
+   * @param limits The limits of the run configuration, for every test case
+   */
+  public TestCaseRunner(@NotNull final String command,
+                        @NotNull final Path workingDirectory,
+                        final long timeLimitMilliseconds,
+                        @NotNull final RunLimits limits) {
+    this.command = RunSnippet.splitCommand(command);
+    this.workingDirectory = workingDirectory;
+    this.timeLimitMilliseconds = timeLimitMilliseconds;
+    this.limits = limits;
+    this.executor = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("TestCase-%d").build()
+    );
+    this.watchdog = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("TestCase-Watchdog").build()
+    );
+  }
+
+  /**
+   * @param listener Receives the result of every test case as soon as it's known, from any thread
+   * @return The results in the order of the test cases, the future fails with
+   *         a CancellationException if the runner is stopped
+   */
+  @NotNull
+  public synchronized CompletableFuture<List<TestCaseResult>> start(@NotNull final List<TestCase> testCases,
+                                                                    @NotNull final Consumer<TestCaseResult> listener) {
+    if (!results.isEmpty()) {
+      throw new IllegalStateException("The test cases have already been started");
+    }
+
+    for (final TestCase testCase : testCases) {
+      results.add(CompletableFuture
+          .supplyAsync(() -> run(testCase), executor)
+          .thenApply(result -> {
+            listener.accept(result);
+            return result;
+          }));
+    }
+
+    final CompletableFuture<List<TestCaseResult>> allResults = CompletableFuture
+        .allOf(results.toArray(new CompletableFuture<?>[results.size()]))
+        .thenApply(ignored -> results.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+
+    allResults.whenComplete((ignored, error) -> {
+      executor.shutdown();
+      watchdog.shutdownNow();
+    });
+
+    return allResults;
+  }
+
+  /**
+   * Kills the processes still running, the test cases which didn't start won't start
+   */
+  public synchronized void stop() {
+    stopped = true;
+
+    processes.forEach(Process::destroyForcibly);
+    results.forEach(result -> result.cancel(false));
+  }
+
+  @NotNull
+  private TestCaseResult run(@NotNull final TestCase testCase) {
+    if (stopped) {
+      throw new CancellationException();
+    }
+
+    Path errors = null;
+
+    try {
+      // only the first line of the errors is shown, but the process must be able to write all of them
+      errors = Files.createTempFile("snippetide-testcase-", ".err");
+
+      final long start = System.nanoTime();
+      final Process process = limits.configure(new ProcessBuilder(command))
+          .directory(workingDirectory.toFile())
+          .redirectInput(testCase.getInput().toFile())
+          .redirectError(errors.toFile())
+          .start();
+      final ProcessTreeMonitor monitor = new ProcessTreeMonitor(process, limits);
+
+      processes.add(process);
+
+      try {
+        return waitFor(testCase, process, monitor, start, errors);
+      } finally {
+        processes.remove(process);
+        process.destroyForcibly();
+        monitor.finish();
+      }
+    } catch (IOException e) {
+      return new TestCaseResult(testCase, TestCaseResult.Verdict.Error, 0, String.valueOf(e.getMessage()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException();
+    } finally {
+      if (errors != null) {
+        try {
+          Files.deleteIfExists(errors);
+        } catch (IOException ignored) {
+          // it's a temp file anyway
+        }
+      }
+    }
+  }
+
+  @NotNull
+  private TestCaseResult waitFor(@NotNull final TestCase testCase,
+                                 @NotNull final Process process,
+                                 @NotNull final ProcessTreeMonitor monitor,
+                                 final long start,
+                                 @NotNull final Path errors) throws IOException, InterruptedException {
+    final AtomicBoolean timedOut = new AtomicBoolean();
+    final ScheduledFuture<?> timeout = watchdog.schedule(() -> {
+      timedOut.set(true);
+      process.destroyForcibly();
+    }, timeLimitMilliseconds, TimeUnit.MILLISECONDS);
+
+    String difference;
+    boolean killed = false;
+    // a byte more than the limit, to know that it has been exceeded
+    final CountingInputStream output = new CountingInputStream(limits.getOutputBytes() > 0
+        ? ByteStreams.limit(process.getInputStream(), limits.getOutputBytes() + 1)
+        : process.getInputStream());
+
+    try (final BufferedReader actual = new BufferedReader(new InputStreamReader(output, Charset.defaultCharset()));
+         final BufferedReader expected = Files.newBufferedReader(testCase.getExpectedOutput(), Charset.defaultCharset())) {
+      difference = OutputComparator.compare(actual, expected);
+
+      if (limits.getOutputBytes() > 0 && output.getCount() > limits.getOutputBytes()) {
+        monitor.limitExceeded(RunLimit.Output);
+      }
+
+      // there is no reason to wait for the rest of a wrong output
+      if (difference != null && process.isAlive()) {
+        killed = true;
+        process.destroyForcibly();
+      }
+    } catch (IOException e) {
+      if (!timedOut.get() && !stopped && monitor.getExceededLimit() == null) {
+        throw e;
+      }
+
+      // the stream has been closed by the kill
+      difference = null;
+    }
+
+    final int exitCode = process.waitFor();
+    final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    timeout.cancel(false);
+
+    if (stopped) {
+      throw new CancellationException();
+    }
+
+    if (timedOut.get()) {
+      return new TestCaseResult(testCase, TestCaseResult.Verdict.TimeLimitExceeded, elapsed,
+          "killed after " + timeLimitMilliseconds + " ms");
+    }
+
+    final RunLimit exceededLimit = monitor.getExceededLimit();
+    if (exceededLimit != null) {
+      return new TestCaseResult(testCase, verdictOf(exceededLimit), elapsed, "killed, " + limits.describe(exceededLimit));
+    }
+
+    if (!killed && exitCode != 0) {
+      return new TestCaseResult(testCase, TestCaseResult.Verdict.RuntimeError, elapsed,
+          "exit code " + exitCode + firstLine(errors));
+    }
+
+    if (difference != null) {
+      return new TestCaseResult(testCase, TestCaseResult.Verdict.WrongAnswer, elapsed, difference);
+    }
+
+    return new TestCaseResult(testCase, TestCaseResult.Verdict.Accepted, elapsed, "");
+  }
+
+  @NotNull
+  private static TestCaseResult.Verdict verdictOf(@NotNull final RunLimit limit) {
+    switch (limit) {
+      case Memory:
+        return TestCaseResult.Verdict.MemoryLimitExceeded;
+      case Output:
+        return TestCaseResult.Verdict.OutputLimitExceeded;
+      default:
+        return TestCaseResult.Verdict.TimeLimitExceeded;
+    }
+  }
+
+  @NotNull
+  private static String firstLine(@NotNull final Path errors) throws IOException {
+    try (final BufferedReader reader = Files.newBufferedReader(errors, Charset.defaultCharset())) {
+      String line = reader.readLine();
+
+      // the JVM reports the options of JAVA_TOOL_OPTIONS and _JAVA_OPTIONS before the real error
+      while (line != null && line.startsWith("Picked up ")) {
+        line = reader.readLine();
+      }
+
+      return line == null || line.trim().isEmpty() ? "" : ", " + line.trim();
+    }
+  }
+}
@@ -0,0 +1,192 @@
+package com.besaba.revonline.snippetide.share;
+
+import com.besaba.revonline.snippetide.api.datashare.DataContainer;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A share which is waiting in the {@link ShareQueue}.
+ *
+ * <p>It's saved as json in the queue directory, so everything
+ * is kept as simple values: the service and the language are
+ * found again by name when the share is sent.</p>
+ */
+public class PendingShare {
+  @NotNull
+  private final String id;
+  private final int pluginId;
+  @NotNull
+  private final String serviceName;
+  @NotNull
+  private final String fileName;
+  @NotNull
+  private final String code;
+  @NotNull
+  private final String languageName;
+  private final int parametersStructureId;
+  @NotNull
+  private final Map<String, String> parameters;
+  private final long createdAt;
+  private final int failedAttempts;
+  private final long nextAttemptAt;
+  @Nullable
+  private final String lastError;
+
+  private PendingShare(@NotNull final String id,
+                       final int pluginId,
+                       @NotNull final String serviceName,
+                       @NotNull final String fileName,
+                       @NotNull final String code,
+                       @NotNull final String languageName,
+                       final int parametersStructureId,
+                       @NotNull final Map<String, String> parameters,
+                       final long createdAt,
+                       final int failedAttempts,
+                       final long nextAttemptAt,
+                       @Nullable final String lastError) {
+    this.id = id;
+    this.pluginId = pluginId;
+    this.serviceName = serviceName;
+    this.fileName = fileName;
+    this.code = code;
+    this.languageName = languageName;
+    this.parametersStructureId = parametersStructureId;
+    this.parameters = parameters;
+    this.createdAt = createdAt;
+    this.failedAttempts = failedAttempts;
+    this.nextAttemptAt = nextAttemptAt;
+    this.lastError = lastError;
+  }
+
+  /**
+   * Creates a new share, ready to be sent.
+   *
+   * <p>The id is the hash of everything which is shared,
+   * two shares with the same id are the same share.</p>
+   */
+  @NotNull
+  static PendingShare create(final int pluginId,
+                             @NotNull final String serviceName,
+                             @NotNull final String fileName,
+                             @NotNull final String code,
+                             @NotNull final String languageName,
+                             @NotNull final DataContainer parameters) {
+    final Map<String, String> parametersAsText = new TreeMap<>();
+    parameters.getValues().forEach((name, value) -> parametersAsText.put(name, value.toString()));
+
+    final Hasher hasher = Hashing.sha1().newHasher()
+        .putInt(pluginId)
+        .putInt(parameters.getParentId());
+
+    for (final String text : new String[] {serviceName, fileName, languageName, code}) {
+      hasher.putInt(text.length()).putString(text, StandardCharsets.UTF_8);
+    }
+
+    parametersAsText.forEach((name, value) -> hasher
+        .putString(name, StandardCharsets.UTF_8)
+        .putChar('=')
+        .putString(value, StandardCharsets.UTF_8)
+        .putChar('\n'));
+
+    return new PendingShare(
+        hasher.hash().toString(),
+        pluginId,
+        serviceName,
+        fileName,
+        code,
+        languageName,
+        parameters.getParentId(),
+        ImmutableMap.copyOf(parametersAsText),
+        System.currentTimeMillis(),
+        0,
+        0,
+        null
+    );
+  }
+
+  /**
+   * @return A copy of this share which has failed one more time
+   */
+  @NotNull
+  PendingShare withFailure(@NotNull final String reason, final long nextAttemptAt) {
+    return new PendingShare(id, pluginId, serviceName, fileName, code, languageName,
+        parametersStructureId, parameters, createdAt, failedAttempts + 1, nextAttemptAt, reason);
+  }
+
+  /**
+   * @return A copy of this share which can be sent at nextAttemptAt
+   */
+  @NotNull
+  PendingShare withNextAttemptAt(final long nextAttemptAt) {
+    return new PendingShare(id, pluginId, serviceName, fileName, code, languageName,
+        parametersStructureId, parameters, createdAt, failedAttempts, nextAttemptAt, lastError);
+  }
+
+  @NotNull
+  public String getId() {
+    return id;
+  }
+
+  public int getPluginId() {
+    return pluginId;
+  }
+
+  @NotNull
+  public String getServiceName() {
+    return serviceName;
+  }
+
+  @NotNull
+  public String getFileName() {
+    return fileName;
+  }
+
+  @NotNull
+  public String getCode() {
+    return code;
+  }
+
+  @NotNull
+  public String getLanguageName() {
+    return languageName;
+  }
+
+  public int getParametersStructureId() {
+    return parametersStructureId;
+  }
+
+  @NotNull
+  public Map<String, String> getParameters() {
+    return parameters;
+  }
+
+  public long getCreatedAt() {
+    return createdAt;
+  }
+
+  public int getFailedAttempts() {
+    return failedAttempts;
+  }
+
+  /**
+   * @return When the share can be sent again (milliseconds since epoch)
+   */
+  public long getNextAttemptAt() {
+    return nextAttemptAt;
+  }
+
+  /**
+   * @return Why the last attempt failed, null if it never failed
+   */
+  @Nullable
+  public String getLastError() {
+    return lastError;
+  }
+}
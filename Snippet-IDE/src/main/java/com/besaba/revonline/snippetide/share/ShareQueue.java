@@ -0,0 +1,571 @@
+package com.besaba.revonline.snippetide.share;
+
+import com.besaba.revonline.snippetide.api.application.IDEApplication;
+import com.besaba.revonline.snippetide.api.application.IDEApplicationLauncher;
+import com.besaba.revonline.snippetide.api.datashare.DataContainer;
+import com.besaba.revonline.snippetide.api.datashare.StructureDataContainer;
+import com.besaba.revonline.snippetide.api.datashare.StructureFieldInfo;
+import com.besaba.revonline.snippetide.api.events.boot.UnBootEvent;
+import com.besaba.revonline.snippetide.api.events.manager.EventManager;
+import com.besaba.revonline.snippetide.api.events.share.ShareCompletedEvent;
+import com.besaba.revonline.snippetide.api.events.share.ShareFailedEvent;
+import com.besaba.revonline.snippetide.api.events.share.ShareRequestEvent;
+import com.besaba.revonline.snippetide.api.language.Language;
+import com.besaba.revonline.snippetide.api.plugins.Plugin;
+import com.besaba.revonline.snippetide.api.plugins.PluginManager;
+import com.besaba.revonline.snippetide.api.shareservices.ShareService;
+import com.besaba.revonline.snippetide.converter.Converters;
+import com.google.common.collect.ImmutableList;
+import com.google.common.eventbus.Subscribe;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import org.apache.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Every share goes through this queue.
+ *
+ * <p>A share is saved in the queue directory before it is sent,
+ * and it's deleted only when the service says that it's completed,
+ * so a share which fails (or is still pending when the IDE is closed)
+ * is tried again later, waiting twice as long after every failure.
+ * The same code shared twice on the same service with the same
+ * parameters is queued only once.</p>
+ *
+ * <p>Every service receives one share at a time, so a burst of shares doesn't
+ * end in a burst of requests to the same server. Every request has its own id
+ * which the service gives back in its answer: a late answer to a request which
+ * timed out is never taken for the answer of the share sent after it.
+ * A late success still completes its share, which isn't sent again if its
+ * retry hasn't started yet. An answer without the id (a service which doesn't
+ * give it back) is for the oldest request of the service still unanswered.</p>
+ *
+ * <p>A share is sent at most {@link #MAX_ATTEMPTS} times: the HTTP client
+ * of the services retries only the connections which fail before
+ * anything has been sent.</p>
+ *
+ * <p>All the work is done by the queue thread, the IDE never waits for it.</p>
+ */
+public class ShareQueue {
+  private final static Logger logger = Logger.getLogger(ShareQueue.class);
+
+  private static final String SHARES_DIRECTORY_NAME = "shares";
+  private static final String SHARE_FILE_EXTENSION = ".json";
+  private static final int MAX_ATTEMPTS = 6;
+  private static final long FIRST_RETRY_DELAY_MILLISECONDS = TimeUnit.SECONDS.toMillis(5);
+  private static final long MAX_RETRY_DELAY_MILLISECONDS = TimeUnit.MINUTES.toMillis(10);
+  /**
+   * A service which doesn't answer within this time is considered failed,
+   * otherwise it would never receive another share
+   */
+  private static final long SHARE_TIMEOUT_MILLISECONDS = TimeUnit.MINUTES.toMillis(2);
+
+  private static ShareQueue instance;
+
+  @NotNull
+  private final Path directory;
+  @NotNull
+  private final EventManager eventManager;
+  @NotNull
+  private final PluginManager pluginManager;
+  private final long shareTimeoutMilliseconds;
+  @NotNull
+  private final Gson gson = new Gson();
+  @NotNull
+  private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    final Thread thread = new Thread(runnable, "ShareQueue-Thread");
+    thread.setDaemon(true);
+    return thread;
+  });
+  @NotNull
+  private final Map<String, PendingShare> pendingShares = new ConcurrentHashMap<>();
+
+  // used only by the queue thread
+  @NotNull
+  private final Map<ShareService, SentShare> sharesInProgress = new IdentityHashMap<>();
+  // the ids of the requests of every service which have not been answered yet (even the timed out ones), oldest first
+  @NotNull
+  private final Map<ShareService, Deque<String>> unansweredRequests = new IdentityHashMap<>();
+  // request id -> share id
+  @NotNull
+  private final Map<String, String> requestShares = new HashMap<>();
+  private long lastRequestNumber;
+  @Nullable
+  private ScheduledFuture<?> nextDispatch;
+
+  ShareQueue(@NotNull final Path directory,
+             @NotNull final EventManager eventManager,
+             @NotNull final PluginManager pluginManager) {
+    this(directory, eventManager, pluginManager, SHARE_TIMEOUT_MILLISECONDS);
+  }
+
+  ShareQueue(@NotNull final Path directory,
+             @NotNull final EventManager eventManager,
+             @NotNull final PluginManager pluginManager,
+             final long shareTimeoutMilliseconds) {
+    this.directory = directory;
+    this.eventManager = eventManager;
+    this.pluginManager = pluginManager;
+    this.shareTimeoutMilliseconds = shareTimeoutMilliseconds;
+  }
+
+  /**
+   * @return The queue of the application, it saves the shares
+   *         in the "shares" directory of the application
+   */
+  @NotNull
+  public static synchronized ShareQueue getInstance() {
+    if (instance == null) {
+      final IDEApplication application = IDEApplicationLauncher.getIDEApplication();
+
+      instance = new ShareQueue(
+          application.getApplicationDirectory().resolve(SHARES_DIRECTORY_NAME),
+          application.getEventManager(),
+          application.getPluginManager()
+      );
+    }
+
+    return instance;
+  }
+
+  /**
+   * Starts to listen for the results of the shares and sends
+   * again the shares which were still pending when the IDE was closed.
+   *
+   * <p>Call it after the plugins are loaded.</p>
+   */
+  public void start() {
+    eventManager.registerListener(this);
+    executor.execute(this::restore);
+  }
+
+  /**
+   * Adds a share to the queue, it will be sent as soon as the service is free.
+   */
+  public void enqueue(@NotNull final Plugin plugin,
+                      @NotNull final ShareService service,
+                      @NotNull final String fileName,
+                      @NotNull final String code,
+                      @NotNull final Language language,
+                      @NotNull final DataContainer parameters) {
+    executor.execute(() -> {
+      final PendingShare share = PendingShare.create(
+          plugin.getPluginId(),
+          service.getServiceName(),
+          fileName,
+          code,
+          language.getName(),
+          parameters
+      );
+
+      if (pendingShares.containsKey(share.getId())) {
+        logger.info("share " + share.getId() + " is already in the queue");
+        return;
+      }
+
+      save(share);
+      pendingShares.put(share.getId(), share);
+      dispatch();
+    });
+  }
+
+  /**
+   * Sends now the shares which are waiting for their next attempt.
+   */
+  public void retryNow() {
+    executor.execute(() -> {
+      pendingShares.replaceAll((id, share) -> share.withNextAttemptAt(0));
+      dispatch();
+    });
+  }
+
+  /**
+   * @return The shares which have not been completed yet, oldest first
+   */
+  @NotNull
+  public ImmutableList<PendingShare> getPendingShares() {
+    return ImmutableList.copyOf(
+        pendingShares
+            .values()
+            .stream()
+            .sorted(Comparator.comparingLong(PendingShare::getCreatedAt))
+            .collect(Collectors.toList())
+    );
+  }
+
+  @Subscribe
+  public void onShareCompleted(@NotNull final ShareCompletedEvent event) {
+    completed(event.getService(), event.getRequestId());
+
+    Platform.runLater(() -> {
+      final Optional<ButtonType> buttonType
+          = new Alert(Alert.AlertType.INFORMATION,
+          "Shared: " + event.getData(), ButtonType.OK,
+          new ButtonType("Copy", ButtonBar.ButtonData.APPLY)
+      ).showAndWait();
+
+      buttonType.ifPresent(button -> {
+        if (button.getButtonData() == ButtonBar.ButtonData.APPLY) {
+          final Clipboard clipboard = Clipboard.getSystemClipboard();
+          final ClipboardContent content = new ClipboardContent();
+          content.putString(event.getData());
+          clipboard.setContent(content);
+        }
+      });
+    });
+  }
+
+  /**
+   * Removes the completed share from the queue, the user is told by onShareCompleted
+   */
+  void completed(@NotNull final ShareService service, @Nullable final String answeredRequestId) {
+    executor.execute(() -> {
+      final SentShare inProgress = sharesInProgress.get(service);
+      final String requestId = answered(service, answeredRequestId);
+
+      if (inProgress != null && inProgress.requestId.equals(requestId)) {
+        sharesInProgress.remove(service);
+      }
+
+      // even the success of a request which timed out: the share is online, it must not be sent again
+      final String shareId = requestId == null ? null : requestShares.remove(requestId);
+      final PendingShare share = shareId == null ? null : pendingShares.get(shareId);
+
+      if (share != null) {
+        delete(share);
+      }
+
+      dispatch();
+    });
+  }
+
+  @Subscribe
+  public void onShareFailed(@NotNull final ShareFailedEvent event) {
+    executor.execute(() -> {
+      final SentShare inProgress = sharesInProgress.get(event.getService());
+      final String requestId = answered(event.getService(), event.getRequestId());
+
+      if (requestId == null) {
+        // not sent by the queue, nothing to try again
+        showFailure(event.getReason(), event.getThrowable());
+        return;
+      }
+
+      requestShares.remove(requestId);
+
+      if (inProgress != null && inProgress.requestId.equals(requestId)) {
+        sharesInProgress.remove(event.getService());
+        failed(inProgress.share, event.getReason(), event.getThrowable());
+      } else {
+        // the request timed out, its failure has already been counted
+        logger.info("late failure of request " + requestId + ": " + event.getReason());
+      }
+    });
+  }
+
+  @Subscribe
+  public void onUnboot(@NotNull final UnBootEvent event) {
+    // the pending shares are on disk, they will be sent at the next start
+    executor.shutdownNow();
+  }
+
+  /**
+   * @param requestId The id given back by the service, null if it doesn't give it back
+   * @return The id of the request which has been answered, null if the service has no request unanswered
+   */
+  @Nullable
+  private String answered(@NotNull final ShareService service, @Nullable final String requestId) {
+    final Deque<String> requests = unansweredRequests.get(service);
+
+    if (requests == null) {
+      return null;
+    }
+
+    final String answeredRequest;
+
+    if (requestId == null) {
+      // the oldest has been sent first, it's the first which should be answered
+      answeredRequest = requests.poll();
+    } else {
+      answeredRequest = requests.remove(requestId) ? requestId : null;
+    }
+
+    if (requests.isEmpty()) {
+      unansweredRequests.remove(service);
+    }
+
+    return answeredRequest;
+  }
+
+  private void failed(@NotNull final PendingShare sentShare,
+                      @NotNull final String reason,
+                      @Nullable final Throwable throwable) {
+    final PendingShare share = pendingShares.get(sentShare.getId());
+
+    if (share == null) {
+      // completed by the late answer of a previous attempt
+      dispatch();
+      return;
+    }
+
+    if (share.getFailedAttempts() + 1 >= MAX_ATTEMPTS) {
+      delete(share);
+      showFailure(reason, throwable);
+    } else {
+      final long delay = Math.min(
+          FIRST_RETRY_DELAY_MILLISECONDS << share.getFailedAttempts(),
+          MAX_RETRY_DELAY_MILLISECONDS
+      );
+      final PendingShare failedShare = share.withFailure(reason, System.currentTimeMillis() + delay);
+
+      logger.info("share " + share.getId() + " failed (" + reason + "), next attempt in " + delay + "ms");
+      save(failedShare);
+      pendingShares.put(failedShare.getId(), failedShare);
+    }
+
+    dispatch();
+  }
+
+  private void timedOut(@NotNull final ShareService service, @NotNull final SentShare sent) {
+    if (sharesInProgress.get(service) != sent) {
+      return;
+    }
+
+    // the request stays unanswered: its answer can still arrive
+    sharesInProgress.remove(service);
+    failed(sent.share, "No answer from " + service.getServiceName(), null);
+  }
+
+  /**
+   * Sends the oldest share of every free service and plans
+   * the next dispatch for the shares which have to wait.
+   */
+  private void dispatch() {
+    final long now = System.currentTimeMillis();
+    long nextAttemptAt = Long.MAX_VALUE;
+
+    for (final PendingShare share : getPendingShares()) {
+      final Optional<Plugin> plugin = findPlugin(share);
+      final Optional<ShareService> service = plugin.flatMap(p -> findService(p, share));
+      final Optional<Language> language = findLanguage(share);
+
+      if (!service.isPresent() || !language.isPresent()) {
+        // the plugin is not loaded, the share stays in the queue
+        continue;
+      }
+
+      if (sharesInProgress.containsKey(service.get())) {
+        continue;
+      }
+
+      if (share.getNextAttemptAt() > now) {
+        nextAttemptAt = Math.min(nextAttemptAt, share.getNextAttemptAt());
+        continue;
+      }
+
+      final DataContainer parameters;
+
+      try {
+        parameters = restoreParameters(service.get(), share);
+      } catch (IllegalArgumentException e) {
+        logger.error("the parameters of share " + share.getId() + " are not valid anymore", e);
+        delete(share);
+        continue;
+      }
+
+      final SentShare sent = new SentShare(share, share.getId() + "-" + ++lastRequestNumber);
+
+      sharesInProgress.put(service.get(), sent);
+      unansweredRequests.computeIfAbsent(service.get(), ignored -> new ArrayDeque<>()).add(sent.requestId);
+      requestShares.put(sent.requestId, share.getId());
+      executor.schedule(() -> timedOut(service.get(), sent), shareTimeoutMilliseconds, TimeUnit.MILLISECONDS);
+      eventManager.post(new ShareRequestEvent(
+          service.get(), share.getFileName(), share.getCode(), language.get(), parameters, sent.requestId
+      ));
+    }
+
+    if (nextDispatch != null) {
+      nextDispatch.cancel(false);
+      nextDispatch = null;
+    }
+
+    if (nextAttemptAt != Long.MAX_VALUE) {
+      nextDispatch = executor.schedule(this::dispatch, nextAttemptAt - now, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @NotNull
+  private Optional<Plugin> findPlugin(@NotNull final PendingShare share) {
+    return pluginManager.getPlugins()
+        .stream()
+        .filter(plugin -> plugin.getPluginId() == share.getPluginId())
+        .findFirst();
+  }
+
+  @NotNull
+  private Optional<ShareService> findService(@NotNull final Plugin plugin, @NotNull final PendingShare share) {
+    return plugin.getShareServices()
+        .stream()
+        .filter(service -> service.getServiceName().equals(share.getServiceName()))
+        .findFirst();
+  }
+
+  @NotNull
+  private Optional<Language> findLanguage(@NotNull final PendingShare share) {
+    return pluginManager.getPlugins()
+        .stream()
+        .flatMap(plugin -> plugin.getLanguages().stream())
+        .filter(language -> language.getName().equals(share.getLanguageName()))
+        .findFirst();
+  }
+
+  /**
+   * The parameters are saved as text, converts them back to
+   * the types declared by the service.
+   */
+  @NotNull
+  private DataContainer restoreParameters(@NotNull final ShareService service, @NotNull final PendingShare share) {
+    final Optional<StructureDataContainer> structure = Arrays.stream(service.getShareParameters())
+        .filter(s -> s.getId() == share.getParametersStructureId())
+        .findFirst();
+
+    if (!structure.isPresent()) {
+      if (!share.getParameters().isEmpty()) {
+        throw new IllegalArgumentException("Unknown parameters structure " + share.getParametersStructureId());
+      }
+
+      return new DataContainer(share.getParametersStructureId(), new HashMap<>());
+    }
+
+    final Converters converters = new Converters();
+    final Map<String, Object> values = new HashMap<>();
+
+    share.getParameters().forEach((name, text) -> {
+      final StructureFieldInfo<?> field = structure.get().getFields().get(name);
+
+      if (field == null) {
+        throw new IllegalArgumentException("Unknown parameter " + name);
+      }
+
+      values.put(name, field.getType() == String.class ? text : converters.convert(String.class, field.getType(), text));
+    });
+
+    return new DataContainer(structure.get(), values);
+  }
+
+  private void restore() {
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      logger.error("Unable to create the share queue directory " + directory, e);
+      return;
+    }
+
+    try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SHARE_FILE_EXTENSION)) {
+      for (final Path file : files) {
+        try (final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+          final PendingShare share = gson.fromJson(reader, PendingShare.class);
+
+          if (share != null) {
+            pendingShares.put(share.getId(), share);
+          }
+        } catch (IOException | JsonParseException e) {
+          logger.error("Unable to read the pending share " + file, e);
+        }
+      }
+    } catch (IOException e) {
+      logger.error("Unable to read the share queue directory " + directory, e);
+    }
+
+    if (!pendingShares.isEmpty()) {
+      logger.info(pendingShares.size() + " share(s) restored from the queue");
+    }
+
+    dispatch();
+  }
+
+  /**
+   * Writes the share to a temporary file and then moves it, so
+   * a crash while writing never leaves a broken share in the queue.
+   */
+  private void save(@NotNull final PendingShare share) {
+    final Path file = directory.resolve(share.getId() + SHARE_FILE_EXTENSION);
+    final Path temporaryFile = directory.resolve(share.getId() + ".tmp");
+
+    try {
+      Files.createDirectories(directory);
+
+      try (final BufferedWriter writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+        gson.toJson(share, writer);
+      }
+
+      Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // the share is still in memory, it's lost only if the IDE is closed before it's sent
+      logger.error("Unable to save the share " + share.getId(), e);
+    }
+  }
+
+  private void delete(@NotNull final PendingShare share) {
+    pendingShares.remove(share.getId());
+
+    try {
+      Files.deleteIfExists(directory.resolve(share.getId() + SHARE_FILE_EXTENSION));
+    } catch (IOException e) {
+      logger.error("Unable to delete the share " + share.getId(), e);
+    }
+  }
+
+  private void showFailure(@NotNull final String reason, @Nullable final Throwable throwable) {
+    logger.error("share failed: " + reason, throwable);
+
+    Platform.runLater(() ->
+        new Alert(Alert.AlertType.ERROR, "Unable to share your code! :( " + reason, ButtonType.OK).show()
+    );
+  }
+
+  /**
+   * A request sent to a service
+   */
+  private static class SentShare {
+    @NotNull
+    private final PendingShare share;
+    @NotNull
+    private final String requestId;
+
+    private SentShare(@NotNull final PendingShare share, @NotNull final String requestId) {
+      this.share = share;
+      this.requestId = requestId;
+    }
+  }
+}
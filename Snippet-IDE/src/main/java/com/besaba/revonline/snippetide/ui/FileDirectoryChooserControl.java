@@ -37,7 +37,7 @@ public class FileDirectoryChooserControl extends HBox {
     this.chooser = chooser;
 
     try {
-      loader.load();
+      FxmlTemplates.load(loader);
     } catch (IOException e) {
       throw new AssertionError(e);
     }
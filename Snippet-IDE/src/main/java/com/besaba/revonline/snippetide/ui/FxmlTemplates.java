@@ -0,0 +1,81 @@
+package com.besaba.revonline.snippetide.ui;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.io.Resources;
+import javafx.fxml.FXMLLoader;
+import org.apache.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Keeps the markup of the fxml files in memory, so opening
+ * a window doesn't read the file from the jar again.
+ *
+ * <p>Every window still needs its own scene graph (a node can
+ * be in only one scene), so the loader builds it again from
+ * the cached markup every time.</p>
+ */
+public final class FxmlTemplates {
+  private final static Logger logger = Logger.getLogger(FxmlTemplates.class);
+
+  private static final LoadingCache<URL, byte[]> templates = CacheBuilder.newBuilder()
+      .build(new CacheLoader<URL, byte[]>() {
+        @Override
+        public byte[] load(@NotNull final URL location) throws IOException {
+          return Resources.toByteArray(location);
+        }
+      });
+
+  private FxmlTemplates() {
+  }
+
+  /**
+   * Reads the templates in the current thread, so the first
+   * window which uses them doesn't have to.
+   */
+  public static void preload(@NotNull final URL... locations) {
+    for (final URL location : locations) {
+      try {
+        getTemplate(location);
+      } catch (IOException e) {
+        // the window which needs it will report the problem
+        logger.error("Unable to preload " + location, e);
+      }
+    }
+  }
+
+  /**
+   * Loads the fxml at the location of the loader.
+   *
+   * @param loader A loader with its location (used to find the template
+   *               and to resolve the relative paths inside it), controller and root
+   * @return The root of the new scene graph
+   */
+  public static <T> T load(@NotNull final FXMLLoader loader) throws IOException {
+    final URL location = loader.getLocation();
+
+    if (location == null) {
+      throw new IllegalArgumentException("The loader has no location");
+    }
+
+    try (final InputStream template = new ByteArrayInputStream(getTemplate(location))) {
+      return loader.load(template);
+    }
+  }
+
+  @NotNull
+  private static byte[] getTemplate(@NotNull final URL location) throws IOException {
+    try {
+      return templates.get(location);
+    } catch (ExecutionException e) {
+      throw new IOException("Unable to read " + location, e.getCause());
+    }
+  }
+}
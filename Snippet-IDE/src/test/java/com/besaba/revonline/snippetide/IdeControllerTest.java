@@ -51,7 +51,11 @@ public class IdeControllerTest extends ApplicationTest {
         .write("hello world")
         .press(KeyCode.F5);
 
-    final Path savedSourceFile = Paths.get(application.getTemporaryDirectory().toString(), IdeController.DEFAULT_SNIPPET_FILE_NAME + ".pwn");
+    final Path sessionDirectory = IdeController.getSessionDirectory(
+        application.getTemporaryDirectory(),
+        MockLanguage.INSTANCE.compileStartEvent.getSessionId()
+    );
+    final Path savedSourceFile = sessionDirectory.resolve(IdeController.DEFAULT_SNIPPET_FILE_NAME + ".pwn");
     assertTrue(Files.exists(savedSourceFile));
 
     final StringBuilder content = new StringBuilder();
@@ -79,8 +83,12 @@ public class IdeControllerTest extends ApplicationTest {
     assertNotNull(MockLanguage.INSTANCE.compileStartEvent);
 
     assertEquals(MockLanguage.INSTANCE, MockLanguage.INSTANCE.compileStartEvent.getTarget());
-    assertEquals(application.getTemporaryDirectory(), MockLanguage.INSTANCE.compileStartEvent.getOutputDirectory());
-    assertEquals(Paths.get(application.getTemporaryDirectory().toString(), IdeController.DEFAULT_SNIPPET_FILE_NAME + ".pwn"), MockLanguage.INSTANCE.compileStartEvent.getSourceFile());
+    final Path sessionDirectory = IdeController.getSessionDirectory(
+        application.getTemporaryDirectory(),
+        MockLanguage.INSTANCE.compileStartEvent.getSessionId()
+    );
+    assertEquals(sessionDirectory, MockLanguage.INSTANCE.compileStartEvent.getOutputDirectory());
+    assertEquals(sessionDirectory.resolve(IdeController.DEFAULT_SNIPPET_FILE_NAME + ".pwn"), MockLanguage.INSTANCE.compileStartEvent.getSourceFile());
 
     MockLanguage.INSTANCE.compileCalled = false;
     MockLanguage.INSTANCE.compileStartEvent = null;
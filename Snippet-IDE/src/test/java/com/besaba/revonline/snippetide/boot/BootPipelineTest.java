@@ -0,0 +1,90 @@
+package com.besaba.revonline.snippetide.boot;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class BootPipelineTest {
+  @Test
+  public void testDependenciesRunBefore() throws Exception {
+    final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+    new BootPipeline()
+        .addPhase("first", () -> executed.add("first"))
+        .addPhase("second", () -> executed.add("second"), "first")
+        .addPhase("third", () -> executed.add("third"), "first", "second")
+        .run((phase, duration, completed, total) -> {});
+
+    assertEquals(3, executed.size());
+    assertEquals("first", executed.get(0));
+    assertEquals("second", executed.get(1));
+    assertEquals("third", executed.get(2));
+  }
+
+  @Test
+  public void testIndependentPhasesRunAtTheSameTime() throws Exception {
+    final CountDownLatch bothStarted = new CountDownLatch(2);
+    final Runnable waitTheOther = () -> {
+      bothStarted.countDown();
+
+      try {
+        assertTrue(bothStarted.await(2, TimeUnit.SECONDS));
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    };
+
+    new BootPipeline()
+        .addPhase("first", waitTheOther)
+        .addPhase("second", waitTheOther)
+        .run((phase, duration, completed, total) -> {});
+  }
+
+  @Test
+  public void testProgressIsReported() throws Exception {
+    final List<Integer> completedPhases = new ArrayList<>();
+
+    new BootPipeline()
+        .addPhase("first", () -> {})
+        .addPhase("second", () -> {}, "first")
+        .run((phase, duration, completed, total) -> {
+          assertEquals(2, total);
+          completedPhases.add(completed);
+        });
+
+    assertEquals(2, completedPhases.size());
+    assertEquals(1, (int) completedPhases.get(0));
+    assertEquals(2, (int) completedPhases.get(1));
+  }
+
+  @Test
+  public void testFailedPhaseStopsItsDependencies() throws Exception {
+    final AtomicBoolean dependencyExecuted = new AtomicBoolean();
+
+    try {
+      new BootPipeline()
+          .addPhase("first", () -> {
+            throw new BootFailedException("first failed");
+          })
+          .addPhase("second", () -> dependencyExecuted.set(true), "first")
+          .run((phase, duration, completed, total) -> {});
+      fail("The pipeline should throw the failure");
+    } catch (BootFailedException e) {
+      assertEquals("first failed", e.getMessage());
+    }
+
+    assertFalse(dependencyExecuted.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownDependency() throws Exception {
+    new BootPipeline().addPhase("first", () -> {}, "second");
+  }
+}
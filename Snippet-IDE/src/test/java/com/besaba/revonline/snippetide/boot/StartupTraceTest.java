@@ -0,0 +1,83 @@
+package com.besaba.revonline.snippetide.boot;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class StartupTraceTest {
+  private static final long ORIGIN = 1_000_000_000L;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testStepsAreRelativeToTheOrigin() throws Exception {
+    final StartupTrace trace = new StartupTrace(ORIGIN, 200);
+
+    trace.record(StartupTrace.BOOT_CATEGORY, "configuration", ORIGIN + millis(10), ORIGIN + millis(30));
+
+    final StartupTrace.Step step = trace.getSteps().get(0);
+    assertEquals("configuration", step.getName());
+    assertEquals(millis(10), step.getStartNanos());
+    assertEquals(millis(20), step.getDurationNanos());
+  }
+
+  @Test
+  public void testNothingIsRecordedAfterCompletion() throws Exception {
+    final StartupTrace trace = new StartupTrace(ORIGIN, 200);
+
+    assertTrue(trace.complete(ORIGIN + millis(100)));
+    assertFalse(trace.complete(ORIGIN + millis(200)));
+
+    trace.record(StartupTrace.UI_CATEGORY, "second window", ORIGIN + millis(300), ORIGIN + millis(400));
+    assertTrue(trace.getSteps().isEmpty());
+  }
+
+  @Test
+  public void testSummary() throws Exception {
+    final StartupTrace trace = new StartupTrace(ORIGIN, 200);
+
+    trace.record(StartupTrace.BOOT_CATEGORY, "configuration", ORIGIN, ORIGIN + millis(30));
+    trace.record(StartupTrace.BOOT_CATEGORY, "plugins load", ORIGIN + millis(30), ORIGIN + millis(80));
+    trace.record(StartupTrace.PLUGIN_CATEGORY, "JavaLang.jar", ORIGIN + millis(30), ORIGIN + millis(60));
+    trace.record(StartupTrace.PLUGIN_CATEGORY, "PlainText.jar", ORIGIN + millis(60), ORIGIN + millis(70));
+    trace.complete(ORIGIN + millis(150));
+
+    assertEquals("Started in 150ms (boot 80ms, 2 plugin(s) 40ms, JVM 200ms)", trace.getSummary());
+  }
+
+  @Test
+  public void testReport() throws Exception {
+    final StartupTrace trace = new StartupTrace(ORIGIN, 200);
+    final Path directory = folder.getRoot().toPath();
+
+    trace.record(StartupTrace.PLUGIN_CATEGORY, "JavaLang.jar", ORIGIN, ORIGIN + millis(30));
+    trace.complete(ORIGIN + millis(150));
+    trace.writeReport(directory, "0.1");
+
+    final JsonObject report;
+
+    try (final Reader reader = Files.newBufferedReader(directory.resolve("startup-report.json"), StandardCharsets.UTF_8)) {
+      report = new JsonParser().parse(reader).getAsJsonObject();
+    }
+
+    assertEquals("0.1", report.get("version").getAsString());
+    assertEquals(150, report.get("totalMillis").getAsLong());
+    assertEquals(200, report.get("jvmUptimeAtOriginMillis").getAsLong());
+    assertEquals("JavaLang.jar", report.getAsJsonArray("steps").get(0).getAsJsonObject().get("name").getAsString());
+  }
+
+  private static long millis(final long millis) {
+    return TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+}
@@ -0,0 +1,184 @@
+package com.besaba.revonline.snippetide.events.manager.impl;
+
+import com.besaba.revonline.snippetide.api.events.Event;
+import com.besaba.revonline.snippetide.api.events.boot.UnBootEvent;
+import com.google.common.eventbus.Subscribe;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class EventBusEventManagerTest {
+  private final EventBusEventManager eventManager = new EventBusEventManager();
+
+  @After
+  public void tearDown() {
+    // stops the thread of the event manager
+    eventManager.post(new UnBootEvent());
+  }
+
+  @Test
+  public void subscribersOfTheSuperTypesReceiveTheEvent() {
+    final RecordingListener listener = new RecordingListener();
+    eventManager.registerListener(listener);
+
+    eventManager.post(new TestEvent("first"));
+
+    assertEquals(2, listener.received.size());
+    assertEquals("test first", listener.received.get(0));
+    assertEquals("any first", listener.received.get(1));
+  }
+
+  @Test
+  public void eventPostedBySubscriberIsDispatchedAfterTheCurrentOne() {
+    final List<String> received = new ArrayList<>();
+
+    eventManager.registerListener(new Object() {
+      @Subscribe
+      public void onTest(final TestEvent event) {
+        received.add("first " + event.getTarget());
+        if (event.getTarget().equals("outer")) {
+          eventManager.post(new TestEvent("inner"));
+        }
+        received.add("end " + event.getTarget());
+      }
+    });
+
+    eventManager.post(new TestEvent("outer"));
+
+    assertEquals(4, received.size());
+    assertEquals("first outer", received.get(0));
+    assertEquals("end outer", received.get(1));
+    assertEquals("first inner", received.get(2));
+  }
+
+  @Test
+  public void unregisteredListenerDoesNotReceiveEvents() {
+    final RecordingListener listener = new RecordingListener();
+    eventManager.registerListener(listener);
+    eventManager.unregisterListener(listener);
+
+    eventManager.post(new TestEvent("ignored"));
+
+    assertTrue(listener.received.isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unregisterListenerNotRegistered() {
+    eventManager.unregisterListener(new RecordingListener());
+  }
+
+  @Test
+  public void metricsCountPostsAndSubscriberCalls() {
+    eventManager.registerListener(new RecordingListener());
+
+    eventManager.post(new TestEvent("one"));
+    eventManager.post(new TestEvent("two"));
+
+    final EventTypeStatistics eventType = findEventType(TestEvent.class);
+    assertEquals(2, eventType.getPosts());
+    assertEquals(0, eventType.getDeadEvents());
+
+    final SubscriberStatistics subscriber = findSubscriber("RecordingListener#onTest");
+    assertEquals(2, subscriber.getInvocations());
+    assertEquals(0, subscriber.getFailures());
+  }
+
+  @Test
+  public void metricsCountDeadEvents() {
+    eventManager.post(new TestEvent("nobody listens"));
+
+    assertEquals(1, eventManager.getMetrics().getDeadEvents());
+    assertEquals(1, findEventType(TestEvent.class).getDeadEvents());
+  }
+
+  @Test
+  public void failingSubscriberIsCountedAndDoesNotStopTheOthers() {
+    final RecordingListener listener = new RecordingListener();
+    eventManager.registerListener(new FailingListener());
+    eventManager.registerListener(listener);
+
+    eventManager.post(new TestEvent("boom"));
+
+    assertEquals(2, listener.received.size());
+    assertEquals(1, findSubscriber("FailingListener#onTest").getFailures());
+  }
+
+  @Test
+  public void metricsMeasureTheQueueWaitOfEventsInNewThread() throws Exception {
+    final CountDownLatch received = new CountDownLatch(1);
+
+    eventManager.registerListener(new Object() {
+      @Subscribe
+      public void onTest(final TestEvent event) {
+        received.countDown();
+      }
+    });
+
+    eventManager.post(new TestEvent("async", true));
+
+    assertTrue(received.await(5, TimeUnit.SECONDS));
+    assertEquals(1, findEventType(TestEvent.class).getPosts());
+  }
+
+  @Test
+  public void resetStartsFromZero() {
+    eventManager.registerListener(new RecordingListener());
+    eventManager.post(new TestEvent("one"));
+
+    eventManager.getMetrics().reset();
+
+    assertEquals(0, findEventType(TestEvent.class).getPosts());
+    assertEquals(0, findSubscriber("RecordingListener#onTest").getInvocations());
+  }
+
+  private EventTypeStatistics findEventType(final Class<?> eventClass) {
+    return eventManager.getMetrics().getEventTypes().stream()
+        .filter(statistics -> statistics.getEventType().equals(eventClass.getName()))
+        .findFirst()
+        .orElseThrow(AssertionError::new);
+  }
+
+  private SubscriberStatistics findSubscriber(final String name) {
+    return eventManager.getMetrics().getSubscribers().stream()
+        .filter(statistics -> statistics.getSubscriber().equals(name))
+        .findFirst()
+        .orElseThrow(AssertionError::new);
+  }
+
+  private static class TestEvent extends Event<String> {
+    TestEvent(final String target) {
+      super(target);
+    }
+
+    TestEvent(final String target, final boolean useNewThread) {
+      super(target, useNewThread);
+    }
+  }
+
+  private static class RecordingListener {
+    private final List<String> received = new ArrayList<>();
+
+    @Subscribe
+    public void onTest(final TestEvent event) {
+      received.add("test " + event.getTarget());
+    }
+
+    @Subscribe
+    public void onAnyEvent(final Event<?> event) {
+      received.add("any " + event.getTarget());
+    }
+  }
+
+  private static class FailingListener {
+    @Subscribe
+    public void onTest(final TestEvent event) {
+      throw new IllegalStateException("failing on purpose");
+    }
+  }
+}
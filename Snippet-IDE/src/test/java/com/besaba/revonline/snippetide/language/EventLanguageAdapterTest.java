@@ -0,0 +1,294 @@
+package com.besaba.revonline.snippetide.language;
+
+import com.besaba.revonline.snippetide.api.compiler.CompilationProblem;
+import com.besaba.revonline.snippetide.api.compiler.CompilationProblemBuilder;
+import com.besaba.revonline.snippetide.api.compiler.CompilationProblemType;
+import com.besaba.revonline.snippetide.api.compiler.CompilationResult;
+import com.besaba.revonline.snippetide.api.datashare.DataContainer;
+import com.besaba.revonline.snippetide.api.datashare.StructureDataContainer;
+import com.besaba.revonline.snippetide.api.events.SessionId;
+import com.besaba.revonline.snippetide.api.events.boot.UnBootEvent;
+import com.besaba.revonline.snippetide.api.events.compile.CompileFinishedEvent;
+import com.besaba.revonline.snippetide.api.events.compile.CompileProgressEvent;
+import com.besaba.revonline.snippetide.api.events.compile.CompileStartEvent;
+import com.besaba.revonline.snippetide.api.events.compile.CompileStartEventBuilder;
+import com.besaba.revonline.snippetide.api.events.run.RunInformationEvent;
+import com.besaba.revonline.snippetide.api.events.run.RunStartEvent;
+import com.besaba.revonline.snippetide.api.language.AsyncLanguage;
+import com.besaba.revonline.snippetide.api.language.Language;
+import com.besaba.revonline.snippetide.events.manager.impl.EventBusEventManager;
+import com.google.common.eventbus.Subscribe;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+public class EventLanguageAdapterTest {
+  private static final CompilationProblem WARNING = new CompilationProblemBuilder()
+      .setLine(1)
+      .setMessage("careful")
+      .setType(CompilationProblemType.Warning)
+      .createCompilationProblem();
+
+  private final EventBusEventManager eventManager = new EventBusEventManager();
+  private final SessionId sessionId = SessionId.create();
+
+  @After
+  public void tearDown() {
+    // stops the thread of the event manager
+    eventManager.post(new UnBootEvent());
+  }
+
+  @Test
+  public void compileIsCompletedWithTheAnswerOfTheLanguage() throws Exception {
+    final CompilingLanguage language = new CompilingLanguage();
+    eventManager.registerListener(language);
+    final EventLanguageAdapter adapter = new EventLanguageAdapter(language, eventManager);
+    final List<CompilationProblem> progress = new ArrayList<>();
+
+    final CompletableFuture<CompilationResult> result = adapter.compile(compileRequest(language, sessionId), progress::addAll);
+
+    assertTrue(result.isDone());
+    assertEquals(Collections.singletonList(WARNING), result.get().getProblems());
+    assertEquals(Collections.singletonList(WARNING), progress);
+  }
+
+  @Test
+  public void newerCompileCancelsTheOneWaiting() throws Exception {
+    final CompilingLanguage language = new CompilingLanguage();
+    language.answer = false;
+    eventManager.registerListener(language);
+    final EventLanguageAdapter adapter = new EventLanguageAdapter(language, eventManager);
+
+    final CompletableFuture<CompilationResult> first = adapter.compile(compileRequest(language, sessionId), problems -> {});
+    language.answer = true;
+    final CompletableFuture<CompilationResult> second = adapter.compile(compileRequest(language, sessionId), problems -> {});
+
+    assertTrue(first.isCancelled());
+    assertTrue(second.isDone());
+    assertFalse(second.isCompletedExceptionally());
+  }
+
+  @Test
+  public void answersOfAnotherSessionAreIgnored() throws Exception {
+    final CompilingLanguage language = new CompilingLanguage();
+    language.answer = false;
+    eventManager.registerListener(language);
+    final EventLanguageAdapter adapter = new EventLanguageAdapter(language, eventManager);
+
+    final CompletableFuture<CompilationResult> result = adapter.compile(compileRequest(language, sessionId), problems -> {});
+    eventManager.post(new CompileFinishedEvent(language, SessionId.create(), new CompilationResult(Collections.emptyList()), false));
+
+    assertFalse(result.isDone());
+  }
+
+  @Test
+  public void backgroundCompileTakesTheAnswerOfALanguageWithoutBackground() throws Exception {
+    final CompilingLanguage language = new CompilingLanguage();
+    language.answer = false;
+    eventManager.registerListener(language);
+    final EventLanguageAdapter adapter = new EventLanguageAdapter(language, eventManager);
+
+    final CompletableFuture<CompilationResult> result = adapter.compile(
+        compileRequest(language, sessionId, true),
+        problems -> {}
+    );
+    eventManager.post(new CompileFinishedEvent(language, sessionId, new CompilationResult(Collections.emptyList()), false));
+
+    assertTrue(result.isDone());
+  }
+
+  @Test
+  public void backgroundCompileIgnoresTheCompileOfARun() throws Exception {
+    final CompilingLanguage language = new CompilingLanguage();
+    language.answer = false;
+    eventManager.registerListener(language);
+    final EventLanguageAdapter adapter = new EventLanguageAdapter(language, eventManager);
+
+    final CompletableFuture<CompilationResult> result = adapter.compile(
+        compileRequest(language, sessionId, true),
+        problems -> {}
+    );
+    language.answerRun = false;
+    adapter.run(runRequest(language));
+    eventManager.post(new CompileFinishedEvent(language, sessionId, new CompilationResult(Collections.emptyList()), false));
+
+    assertFalse(result.isDone());
+  }
+
+  @Test
+  public void runIsCompletedWithTheRunInformation() throws Exception {
+    final CompilingLanguage language = new CompilingLanguage();
+    eventManager.registerListener(language);
+    final EventLanguageAdapter adapter = new EventLanguageAdapter(language, eventManager);
+    final RunStartEvent request = new RunStartEvent(
+        language,
+        Paths.get("Solution.mock"),
+        Paths.get("."),
+        new DataContainer(1, Collections.emptyMap()),
+        sessionId
+    );
+
+    final CompletableFuture<RunInformationEvent> runInformation = adapter.run(request);
+
+    assertTrue(runInformation.isDone());
+    assertEquals("mock Solution.mock", runInformation.get().getCommand());
+    assertSame(request, runInformation.get().getRunStartEvent());
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void answersOfLanguagesWithoutSessionsAreMatched() throws Exception {
+    final LegacyLanguage language = new LegacyLanguage();
+    eventManager.registerListener(language);
+    final EventLanguageAdapter adapter = new EventLanguageAdapter(language, eventManager);
+    final RunStartEvent request = new RunStartEvent(
+        language,
+        Paths.get("Solution.mock"),
+        Paths.get("."),
+        new DataContainer(-1, Collections.emptyMap()),
+        sessionId
+    );
+
+    final CompletableFuture<CompilationResult> result = adapter.compile(compileRequest(language, sessionId), problems -> {});
+    final CompletableFuture<RunInformationEvent> runInformation = adapter.run(request);
+
+    assertTrue(result.isDone());
+    assertTrue(runInformation.isDone());
+    assertSame(request, runInformation.get().getRunStartEvent());
+    assertFalse(runInformation.get().needExternalProcess());
+  }
+
+  @Test
+  public void languageWhichDoesNotListenToCompileDoesNotNeedIt() {
+    assertTrue(new EventLanguageAdapter(new CompilingLanguage(), eventManager).needsCompile());
+    assertFalse(new EventLanguageAdapter(new RunOnlyLanguage(), eventManager).needsCompile());
+    assertTrue(EventLanguageAdapter.needsCompile(new CompilingLanguage()));
+    assertFalse(EventLanguageAdapter.needsCompile(new RunOnlyLanguage()));
+  }
+
+  @Test
+  public void closeCancelsTheRequestsWaiting() {
+    final CompilingLanguage language = new CompilingLanguage();
+    language.answer = false;
+    eventManager.registerListener(language);
+    final EventLanguageAdapter adapter = new EventLanguageAdapter(language, eventManager);
+
+    final CompletableFuture<CompilationResult> result = adapter.compile(compileRequest(language, sessionId), problems -> {});
+    adapter.close();
+
+    assertTrue(result.isCancelled());
+  }
+
+  @Test
+  public void asyncLanguagesAreNotAdapted() {
+    final AsyncLanguage language = new EventLanguageAdapter(new CompilingLanguage(), eventManager);
+
+    assertSame(language, EventLanguageAdapter.adapt(language, eventManager));
+  }
+
+  private static CompileStartEvent compileRequest(final Language language, final SessionId sessionId) {
+    return compileRequest(language, sessionId, false);
+  }
+
+  private static CompileStartEvent compileRequest(final Language language,
+                                                  final SessionId sessionId,
+                                                  final boolean background) {
+    return new CompileStartEventBuilder()
+        .setTarget(language)
+        .setSourceFile(Paths.get("Solution.mock"))
+        .setOutputDirectory(Paths.get("."))
+        .setSessionId(sessionId)
+        .setBackground(background)
+        .build();
+  }
+
+  private RunStartEvent runRequest(final Language language) {
+    return new RunStartEvent(
+        language,
+        Paths.get("Solution.mock"),
+        Paths.get("."),
+        new DataContainer(-1, Collections.emptyMap()),
+        sessionId
+    );
+  }
+
+  public class CompilingLanguage extends RunOnlyLanguage {
+    private boolean answer = true;
+
+    @Subscribe
+    public void onCompile(final CompileStartEvent event) {
+      if (event.getTarget() != this || !answer) {
+        return;
+      }
+
+      eventManager.post(new CompileProgressEvent(this, event.getSessionId(), Collections.singletonList(WARNING)));
+      eventManager.post(new CompileFinishedEvent(this, event, new CompilationResult(Collections.singletonList(WARNING))));
+    }
+  }
+
+  /**
+   * Built before sessions existed
+   */
+  @SuppressWarnings("deprecation")
+  public class LegacyLanguage extends RunOnlyLanguage {
+    @Subscribe
+    public void onCompile(final CompileStartEvent event) {
+      if (event.getTarget() == this) {
+        eventManager.post(new CompileFinishedEvent(this, new CompilationResult(Collections.emptyList())));
+      }
+    }
+
+    @Override
+    @Subscribe
+    public void onRun(final RunStartEvent event) {
+      if (event.getTarget() == this) {
+        eventManager.post(RunInformationEvent.noExternalProcess());
+      }
+    }
+  }
+
+  public class RunOnlyLanguage implements Language {
+    protected boolean answerRun = true;
+
+    @Subscribe
+    public void onRun(final RunStartEvent event) {
+      if (event.getTarget() != this || !answerRun) {
+        return;
+      }
+
+      eventManager.post(new RunInformationEvent("mock " + event.getSourceFile(), event));
+    }
+
+    @NotNull
+    @Override
+    public String getName() {
+      return "Mock";
+    }
+
+    @NotNull
+    @Override
+    public String[] getExtensions() {
+      return new String[] {".mock"};
+    }
+
+    @NotNull
+    @Override
+    public String getTemplate() {
+      return "";
+    }
+
+    @NotNull
+    @Override
+    public StructureDataContainer[] getRunConfigurations() {
+      return new StructureDataContainer[0];
+    }
+  }
+}
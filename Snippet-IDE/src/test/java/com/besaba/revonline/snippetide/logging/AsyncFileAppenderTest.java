@@ -0,0 +1,81 @@
+package com.besaba.revonline.snippetide.logging;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AsyncFileAppenderTest {
+  private Path logFile;
+  private AsyncFileAppender appender;
+
+  @Before
+  public void setUp() throws IOException {
+    logFile = Files.createTempFile("snippetide-log", ".log");
+
+    appender = new AsyncFileAppender();
+    appender.setLayout(new PatternLayout("%m%n"));
+    appender.setFile(logFile.toString());
+    appender.setAppend(false);
+    appender.activateOptions();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    appender.close();
+    Files.deleteIfExists(logFile);
+  }
+
+  @Test
+  public void idleWriterIsWokenUpByTheNextEvent() throws Exception {
+    append("first");
+    waitForLines(1);
+
+    // long enough for the writer to park without a timeout
+    Thread.sleep(200);
+
+    append("second");
+    waitForLines(2);
+  }
+
+  @Test
+  public void closeWritesWhatIsInTheBuffer() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      append("event " + i);
+    }
+
+    appender.close();
+
+    assertEquals(100, Files.readAllLines(logFile, StandardCharsets.UTF_8).size());
+  }
+
+  private void append(final String message) {
+    appender.doAppend(new LoggingEvent(
+        AsyncFileAppenderTest.class.getName(),
+        Logger.getLogger(AsyncFileAppenderTest.class),
+        Level.INFO,
+        message,
+        null
+    ));
+  }
+
+  private void waitForLines(final int count) throws Exception {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+    while (Files.readAllLines(logFile, StandardCharsets.UTF_8).size() < count) {
+      assertTrue("the writer didn't write " + count + " line(s)", System.nanoTime() < deadline);
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.besaba.revonline.snippetide.logging;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class RingBufferTest {
+  @Test
+  public void capacityIsRoundedToPowerOfTwo() {
+    assertEquals(8, new RingBuffer<String>(5).capacity());
+    assertEquals(8, new RingBuffer<String>(8).capacity());
+    assertEquals(1, new RingBuffer<String>(1).capacity());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void capacityMustBePositive() {
+    new RingBuffer<String>(0);
+  }
+
+  @Test
+  public void pollReturnsElementsInOrder() {
+    final RingBuffer<String> buffer = new RingBuffer<>(4);
+
+    assertTrue(buffer.offer("a"));
+    assertTrue(buffer.offer("b"));
+
+    assertEquals("a", buffer.poll());
+    assertEquals("b", buffer.poll());
+    assertNull(buffer.poll());
+  }
+
+  @Test
+  public void isEmptyFollowsOfferAndPoll() {
+    final RingBuffer<String> buffer = new RingBuffer<>(2);
+
+    assertTrue(buffer.isEmpty());
+    assertTrue(buffer.offer("a"));
+    assertFalse(buffer.isEmpty());
+    assertEquals("a", buffer.poll());
+    assertTrue(buffer.isEmpty());
+  }
+
+  @Test
+  public void offerFailsWhenFull() {
+    final RingBuffer<Integer> buffer = new RingBuffer<>(2);
+
+    assertTrue(buffer.offer(1));
+    assertTrue(buffer.offer(2));
+    assertFalse(buffer.offer(3));
+
+    assertEquals(Integer.valueOf(1), buffer.poll());
+    assertTrue(buffer.offer(3));
+  }
+
+  @Test
+  public void wrapsAroundManyTimes() {
+    final RingBuffer<Integer> buffer = new RingBuffer<>(4);
+
+    for (int i = 0; i < 100; i++) {
+      assertTrue(buffer.offer(i));
+      assertEquals(Integer.valueOf(i), buffer.poll());
+    }
+
+    assertNull(buffer.poll());
+  }
+
+  @Test
+  public void noElementIsLostWithManyProducers() throws Exception {
+    final int producers = 4;
+    final int elementsPerProducer = 10000;
+    final RingBuffer<Integer> buffer = new RingBuffer<>(64);
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> threads = new ArrayList<>();
+
+    for (int p = 0; p < producers; p++) {
+      final int first = p * elementsPerProducer;
+      final Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+
+        for (int i = first; i < first + elementsPerProducer; i++) {
+          while (!buffer.offer(i)) {
+            Thread.yield();
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+
+    start.countDown();
+
+    final Set<Integer> received = new HashSet<>();
+    while (received.size() < producers * elementsPerProducer) {
+      final Integer element = buffer.poll();
+
+      if (element == null) {
+        Thread.yield();
+      } else {
+        assertTrue("received twice " + element, received.add(element));
+      }
+    }
+
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertNull(buffer.poll());
+  }
+}
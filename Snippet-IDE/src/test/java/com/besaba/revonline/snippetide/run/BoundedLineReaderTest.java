@@ -0,0 +1,61 @@
+package com.besaba.revonline.snippetide.run;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BoundedLineReaderTest {
+  @Test
+  public void splitsTheLinesWithEverySeparator() throws Exception {
+    final BoundedLineReader reader = reader("first\nsecond\r\nthird\rlast", 100);
+
+    assertEquals(Arrays.asList("first", "second", "third"), readAll(reader));
+    assertEquals("last", reader.takeIncompleteLine());
+    assertEquals("", reader.takeIncompleteLine());
+  }
+
+  @Test
+  public void splitsALineLongerThanTheMax() throws Exception {
+    final BoundedLineReader reader = reader("abcdefgh\nij\n", 4);
+
+    assertEquals(Arrays.asList("abcd", "efgh", "ij"), readAll(reader));
+  }
+
+  @Test
+  public void emptyLinesAreKept() throws Exception {
+    assertEquals(Arrays.asList("", "a", ""), readAll(reader("\na\n\n", 100)));
+  }
+
+  @Test
+  public void countsTheBytesRead() throws Exception {
+    final BoundedLineReader reader = reader("\u00e8\u00e8\u00e8", 100);
+
+    assertEquals(Collections.emptyList(), readAll(reader));
+    assertEquals(6, reader.getReadBytes());
+  }
+
+  private static BoundedLineReader reader(final String text, final int maxLineLength) {
+    return new BoundedLineReader(
+        new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+        StandardCharsets.UTF_8,
+        maxLineLength
+    );
+  }
+
+  private static List<String> readAll(final BoundedLineReader reader) throws Exception {
+    final List<String> lines = new ArrayList<>();
+
+    while (reader.ready()) {
+      lines.addAll(reader.read());
+    }
+
+    return lines;
+  }
+}
@@ -0,0 +1,56 @@
+package com.besaba.revonline.snippetide.run;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class InputFeederTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void wholeFileIsSentReportingEveryChunk() throws Exception {
+    final byte[] content = new byte[(int) (InputFeeder.CHUNK_SIZE * 2 + 10)];
+    new Random(42).nextBytes(content);
+    final Path file = folder.newFile("input.txt").toPath();
+    Files.write(file, content);
+    final ByteArrayOutputStream target = new ByteArrayOutputStream();
+    final List<Long> progress = new ArrayList<>();
+
+    final long sent = InputFeeder.transfer(file, Channels.newChannel(target), (sentBytes, totalBytes) -> {
+      assertEquals(content.length, totalBytes);
+      progress.add(sentBytes);
+    });
+
+    assertEquals(content.length, sent);
+    assertArrayEquals(content, target.toByteArray());
+    assertEquals(
+        Arrays.asList(InputFeeder.CHUNK_SIZE, InputFeeder.CHUNK_SIZE * 2, (long) content.length),
+        progress
+    );
+  }
+
+  @Test
+  public void emptyFileIsReportedAsCompleted() throws Exception {
+    final Path file = folder.newFile("empty.txt").toPath();
+    final List<Long> progress = new ArrayList<>();
+
+    InputFeeder.transfer(file, Channels.newChannel(new ByteArrayOutputStream()), (sentBytes, totalBytes) -> {
+      assertEquals(sentBytes, totalBytes);
+      progress.add(sentBytes);
+    });
+
+    assertEquals(Arrays.asList(0L), progress);
+  }
+}
@@ -0,0 +1,58 @@
+package com.besaba.revonline.snippetide.run;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class OutputComparatorTest {
+  @Test
+  public void sameOutputHasNoDifference() throws Exception {
+    assertNull(compare("1\n2\n3\n", "1\n2\n3\n"));
+  }
+
+  @Test
+  public void trailingSpacesAndEmptyLinesDontMatter() throws Exception {
+    assertNull(compare("1 2  \r\n3\n\n\n", "1 2\n3"));
+    assertNull(compare("1 2\n3", "1 2 \n3\n  \n"));
+  }
+
+  @Test
+  public void leadingSpacesMatter() throws Exception {
+    assertEquals("line 1: expected \"1\" but was \" 1\"", compare(" 1", "1"));
+  }
+
+  @Test
+  public void firstDifferentLineIsReported() throws Exception {
+    assertEquals("line 2: expected \"2\" but was \"4\"", compare("1\n4\n5\n", "1\n2\n3\n"));
+  }
+
+  @Test
+  public void shorterOutputIsReported() throws Exception {
+    assertEquals("line 2: expected \"2\" but the output ended", compare("1\n", "1\n2\n\n"));
+  }
+
+  @Test
+  public void longerOutputIsReported() throws Exception {
+    assertEquals("line 2: expected the end of the output but was \"2\"", compare("1\n2\n\n", "1\n"));
+  }
+
+  @Test
+  public void outputIsNotReadAfterTheFirstDifference() throws Exception {
+    final BufferedReader actual = new BufferedReader(new StringReader("1\n4\n5\n"));
+
+    OutputComparator.compare(actual, new BufferedReader(new StringReader("1\n2\n3\n")));
+
+    assertEquals("5", actual.readLine());
+  }
+
+  private static String compare(final String actual, final String expected) throws IOException {
+    return OutputComparator.compare(
+        new BufferedReader(new StringReader(actual)),
+        new BufferedReader(new StringReader(expected))
+    );
+  }
+}
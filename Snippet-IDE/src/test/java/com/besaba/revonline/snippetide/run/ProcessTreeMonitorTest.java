@@ -0,0 +1,53 @@
+package com.besaba.revonline.snippetide.run;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ProcessTreeMonitorTest {
+  @Test
+  public void sampleIsParsedFromProc() throws Exception {
+    final ProcessTreeMonitor.ProcessSample sample = ProcessTreeMonitor.ProcessSample.parse(
+        "4242 (java (main) thread) S 1 4242 4242 0 -1 4194560 5000 0 0 0 250 40 0 0 20 0 18 0 123456 3000000000 20000",
+        Arrays.asList(
+            "Name:\tjava",
+            "VmHWM:\t   81920 kB",
+            "VmRSS:\t   40960 kB",
+            "voluntary_ctxt_switches:\t12",
+            "nonvoluntary_ctxt_switches:\t3"
+        ),
+        Arrays.asList("rchar: 2048", "wchar: 1024", "read_bytes: 0")
+    );
+
+    assertEquals(250, sample.userTicks);
+    assertEquals(40, sample.systemTicks);
+    assertEquals(81920L * 1024, sample.peakResidentBytes);
+    assertEquals(40960L * 1024, sample.residentBytes);
+    assertEquals(12, sample.voluntaryContextSwitches);
+    assertEquals(3, sample.involuntaryContextSwitches);
+    assertEquals(2048, sample.readBytes);
+    assertEquals(1024, sample.writtenBytes);
+  }
+
+  @Test
+  public void unreadableIoIsZero() throws Exception {
+    final ProcessTreeMonitor.ProcessSample sample = ProcessTreeMonitor.ProcessSample.parse(
+        "1 (init) S 0 1 1 0 -1 4194560 0 0 0 0 7 9 0 0 20 0 1 0 1 0 0",
+        Collections.emptyList(),
+        Collections.emptyList()
+    );
+
+    assertEquals(7, sample.userTicks);
+    assertEquals(9, sample.systemTicks);
+    assertEquals(0, sample.readBytes);
+  }
+
+  @Test
+  public void childrenArePidsSeparatedBySpaces() throws Exception {
+    assertEquals(Arrays.asList(12L, 345L), ProcessTreeMonitor.parsePids("12 345 "));
+    assertEquals(Collections.emptyList(), ProcessTreeMonitor.parsePids(""));
+  }
+}
@@ -0,0 +1,110 @@
+package com.besaba.revonline.snippetide.run;
+
+import com.besaba.revonline.snippetide.api.datashare.DataContainer;
+import com.besaba.revonline.snippetide.api.datashare.StructureDataContainer;
+import com.besaba.revonline.snippetide.api.datashare.StructureFieldInfo;
+import com.besaba.revonline.snippetide.api.language.Language;
+import com.google.common.collect.ImmutableMap;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class RunConfigurationFieldsTest {
+  @Test
+  public void fieldsAreAddedToTheStructureOfTheLanguage() throws Exception {
+    final StructureDataContainer structure = new StructureDataContainer.Builder(3)
+        .setName("Run")
+        .addField("Timeout", new StructureFieldInfo<>(Integer.class, 10, "", value -> true))
+        .create();
+
+    final StructureDataContainer withFields = RunConfigurationFields.addTo(structure);
+
+    assertEquals(3, withFields.getId());
+    assertEquals("Run", withFields.getName());
+    assertTrue(withFields.getFields().containsKey("Timeout"));
+    assertEquals(Path.class, withFields.getFields().get(RunConfigurationFields.INPUT_FILE_FIELD).getType());
+    assertEquals(Integer.class, withFields.getFields().get(RunConfigurationFields.MAX_MEMORY_FIELD).getType());
+  }
+
+  @Test
+  public void fieldOfTheLanguageWinsOverTheFieldOfTheIde() throws Exception {
+    final StructureFieldInfo<Integer> timeout = new StructureFieldInfo<>(Integer.class, 10, "", value -> true);
+    final StructureDataContainer structure = new StructureDataContainer.Builder(1)
+        .addField(RunConfigurationFields.TIMEOUT_FIELD, timeout)
+        .create();
+
+    assertSame(timeout, RunConfigurationFields.addTo(structure).getFields().get(RunConfigurationFields.TIMEOUT_FIELD));
+  }
+
+  @Test
+  public void fieldsAreAddedOnlyToLanguagesWhichRunAProcess() throws Exception {
+    final StructureDataContainer structure = new StructureDataContainer.Builder(1).setName("Run").create();
+
+    assertTrue(RunConfigurationFields.structuresOf(new FakeLanguage(structure, true))[0]
+        .getFields().containsKey(RunConfigurationFields.MAX_MEMORY_FIELD));
+    assertSame(structure, RunConfigurationFields.structuresOf(new FakeLanguage(structure, false))[0]);
+  }
+
+  @Test
+  public void emptyOrMissingInputFileMeansTypedInput() throws Exception {
+    assertEquals(Optional.empty(), RunConfigurationFields.getInputFile(new DataContainer(0, Collections.emptyMap())));
+    assertEquals(Optional.empty(), RunConfigurationFields.getInputFile(
+        new DataContainer(0, ImmutableMap.of(RunConfigurationFields.INPUT_FILE_FIELD, Paths.get("")))
+    ));
+  }
+
+  @Test
+  public void inputFileIsReadFromPathsAndSavedStrings() throws Exception {
+    assertEquals(Optional.of(Paths.get("input.txt")), RunConfigurationFields.getInputFile(
+        new DataContainer(0, ImmutableMap.of(RunConfigurationFields.INPUT_FILE_FIELD, Paths.get("input.txt")))
+    ));
+    assertEquals(Optional.of(Paths.get("input.txt")), RunConfigurationFields.getInputFile(
+        new DataContainer(0, ImmutableMap.of(RunConfigurationFields.INPUT_FILE_FIELD, "input.txt"))
+    ));
+  }
+
+  private static class FakeLanguage implements Language {
+    private final StructureDataContainer structure;
+    private final boolean runsExternalProcess;
+
+    private FakeLanguage(final StructureDataContainer structure, final boolean runsExternalProcess) {
+      this.structure = structure;
+      this.runsExternalProcess = runsExternalProcess;
+    }
+
+    @NotNull
+    @Override
+    public String getName() {
+      return "Fake";
+    }
+
+    @NotNull
+    @Override
+    public String[] getExtensions() {
+      return new String[] {".fake"};
+    }
+
+    @NotNull
+    @Override
+    public String getTemplate() {
+      return "";
+    }
+
+    @NotNull
+    @Override
+    public StructureDataContainer[] getRunConfigurations() {
+      return new StructureDataContainer[] {structure};
+    }
+
+    @Override
+    public boolean runsExternalProcess() {
+      return runsExternalProcess;
+    }
+  }
+}
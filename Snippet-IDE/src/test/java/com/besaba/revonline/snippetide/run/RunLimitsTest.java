@@ -0,0 +1,108 @@
+package com.besaba.revonline.snippetide.run;
+
+import com.besaba.revonline.snippetide.api.datashare.DataContainer;
+import com.besaba.revonline.snippetide.api.run.RunLimit;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RunLimitsTest {
+  @Test
+  public void missingFieldsHaveTheDefaultLimits() throws Exception {
+    final RunLimits limits = RunLimits.from(new DataContainer(0, Collections.emptyMap()));
+
+    assertEquals(RunConfigurationFields.DEFAULT_TIMEOUT_SECONDS * 1000L, limits.getWallTimeMillis());
+    assertEquals(RunConfigurationFields.DEFAULT_CPU_TIME_SECONDS * 1000L, limits.getCpuTimeMillis());
+    assertEquals(RunConfigurationFields.DEFAULT_MAX_MEMORY_MEGABYTES * 1024L * 1024L, limits.getMemoryBytes());
+    assertEquals(RunConfigurationFields.DEFAULT_MAX_OUTPUT_KILOBYTES * 1024L, limits.getOutputBytes());
+  }
+
+  @Test
+  public void limitsAreReadFromIntegersAndSavedStrings() throws Exception {
+    final RunLimits limits = RunLimits.from(new DataContainer(0, ImmutableMap.of(
+        RunConfigurationFields.TIMEOUT_FIELD, 3,
+        RunConfigurationFields.CPU_TIME_FIELD, "2",
+        RunConfigurationFields.MAX_MEMORY_FIELD, 64,
+        RunConfigurationFields.MAX_OUTPUT_FIELD, "not a number"
+    )));
+
+    assertEquals(3000, limits.getWallTimeMillis());
+    assertEquals(2000, limits.getCpuTimeMillis());
+    assertEquals(64 * 1024 * 1024, limits.getMemoryBytes());
+    assertEquals(RunConfigurationFields.DEFAULT_MAX_OUTPUT_KILOBYTES * 1024L, limits.getOutputBytes());
+  }
+
+  @Test
+  public void noLimitsLeaveTheProcessAsItIs() throws Exception {
+    final List<String> command = Arrays.asList("java", "Main");
+    final ProcessBuilder processBuilder = new ProcessBuilder(command);
+    processBuilder.environment().remove("JAVA_TOOL_OPTIONS");
+
+    new RunLimits(0, 0, 0, 0).configure(processBuilder);
+
+    assertEquals(command, processBuilder.command());
+    assertNull(processBuilder.environment().get("JAVA_TOOL_OPTIONS"));
+  }
+
+  @Test
+  public void maxHeapOfTheJvmLeavesRoomForTheRestOfTheJvm() throws Exception {
+    final ProcessBuilder processBuilder = new ProcessBuilder("/opt/jdk/bin/java", "Main", "-Xss1m");
+    processBuilder.environment().remove("JAVA_TOOL_OPTIONS");
+
+    new RunLimits(0, 0, 256 * 1024 * 1024, 0).configure(processBuilder);
+
+    assertEquals(Arrays.asList("/opt/jdk/bin/java", "-Xmx192m", "Main", "-Xss1m"), processBuilder.command());
+    // the JVM would print it before the errors of the snippet
+    assertNull(processBuilder.environment().get("JAVA_TOOL_OPTIONS"));
+  }
+
+  @Test
+  public void maxHeapIsGivenOnlyToJava() throws Exception {
+    final List<String> command = Arrays.asList("C:\\Program Files\\node\\node.exe", "snippet.js");
+    final ProcessBuilder processBuilder = new ProcessBuilder(command);
+
+    new RunLimits(0, 0, 256 * 1024 * 1024, 0).configure(processBuilder);
+
+    assertEquals(command, processBuilder.command());
+    assertEquals(Arrays.asList("C:\\jdk\\bin\\java.exe", "-Xmx192m", "Main"),
+        new RunLimits(0, 0, 256 * 1024 * 1024, 0).configure(new ProcessBuilder("C:\\jdk\\bin\\java.exe", "Main")).command());
+  }
+
+  @Test
+  public void maxHeapIsBetweenAQuarterAndThreeQuartersOfTheLimit() throws Exception {
+    final long megabyte = 1024 * 1024;
+
+    assertEquals(768 * megabyte, new RunLimits(0, 0, 1024 * megabyte, 0).getMaxHeapBytes());
+    assertEquals(64 * megabyte, new RunLimits(0, 0, 128 * megabyte, 0).getMaxHeapBytes());
+    assertEquals(16 * megabyte, new RunLimits(0, 0, 64 * megabyte, 0).getMaxHeapBytes());
+  }
+
+  @Test
+  public void cpuLimitKeepsTheCommand() throws Exception {
+    final ProcessBuilder processBuilder = new ProcessBuilder("java", "Main");
+
+    new RunLimits(0, 1500, 0, 0).configure(processBuilder);
+
+    final List<String> command = processBuilder.command();
+    // prlimit is used only where it's installed
+    assertEquals(Arrays.asList("java", "Main"), command.subList(command.size() - 2, command.size()));
+    if (command.size() > 2) {
+      assertTrue(command.contains("--cpu=2:3"));
+    }
+  }
+
+  @Test
+  public void describeSaysWhichLimitHasBeenExceeded() throws Exception {
+    final RunLimits limits = new RunLimits(3000, 2000, 64 * 1024 * 1024, 16 * 1024);
+
+    assertEquals("the time limit of 3 s has been exceeded", limits.describe(RunLimit.WallTime));
+    assertEquals("the CPU time limit of 2 s has been exceeded", limits.describe(RunLimit.CpuTime));
+    assertEquals("the memory limit of 64 MB has been exceeded", limits.describe(RunLimit.Memory));
+    assertEquals("the output limit of 16 KB has been exceeded", limits.describe(RunLimit.Output));
+  }
+}
@@ -0,0 +1,29 @@
+package com.besaba.revonline.snippetide.run;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class RunSnippetTest {
+  @Test
+  public void testSplitCommand() throws Exception {
+    assertEquals(
+        Arrays.asList("/usr/lib/jvm/java 8/bin/java", "Solution", "-cp", "/tmp/snippet ide"),
+        RunSnippet.splitCommand("\"/usr/lib/jvm/java 8/bin/java\" Solution -cp \"/tmp/snippet ide\"")
+    );
+  }
+
+  @Test
+  public void testSplitCommandWithoutQuotes() throws Exception {
+    assertEquals(Arrays.asList("node", "Solution.js"), RunSnippet.splitCommand("node  Solution.js "));
+  }
+
+  @Test
+  public void testSplitCommandWithEmptyArgument() throws Exception {
+    assertEquals(Arrays.asList("program", ""), RunSnippet.splitCommand("program \"\""));
+    assertEquals(Collections.emptyList(), RunSnippet.splitCommand(""));
+  }
+}
@@ -0,0 +1,35 @@
+package com.besaba.revonline.snippetide.run;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TestCaseTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void inputsWithTheExpectedOutputAreFoundSortedByName() throws Exception {
+    folder.newFile("b.in");
+    folder.newFile("b.out");
+    folder.newFile("a.in");
+    folder.newFile("a.out");
+    folder.newFile("without-output.in");
+    folder.newFile("without-input.out");
+    folder.newFile("notes.txt");
+
+    final Path directory = folder.getRoot().toPath();
+    final List<TestCase> testCases = TestCase.findAll(directory);
+
+    assertEquals(Arrays.asList("a", "b"), testCases.stream().map(TestCase::getName).collect(Collectors.toList()));
+    assertEquals(directory.resolve("a.in"), testCases.get(0).getInput());
+    assertEquals(directory.resolve("a.out"), testCases.get(0).getExpectedOutput());
+  }
+}
@@ -0,0 +1,170 @@
+package com.besaba.revonline.snippetide.share;
+
+import com.besaba.revonline.snippetide.MockLanguage;
+import com.besaba.revonline.snippetide.api.datashare.DataContainer;
+import com.besaba.revonline.snippetide.api.datashare.StructureDataContainer;
+import com.besaba.revonline.snippetide.api.events.manager.EventManager;
+import com.besaba.revonline.snippetide.api.events.share.ShareFailedEvent;
+import com.besaba.revonline.snippetide.api.events.share.ShareRequestEvent;
+import com.besaba.revonline.snippetide.api.plugins.Plugin;
+import com.besaba.revonline.snippetide.api.plugins.PluginManager;
+import com.besaba.revonline.snippetide.api.plugins.Version;
+import com.besaba.revonline.snippetide.api.shareservices.ShareService;
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ShareQueueTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final EventManager eventManager = mock(EventManager.class);
+  private final PluginManager pluginManager = mock(PluginManager.class);
+  private final ShareService service = mock(ShareService.class);
+  private final DataContainer noParameters = new DataContainer(-1, Collections.emptyMap());
+  private Plugin plugin;
+  private Path directory;
+
+  @Before
+  public void setUp() throws Exception {
+    when(service.getServiceName()).thenReturn("Mock service");
+    when(service.getShareParameters()).thenReturn(new StructureDataContainer[0]);
+
+    plugin = new Plugin("Mock", "Mock", Version.parse("0.1"), Version.parse("0.1"), new String[] {"Mock"},
+        Collections.singletonList(MockLanguage.INSTANCE), ImmutableList.of(service), null, true);
+    when(pluginManager.getPlugins()).thenReturn(Collections.singletonList(plugin));
+
+    directory = folder.newFolder("shares").toPath();
+  }
+
+  @Test
+  public void testShareIsSavedAndSent() throws Exception {
+    final ShareQueue queue = startQueue(eventManager);
+
+    queue.enqueue(plugin, service, "Solution", "hello", MockLanguage.INSTANCE, noParameters);
+
+    verify(eventManager, timeout(2000)).post(any(ShareRequestEvent.class));
+    assertEquals(1, savedShares());
+    assertEquals(1, queue.getPendingShares().size());
+  }
+
+  @Test
+  public void testSameShareIsQueuedOnce() throws Exception {
+    final ShareQueue queue = startQueue(eventManager);
+
+    queue.enqueue(plugin, service, "Solution", "hello", MockLanguage.INSTANCE, noParameters);
+    queue.enqueue(plugin, service, "Solution", "hello", MockLanguage.INSTANCE, noParameters);
+    queue.enqueue(plugin, service, "Solution", "hello world", MockLanguage.INSTANCE, noParameters);
+
+    waitUntil(() -> queue.getPendingShares().size() == 2);
+    assertEquals(2, savedShares());
+  }
+
+  @Test
+  public void testFailedShareStaysInTheQueue() throws Exception {
+    final ShareQueue queue = startQueue(eventManager);
+
+    queue.enqueue(plugin, service, "Solution", "hello", MockLanguage.INSTANCE, noParameters);
+    verify(eventManager, timeout(2000)).post(any(ShareRequestEvent.class));
+
+    queue.onShareFailed(new ShareFailedEvent(null, "Server down", service));
+
+    waitUntil(() -> queue.getPendingShares().get(0).getFailedAttempts() == 1);
+    assertEquals("Server down", queue.getPendingShares().get(0).getLastError());
+    assertTrue(queue.getPendingShares().get(0).getNextAttemptAt() > System.currentTimeMillis());
+    assertEquals(1, savedShares());
+  }
+
+  @Test
+  public void testPendingSharesAreSentAgainAfterRestart() throws Exception {
+    final ShareQueue queue = startQueue(eventManager);
+
+    queue.enqueue(plugin, service, "Solution", "hello", MockLanguage.INSTANCE, noParameters);
+    verify(eventManager, timeout(2000)).post(any(ShareRequestEvent.class));
+
+    final EventManager eventManagerAfterRestart = mock(EventManager.class);
+    final ShareQueue restartedQueue = startQueue(eventManagerAfterRestart);
+
+    verify(eventManagerAfterRestart, timeout(2000)).post(any(ShareRequestEvent.class));
+    assertEquals("hello", restartedQueue.getPendingShares().get(0).getCode());
+  }
+
+  @Test
+  public void testLateSuccessCompletesTheShareWhichTimedOut() throws Exception {
+    final ShareQueue queue = startQueue(new ShareQueue(directory, eventManager, pluginManager, 100));
+
+    queue.enqueue(plugin, service, "Solution", "hello", MockLanguage.INSTANCE, noParameters);
+    final String requestId = sentRequests(1).get(0).getRequestId();
+
+    waitUntil(() -> queue.getPendingShares().get(0).getFailedAttempts() == 1);
+    queue.completed(service, requestId);
+
+    waitUntil(() -> queue.getPendingShares().isEmpty());
+    assertEquals(0, savedShares());
+    verify(eventManager, times(1)).post(any(ShareRequestEvent.class));
+  }
+
+  @Test
+  public void testLateFailureDoesNotFailTheNextAttempt() throws Exception {
+    final ShareQueue queue = startQueue(new ShareQueue(directory, eventManager, pluginManager, 500));
+
+    queue.enqueue(plugin, service, "Solution", "hello", MockLanguage.INSTANCE, noParameters);
+    sentRequests(1);
+    waitUntil(() -> queue.getPendingShares().get(0).getFailedAttempts() == 1);
+
+    queue.retryNow();
+    final List<ShareRequestEvent> requests = sentRequests(2);
+    assertNotEquals(requests.get(0).getRequestId(), requests.get(1).getRequestId());
+
+    queue.onShareFailed(new ShareFailedEvent(null, "Too late", service, requests.get(0).getRequestId()));
+    queue.onShareFailed(new ShareFailedEvent(null, "Server down", service, requests.get(1).getRequestId()));
+
+    waitUntil(() -> queue.getPendingShares().get(0).getFailedAttempts() == 2);
+    assertEquals("Server down", queue.getPendingShares().get(0).getLastError());
+  }
+
+  private ShareQueue startQueue(final EventManager eventManager) {
+    return startQueue(new ShareQueue(directory, eventManager, pluginManager));
+  }
+
+  private static ShareQueue startQueue(final ShareQueue queue) {
+    queue.start();
+    return queue;
+  }
+
+  private List<ShareRequestEvent> sentRequests(final int count) {
+    final ArgumentCaptor<ShareRequestEvent> requests = ArgumentCaptor.forClass(ShareRequestEvent.class);
+    verify(eventManager, timeout(2000).times(count)).post(requests.capture());
+    return requests.getAllValues();
+  }
+
+  private int savedShares() {
+    final File[] files = directory.toFile().listFiles((dir, name) -> name.endsWith(".json"));
+    return files == null ? 0 : files.length;
+  }
+
+  private static void waitUntil(final BooleanSupplier condition) throws InterruptedException {
+    final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > end) {
+        fail("The queue didn't reach the expected state");
+      }
+
+      Thread.sleep(10);
+    }
+  }
+}
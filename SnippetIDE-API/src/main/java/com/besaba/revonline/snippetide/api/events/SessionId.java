@@ -0,0 +1,59 @@
+package com.besaba.revonline.snippetide.api.events;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Who asked for a compile or a run: an IDE window, a headless job...
+ *
+ * <p>Every compile and run event carries one. A language copies the session
+ * of the request in all the events it posts to answer it, so many sessions
+ * can compile and run at the same time and each one receives only its results.</p>
+ */
+public final class SessionId {
+  /**
+   * The session of the events created with the constructors without a session,
+   * used by the plugins built before sessions existed: they are for every session.
+   */
+  public static final SessionId BROADCAST = new SessionId(0);
+
+  private static final AtomicLong lastId = new AtomicLong();
+
+  private final long id;
+
+  private SessionId(final long id) {
+    this.id = id;
+  }
+
+  /**
+   * @return A session different from all the ones created before
+   */
+  @NotNull
+  public static SessionId create() {
+    return new SessionId(lastId.incrementAndGet());
+  }
+
+  /**
+   * @return true if an event of the given session is for this one:
+   *         it is the same session or one of them is BROADCAST
+   */
+  public boolean matches(@NotNull final SessionId sessionId) {
+    return equals(sessionId) || this == BROADCAST || sessionId == BROADCAST;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    return this == o || o instanceof SessionId && ((SessionId) o).id == id;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(id);
+  }
+
+  @Override
+  public String toString() {
+    return this == BROADCAST ? "session-broadcast" : "session-" + id;
+  }
+}
@@ -2,19 +2,51 @@ package com.besaba.revonline.snippetide.api.events.compile;
 
 import com.besaba.revonline.snippetide.api.compiler.CompilationResult;
 import com.besaba.revonline.snippetide.api.events.Event;
+import com.besaba.revonline.snippetide.api.events.SessionId;
 import com.besaba.revonline.snippetide.api.language.Language;
 
-import java.util.List;
-
 public class CompileFinishedEvent extends Event<Language> {
   private final CompilationResult compilationResult;
+  private final boolean background;
+  private final SessionId sessionId;
 
+  /**
+   * @deprecated The result is for every session, use the constructor with the CompileStartEvent
+   */
+  @Deprecated
   public CompileFinishedEvent(final Language target, final CompilationResult compilationResult) {
+    this(target, SessionId.BROADCAST, compilationResult, false);
+  }
+
+  /**
+   * @param request The CompileStartEvent this event answers
+   */
+  public CompileFinishedEvent(final Language target, final CompileStartEvent request, final CompilationResult compilationResult) {
+    this(target, request.getSessionId(), compilationResult, request.isBackground());
+  }
+
+  /**
+   * @param background true if it's the answer to a background CompileStartEvent
+   */
+  public CompileFinishedEvent(final Language target,
+                              final SessionId sessionId,
+                              final CompilationResult compilationResult,
+                              final boolean background) {
     super(target);
     this.compilationResult = compilationResult;
+    this.background = background;
+    this.sessionId = sessionId;
   }
 
   public CompilationResult getCompilationResult() {
     return compilationResult;
   }
+
+  public boolean isBackground() {
+    return background;
+  }
+
+  public SessionId getSessionId() {
+    return sessionId;
+  }
 }
@@ -0,0 +1,35 @@
+package com.besaba.revonline.snippetide.api.events.compile;
+
+import com.besaba.revonline.snippetide.api.compiler.CompilationProblem;
+import com.besaba.revonline.snippetide.api.events.Event;
+import com.besaba.revonline.snippetide.api.events.SessionId;
+import com.besaba.revonline.snippetide.api.language.Language;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * Posted by a language while it's still compiling, with the problems
+ * found since the previous CompileProgressEvent of the same compile.
+ *
+ * <p>The CompileFinishedEvent which follows has all the problems anyway,
+ * a language which can't report them earlier doesn't have to post it.</p>
+ */
+public class CompileProgressEvent extends Event<Language> {
+  private final ImmutableList<CompilationProblem> problems;
+  private final SessionId sessionId;
+
+  public CompileProgressEvent(final Language target, final SessionId sessionId, final List<CompilationProblem> problems) {
+    super(target);
+    this.problems = ImmutableList.copyOf(problems);
+    this.sessionId = sessionId;
+  }
+
+  public ImmutableList<CompilationProblem> getProblems() {
+    return problems;
+  }
+
+  public SessionId getSessionId() {
+    return sessionId;
+  }
+}
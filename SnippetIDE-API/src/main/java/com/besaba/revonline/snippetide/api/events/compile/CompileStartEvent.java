@@ -1,6 +1,7 @@
 package com.besaba.revonline.snippetide.api.events.compile;
 
 import com.besaba.revonline.snippetide.api.events.Event;
+import com.besaba.revonline.snippetide.api.events.SessionId;
 import com.besaba.revonline.snippetide.api.language.Language;
 
 import java.nio.file.Path;
@@ -8,11 +9,19 @@ import java.nio.file.Path;
 public class CompileStartEvent extends Event<Language> {
   private final Path sourceFile;
   private final Path outputDirectory;
+  private final boolean background;
+  private final SessionId sessionId;
 
-  CompileStartEvent(final Language target, Path sourceFile, Path outputDirectory) {
+  CompileStartEvent(final Language target,
+                    final Path sourceFile,
+                    final Path outputDirectory,
+                    final boolean background,
+                    final SessionId sessionId) {
     super(target);
     this.sourceFile = sourceFile;
     this.outputDirectory = outputDirectory;
+    this.background = background;
+    this.sessionId = sessionId;
   }
 
   public Path getSourceFile() {
@@ -23,4 +32,21 @@ public class CompileStartEvent extends Event<Language> {
     return outputDirectory;
   }
 
+  /**
+   * The IDE compiles the snippet while the user isn't typing, nobody is waiting
+   * for the result: compile it at low priority and answer with
+   * a background CompileFinishedEvent.
+   */
+  public boolean isBackground() {
+    return background;
+  }
+
+  /**
+   * The CompileProgressEvent and CompileFinishedEvent which answer
+   * this request must have the same session.
+   */
+  public SessionId getSessionId() {
+    return sessionId;
+  }
+
 }
@@ -1,5 +1,6 @@
 package com.besaba.revonline.snippetide.api.events.compile;
 
+import com.besaba.revonline.snippetide.api.events.SessionId;
 import com.besaba.revonline.snippetide.api.language.Language;
 
 import java.nio.file.Path;
@@ -8,6 +9,8 @@ public class CompileStartEventBuilder {
   private Language target;
   private Path sourceFile;
   private Path outputDirectory;
+  private boolean background;
+  private SessionId sessionId;
 
   public CompileStartEventBuilder setTarget(final Language target) {
     this.target = target;
@@ -24,11 +27,26 @@ public class CompileStartEventBuilder {
     return this;
   }
 
+  public CompileStartEventBuilder setBackground(final boolean background) {
+    this.background = background;
+    return this;
+  }
+
+  /**
+   * If not set the compile has a session of its own
+   */
+  public CompileStartEventBuilder setSessionId(final SessionId sessionId) {
+    this.sessionId = sessionId;
+    return this;
+  }
+
   public CompileStartEvent build() {
     return new CompileStartEvent(
         target,
         sourceFile,
-        outputDirectory
+        outputDirectory,
+        background,
+        sessionId != null ? sessionId : SessionId.create()
     );
   }
 }
@@ -0,0 +1,43 @@
+package com.besaba.revonline.snippetide.api.events.run;
+
+import com.besaba.revonline.snippetide.api.events.Event;
+import com.besaba.revonline.snippetide.api.events.SessionId;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Posted by the IDE while it sends the input file of the run configuration
+ * to the process of the snippet, the last one has getSentBytes() == getTotalBytes().
+ */
+public class InputProgressEvent extends Event<Void> {
+  @NotNull
+  private final SessionId sessionId;
+  private final long sentBytes;
+  private final long totalBytes;
+
+  /**
+   * @param sessionId The session of the RunStartEvent
+   */
+  public InputProgressEvent(@NotNull final SessionId sessionId, final long sentBytes, final long totalBytes) {
+    super(null);
+    this.sessionId = sessionId;
+    this.sentBytes = sentBytes;
+    this.totalBytes = totalBytes;
+  }
+
+  @NotNull
+  public SessionId getSessionId() {
+    return sessionId;
+  }
+
+  public long getSentBytes() {
+    return sentBytes;
+  }
+
+  public long getTotalBytes() {
+    return totalBytes;
+  }
+
+  public boolean isCompleted() {
+    return sentBytes == totalBytes;
+  }
+}
@@ -1,19 +1,39 @@
 package com.besaba.revonline.snippetide.api.events.run;
 
 import com.besaba.revonline.snippetide.api.events.Event;
+import com.besaba.revonline.snippetide.api.events.SessionId;
 import org.jetbrains.annotations.NotNull;
 
 public class MessageFromProcess extends Event<Void> {
   @NotNull
   private final String message;
+  @NotNull
+  private final SessionId sessionId;
 
+  /**
+   * @deprecated The message is shown by every session, use the constructor with the SessionId
+   */
+  @Deprecated
   public MessageFromProcess(final @NotNull String message) {
+    this(SessionId.BROADCAST, message);
+  }
+
+  /**
+   * @param sessionId The session of the RunStartEvent
+   */
+  public MessageFromProcess(final @NotNull SessionId sessionId, final @NotNull String message) {
     super(null);
     this.message = message;
+    this.sessionId = sessionId;
   }
 
   @NotNull
   public String getMessage() {
     return message;
   }
+
+  @NotNull
+  public SessionId getSessionId() {
+    return sessionId;
+  }
 }
@@ -0,0 +1,61 @@
+package com.besaba.revonline.snippetide.api.events.run;
+
+import com.besaba.revonline.snippetide.api.events.Event;
+import com.besaba.revonline.snippetide.api.events.SessionId;
+import com.besaba.revonline.snippetide.api.run.ResourceUsage;
+import com.besaba.revonline.snippetide.api.run.RunLimit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Posted by the IDE when the external process of a run has ended,
+ * after its last MessageFromProcess.
+ *
+ * @see RunInformationEvent#needExternalProcess()
+ */
+public class RunFinishedEvent extends Event<Void> {
+  @NotNull
+  private final SessionId sessionId;
+  private final int exitCode;
+  @NotNull
+  private final ResourceUsage resourceUsage;
+  @Nullable
+  private final RunLimit exceededLimit;
+
+  /**
+   * @param sessionId The session of the RunStartEvent
+   * @param exceededLimit The limit which made the IDE kill the process, null if it ended by itself
+   */
+  public RunFinishedEvent(@NotNull final SessionId sessionId,
+                          final int exitCode,
+                          @NotNull final ResourceUsage resourceUsage,
+                          @Nullable final RunLimit exceededLimit) {
+    super(null);
+    this.sessionId = sessionId;
+    this.exitCode = exitCode;
+    this.resourceUsage = resourceUsage;
+    this.exceededLimit = exceededLimit;
+  }
+
+  @NotNull
+  public SessionId getSessionId() {
+    return sessionId;
+  }
+
+  public int getExitCode() {
+    return exitCode;
+  }
+
+  @NotNull
+  public ResourceUsage getResourceUsage() {
+    return resourceUsage;
+  }
+
+  /**
+   * @return The limit which made the IDE kill the process, null if it ended by itself
+   */
+  @Nullable
+  public RunLimit getExceededLimit() {
+    return exceededLimit;
+  }
+}
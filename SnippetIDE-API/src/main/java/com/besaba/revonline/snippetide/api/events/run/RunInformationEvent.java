@@ -1,6 +1,7 @@
 package com.besaba.revonline.snippetide.api.events.run;
 
 import com.besaba.revonline.snippetide.api.events.Event;
+import com.besaba.revonline.snippetide.api.events.SessionId;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -16,10 +17,14 @@ public class RunInformationEvent extends Event<Void> {
   private final boolean externalProcess;
 
   public RunInformationEvent(   @Nullable final String command,
-                                @Nullable final RunStartEvent runStartEvent) {
+                                @NotNull final RunStartEvent runStartEvent) {
     this(command, runStartEvent, true);
   }
 
+  /**
+   * @param runStartEvent Null only for the plugins built before sessions existed,
+   *                      see {@link #noExternalProcess()}
+   */
   public RunInformationEvent(@Nullable final String command, @Nullable final RunStartEvent runStartEvent, final boolean externalProcess) {
     super(null);
     this.command = command;
@@ -27,20 +32,36 @@ public class RunInformationEvent extends Event<Void> {
     this.externalProcess = externalProcess;
   }
 
+  /**
+   * @deprecated Doesn't say which request it answers, use noExternalProcess(RunStartEvent)
+   */
+  @Deprecated
   public static RunInformationEvent noExternalProcess() {
     return new RunInformationEvent(null, null, false);
   }
 
+  public static RunInformationEvent noExternalProcess(@NotNull final RunStartEvent runStartEvent) {
+    return new RunInformationEvent(null, runStartEvent, false);
+  }
+
   @Nullable
   public String getCommand() {
     return command;
   }
 
+  /**
+   * @return Null only if the event has been created with the deprecated {@link #noExternalProcess()}
+   */
   @Nullable
   public RunStartEvent getRunStartEvent() {
     return runStartEvent;
   }
 
+  @NotNull
+  public SessionId getSessionId() {
+    return runStartEvent != null ? runStartEvent.getSessionId() : SessionId.BROADCAST;
+  }
+
   public boolean needExternalProcess() {
     return externalProcess;
   }
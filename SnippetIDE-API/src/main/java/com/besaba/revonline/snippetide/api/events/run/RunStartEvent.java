@@ -1,6 +1,7 @@
 package com.besaba.revonline.snippetide.api.events.run;
 
 import com.besaba.revonline.snippetide.api.events.Event;
+import com.besaba.revonline.snippetide.api.events.SessionId;
 import com.besaba.revonline.snippetide.api.language.Language;
 import com.besaba.revonline.snippetide.api.datashare.DataContainer;
 import org.jetbrains.annotations.NotNull;
@@ -31,15 +32,30 @@ public class RunStartEvent extends Event<Language> {
   private final Path temporaryDirectory;
   @NotNull
   private final DataContainer dataContainer;
+  @NotNull
+  private final SessionId sessionId;
 
+  /**
+   * @deprecated The answers are for every session, use the constructor with the SessionId
+   */
+  @Deprecated
   public RunStartEvent(@NotNull final Language target,
                        @NotNull final Path sourceFile,
                        @NotNull final Path temporaryDirectory,
                        @NotNull final DataContainer dataContainer) {
+    this(target, sourceFile, temporaryDirectory, dataContainer, SessionId.BROADCAST);
+  }
+
+  public RunStartEvent(@NotNull final Language target,
+                       @NotNull final Path sourceFile,
+                       @NotNull final Path temporaryDirectory,
+                       @NotNull final DataContainer dataContainer,
+                       @NotNull final SessionId sessionId) {
     super(target);
     this.sourceFile = sourceFile;
     this.temporaryDirectory = temporaryDirectory;
     this.dataContainer = dataContainer;
+    this.sessionId = sessionId;
   }
 
   @NotNull
@@ -56,4 +72,13 @@ public class RunStartEvent extends Event<Language> {
   public DataContainer getDataContainer() {
     return dataContainer;
   }
+
+  /**
+   * The RunInformationEvent and the messages of the run
+   * must have the same session.
+   */
+  @NotNull
+  public SessionId getSessionId() {
+    return sessionId;
+  }
 }
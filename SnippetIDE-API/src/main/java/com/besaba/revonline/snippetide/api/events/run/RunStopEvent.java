@@ -0,0 +1,41 @@
+package com.besaba.revonline.snippetide.api.events.run;
+
+import com.besaba.revonline.snippetide.api.events.Event;
+import com.besaba.revonline.snippetide.api.events.SessionId;
+import com.besaba.revonline.snippetide.api.language.Language;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Event sent when the user wants to stop the running snippet.
+ *
+ * The IDE stops the external processes by itself, but a language
+ * which runs the snippet inside the IDE (see RunInformationEvent.noExternalProcess)
+ * should listen to this event and stop its work.
+ *
+ * @see RunInformationEvent
+ */
+public class RunStopEvent extends Event<Language> {
+  @NotNull
+  private final SessionId sessionId;
+
+  /**
+   * @deprecated Stops the runs of every session, use the constructor with the SessionId
+   */
+  @Deprecated
+  public RunStopEvent(@NotNull final Language target) {
+    this(target, SessionId.BROADCAST);
+  }
+
+  /**
+   * @param sessionId The session of the run to stop
+   */
+  public RunStopEvent(@NotNull final Language target, @NotNull final SessionId sessionId) {
+    super(target);
+    this.sessionId = sessionId;
+  }
+
+  @NotNull
+  public SessionId getSessionId() {
+    return sessionId;
+  }
+}
@@ -1,16 +1,37 @@
 package com.besaba.revonline.snippetide.api.events.run;
 
 import com.besaba.revonline.snippetide.api.events.Event;
+import org.jetbrains.annotations.NotNull;
+import com.besaba.revonline.snippetide.api.events.SessionId;
 
 public class SendMessageToProcessEvent extends Event<Void> {
   private final String message;
+  @NotNull
+  private final SessionId sessionId;
 
+  /**
+   * @deprecated Every running process receives the message, use the constructor with the SessionId
+   */
+  @Deprecated
   public SendMessageToProcessEvent(final String message) {
+    this(SessionId.BROADCAST, message);
+  }
+
+  /**
+   * @param sessionId The session of the run which receives the message
+   */
+  public SendMessageToProcessEvent(@NotNull final SessionId sessionId, final String message) {
     super(null);
     this.message = message;
+    this.sessionId = sessionId;
   }
 
   public String getMessage() {
     return message;
   }
+
+  @NotNull
+  public SessionId getSessionId() {
+    return sessionId;
+  }
 }
@@ -3,17 +3,30 @@ package com.besaba.revonline.snippetide.api.events.share;
 import com.besaba.revonline.snippetide.api.events.Event;
 import com.besaba.revonline.snippetide.api.shareservices.ShareService;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class ShareCompletedEvent extends Event<Void> {
   @NotNull
   private final String data;
   @NotNull
   private final ShareService service;
+  @Nullable
+  private final String requestId;
 
   public ShareCompletedEvent(@NotNull final String data, @NotNull final ShareService service) {
+    this(data, service, null);
+  }
+
+  /**
+   * @param requestId The id of the ShareRequestEvent which has been completed
+   */
+  public ShareCompletedEvent(@NotNull final String data,
+                             @NotNull final ShareService service,
+                             @Nullable final String requestId) {
     super(null);
     this.data = data;
     this.service = service;
+    this.requestId = requestId;
   }
 
   @NotNull
@@ -25,4 +38,12 @@ public class ShareCompletedEvent extends Event<Void> {
   public ShareService getService() {
     return service;
   }
+
+  /**
+   * @return The id of the ShareRequestEvent, null if the service doesn't give it back
+   */
+  @Nullable
+  public String getRequestId() {
+    return requestId;
+  }
 }
@@ -12,12 +12,25 @@ public class ShareFailedEvent extends Event<Void> {
   private final String reason;
   @NotNull
   private final ShareService service;
+  @Nullable
+  private final String requestId;
 
   public ShareFailedEvent(final @Nullable Throwable throwable, final @NotNull String reason, final @NotNull ShareService service) {
+    this(throwable, reason, service, null);
+  }
+
+  /**
+   * @param requestId The id of the ShareRequestEvent which has failed
+   */
+  public ShareFailedEvent(final @Nullable Throwable throwable,
+                          final @NotNull String reason,
+                          final @NotNull ShareService service,
+                          final @Nullable String requestId) {
     super(null);
     this.throwable = throwable;
     this.reason = reason;
     this.service = service;
+    this.requestId = requestId;
   }
 
   @Nullable
@@ -34,4 +47,12 @@ public class ShareFailedEvent extends Event<Void> {
   public ShareService getService() {
     return service;
   }
+
+  /**
+   * @return The id of the ShareRequestEvent, null if the service doesn't give it back
+   */
+  @Nullable
+  public String getRequestId() {
+    return requestId;
+  }
 }
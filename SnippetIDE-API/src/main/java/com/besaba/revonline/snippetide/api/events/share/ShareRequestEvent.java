@@ -5,6 +5,7 @@ import com.besaba.revonline.snippetide.api.events.Event;
 import com.besaba.revonline.snippetide.api.language.Language;
 import com.besaba.revonline.snippetide.api.shareservices.ShareService;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class ShareRequestEvent extends Event<ShareService> {
   @NotNull
@@ -15,17 +16,33 @@ public class ShareRequestEvent extends Event<ShareService> {
   private final Language language;
   @NotNull
   private final DataContainer parameters;
+  @Nullable
+  private final String requestId;
 
   public ShareRequestEvent(@NotNull final ShareService target,
                            @NotNull final String fileName,
                            @NotNull final String code,
                            @NotNull final Language language,
                            @NotNull final DataContainer parameters) {
+    this(target, fileName, code, language, parameters, null);
+  }
+
+  /**
+   * @param requestId Identifies this request, the service should give it back in the
+   *                  ShareCompletedEvent or ShareFailedEvent which answers it
+   */
+  public ShareRequestEvent(@NotNull final ShareService target,
+                           @NotNull final String fileName,
+                           @NotNull final String code,
+                           @NotNull final Language language,
+                           @NotNull final DataContainer parameters,
+                           @Nullable final String requestId) {
     super(target, true);
     this.fileName = fileName;
     this.code = code;
     this.language = language;
     this.parameters = parameters;
+    this.requestId = requestId;
   }
 
   @NotNull
@@ -47,4 +64,12 @@ public class ShareRequestEvent extends Event<ShareService> {
   public DataContainer getParameters() {
     return parameters;
   }
+
+  /**
+   * @return The id to give back in the answer, null if nobody needs it
+   */
+  @Nullable
+  public String getRequestId() {
+    return requestId;
+  }
 }
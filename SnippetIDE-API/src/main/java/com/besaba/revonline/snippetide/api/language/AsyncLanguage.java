@@ -0,0 +1,70 @@
+package com.besaba.revonline.snippetide.api.language;
+
+import com.besaba.revonline.snippetide.api.compiler.CompilationProblem;
+import com.besaba.revonline.snippetide.api.compiler.CompilationResult;
+import com.besaba.revonline.snippetide.api.events.compile.CompileStartEvent;
+import com.besaba.revonline.snippetide.api.events.run.RunInformationEvent;
+import com.besaba.revonline.snippetide.api.events.run.RunStartEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * A language which can be called directly instead of with events.
+ *
+ * If your language implements it the IDE calls these methods and
+ * doesn't post CompileStartEvent and RunStartEvent to it, so you don't have to
+ * check the target or post the answers: just complete the future.
+ * The IDE can then chain compile and run, stop waiting after a timeout
+ * or cancel a request which isn't needed anymore.
+ *
+ * The requests are the same events of the event protocol. Other components
+ * can still post them, so you should keep answering them too (the
+ * subscriber can call these methods and post what they return).
+ *
+ * A language which doesn't implement it keeps working: the IDE wraps it in an
+ * adapter which posts the events and completes the futures with the answers.
+ *
+ * @see Language
+ */
+public interface AsyncLanguage extends Language {
+  /**
+   * Compiles the snippet.
+   *
+   * The future is cancelled if the compile has been superseded by a newer compile of
+   * the same session, and if the caller cancels it the language should stop compiling.
+   *
+   * @param request What to compile, see CompileStartEvent
+   * @param progress Receives the problems while the language is still compiling,
+   *                 from any thread. A language which can't report them earlier
+   *                 doesn't have to call it, the result has all the problems anyway.
+   * @return The result of the compilation, completed in any thread
+   */
+  @NotNull
+  CompletableFuture<CompilationResult> compile(@NotNull final CompileStartEvent request,
+                                               @NotNull final Consumer<List<CompilationProblem>> progress);
+
+  /**
+   * Prepares the run of a snippet.
+   *
+   * The IDE calls it after a successful compile of the same snippet, a language
+   * which needs the compiled snippet can reuse it. The output of the run still
+   * arrives with MessageFromProcess events.
+   *
+   * @param request What to run, see RunStartEvent
+   * @return What the IDE has to run, see RunInformationEvent. The future fails if
+   *         the snippet can't be run, the message of the exception is shown to the user.
+   */
+  @NotNull
+  CompletableFuture<RunInformationEvent> run(@NotNull final RunStartEvent request);
+
+  /**
+   * @return false if the snippet can be run without compiling it,
+   *         the IDE won't call compile before run
+   */
+  default boolean needsCompile() {
+    return true;
+  }
+}
@@ -34,13 +34,22 @@ import org.jetbrains.annotations.NotNull;
  *     // ..
  *
  *     // send CompileFinished event to inform the IDE
- *     eventManager.post(new CompileFinishedEvent(this));
+ *     eventManager.post(new CompileFinishedEvent(this, event, compilationResult));
  *   }
  * </code>
  *
  * The method compileSnippetEvent will be invoked when the
  * CompileStartEvent is propagated.
  *
+ * Many windows can compile and run at the same time: every request
+ * has a SessionId and the events you post to answer it must have the same
+ * one, otherwise the result goes nowhere. Don't keep the state of a request
+ * in a single field, two sessions could be using your language.
+ *
+ * A language can implement AsyncLanguage too, the IDE will call it
+ * directly instead of posting the events.
+ *
+ * @see AsyncLanguage
  * @see com.google.common.eventbus.Subscribe
  * @see com.besaba.revonline.snippetide.api.events.manager.EventManager
  */
@@ -96,4 +105,14 @@ public interface Language {
    */
   @NotNull
   StructureDataContainer[] getRunConfigurations();
+
+  /**
+   * @return false if the snippet runs inside the IDE
+   *         (the language answers with RunInformationEvent.noExternalProcess).
+   *         The run configurations then don't get the fields the IDE
+   *         uses to start a process, like the input file and the limits.
+   */
+  default boolean runsExternalProcess() {
+    return true;
+  }
 }
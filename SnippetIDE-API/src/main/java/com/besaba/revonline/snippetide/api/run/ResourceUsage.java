@@ -0,0 +1,157 @@
+package com.besaba.revonline.snippetide.api.run;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * What the process of a run, and the processes it started, used.
+ *
+ * <p>Only the wall time is always known: the other values are read from /proc
+ * and are available only on Linux, see {@link #hasProcessStatistics()}.
+ * They are sampled while the processes are running, so a process which
+ * lives less than the sampling interval may be missing.</p>
+ */
+public class ResourceUsage {
+  private final long wallTimeMillis;
+  private final boolean processStatistics;
+  private final long userCpuMillis;
+  private final long systemCpuMillis;
+  private final long peakResidentBytes;
+  private final long voluntaryContextSwitches;
+  private final long involuntaryContextSwitches;
+  private final long readBytes;
+  private final long writtenBytes;
+
+  private ResourceUsage(final Builder builder) {
+    this.wallTimeMillis = builder.wallTimeMillis;
+    this.processStatistics = builder.processStatistics;
+    this.userCpuMillis = builder.userCpuMillis;
+    this.systemCpuMillis = builder.systemCpuMillis;
+    this.peakResidentBytes = builder.peakResidentBytes;
+    this.voluntaryContextSwitches = builder.voluntaryContextSwitches;
+    this.involuntaryContextSwitches = builder.involuntaryContextSwitches;
+    this.readBytes = builder.readBytes;
+    this.writtenBytes = builder.writtenBytes;
+  }
+
+  public long getWallTimeMillis() {
+    return wallTimeMillis;
+  }
+
+  /**
+   * @return false if only the wall time is known
+   */
+  public boolean hasProcessStatistics() {
+    return processStatistics;
+  }
+
+  public long getUserCpuMillis() {
+    return userCpuMillis;
+  }
+
+  public long getSystemCpuMillis() {
+    return systemCpuMillis;
+  }
+
+  /**
+   * @return The most memory the processes had in RAM at the same time
+   */
+  public long getPeakResidentBytes() {
+    return peakResidentBytes;
+  }
+
+  public long getVoluntaryContextSwitches() {
+    return voluntaryContextSwitches;
+  }
+
+  public long getInvoluntaryContextSwitches() {
+    return involuntaryContextSwitches;
+  }
+
+  /**
+   * @return Bytes read from files, pipes (the input too) and sockets
+   */
+  public long getReadBytes() {
+    return readBytes;
+  }
+
+  /**
+   * @return Bytes written to files, pipes (the output too) and sockets
+   */
+  public long getWrittenBytes() {
+    return writtenBytes;
+  }
+
+  @Override
+  public String toString() {
+    if (!processStatistics) {
+      return "Time " + wallTimeMillis + " ms";
+    }
+
+    return "Time " + wallTimeMillis + " ms"
+        + ", CPU " + userCpuMillis + " ms user + " + systemCpuMillis + " ms system"
+        + ", peak memory " + formatBytes(peakResidentBytes)
+        + ", context switches " + voluntaryContextSwitches + " voluntary + " + involuntaryContextSwitches + " involuntary"
+        + ", read " + formatBytes(readBytes)
+        + ", written " + formatBytes(writtenBytes);
+  }
+
+  @NotNull
+  private static String formatBytes(final long bytes) {
+    if (bytes < 1024) {
+      return bytes + " B";
+    }
+
+    if (bytes < 1024 * 1024) {
+      return String.format("%.1f KB", bytes / 1024.0);
+    }
+
+    return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+  }
+
+  public static class Builder {
+    private final long wallTimeMillis;
+    private boolean processStatistics;
+    private long userCpuMillis;
+    private long systemCpuMillis;
+    private long peakResidentBytes;
+    private long voluntaryContextSwitches;
+    private long involuntaryContextSwitches;
+    private long readBytes;
+    private long writtenBytes;
+
+    public Builder(final long wallTimeMillis) {
+      this.wallTimeMillis = wallTimeMillis;
+    }
+
+    /**
+     * Without the CPU time the processes haven't been measured, see hasProcessStatistics()
+     */
+    public Builder setCpuMillis(final long userCpuMillis, final long systemCpuMillis) {
+      this.processStatistics = true;
+      this.userCpuMillis = userCpuMillis;
+      this.systemCpuMillis = systemCpuMillis;
+      return this;
+    }
+
+    public Builder setPeakResidentBytes(final long peakResidentBytes) {
+      this.peakResidentBytes = peakResidentBytes;
+      return this;
+    }
+
+    public Builder setContextSwitches(final long voluntaryContextSwitches, final long involuntaryContextSwitches) {
+      this.voluntaryContextSwitches = voluntaryContextSwitches;
+      this.involuntaryContextSwitches = involuntaryContextSwitches;
+      return this;
+    }
+
+    public Builder setIo(final long readBytes, final long writtenBytes) {
+      this.readBytes = readBytes;
+      this.writtenBytes = writtenBytes;
+      return this;
+    }
+
+    public ResourceUsage create() {
+      return new ResourceUsage(this);
+    }
+  }
+}
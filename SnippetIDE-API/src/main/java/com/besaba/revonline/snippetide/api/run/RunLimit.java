@@ -0,0 +1,12 @@
+package com.besaba.revonline.snippetide.api.run;
+
+/**
+ * The limits the IDE enforces on the external process of a run,
+ * the process is killed when one of them is exceeded.
+ */
+public enum RunLimit {
+  WallTime,
+  CpuTime,
+  Memory,
+  Output
+}
@@ -0,0 +1,59 @@
+package com.besaba.revonline.snippetide.api.events;
+
+import com.besaba.revonline.snippetide.api.events.compile.CompileStartEvent;
+import com.besaba.revonline.snippetide.api.events.compile.CompileStartEventBuilder;
+import com.besaba.revonline.snippetide.api.events.run.MessageFromProcess;
+import com.besaba.revonline.snippetide.api.events.run.RunInformationEvent;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SessionIdTest {
+  @Test
+  public void testEverySessionIsDifferent() throws Exception {
+    final SessionId first = SessionId.create();
+    final SessionId second = SessionId.create();
+
+    assertNotEquals(first, second);
+    assertEquals(first, first);
+    assertNotEquals(first.toString(), second.toString());
+  }
+
+  @Test
+  public void testCompileStartEventHasTheSessionOfTheBuilder() throws Exception {
+    final SessionId sessionId = SessionId.create();
+
+    final CompileStartEvent event = new CompileStartEventBuilder()
+        .setSessionId(sessionId)
+        .build();
+
+    assertEquals(sessionId, event.getSessionId());
+  }
+
+  @Test
+  public void testCompileStartEventWithoutSessionHasOneOfItsOwn() throws Exception {
+    final CompileStartEvent first = new CompileStartEventBuilder().build();
+    final CompileStartEvent second = new CompileStartEventBuilder().build();
+
+    assertNotNull(first.getSessionId());
+    assertNotEquals(first.getSessionId(), second.getSessionId());
+  }
+
+  @Test
+  public void testBroadcastMatchesEverySession() throws Exception {
+    final SessionId first = SessionId.create();
+    final SessionId second = SessionId.create();
+
+    assertTrue(first.matches(first));
+    assertFalse(first.matches(second));
+    assertTrue(first.matches(SessionId.BROADCAST));
+    assertTrue(SessionId.BROADCAST.matches(second));
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testEventsWithoutSessionAreBroadcast() throws Exception {
+    assertEquals(SessionId.BROADCAST, new MessageFromProcess("message").getSessionId());
+    assertEquals(SessionId.BROADCAST, RunInformationEvent.noExternalProcess().getSessionId());
+  }
+}
@@ -0,0 +1,52 @@
+@echo off
+rem Starts SnippetIDE using a class data sharing archive (AppCDS), see snippetide.sh
+setlocal
+
+cd /d "%~dp0"
+
+set JAVA=java
+if defined JAVA_HOME set JAVA="%JAVA_HOME%\bin\java"
+
+set CDS_DIRECTORY=SnippetIDE\cds
+set ARCHIVE=%CDS_DIRECTORY%\snippetide.jsa
+set STAMP=%CDS_DIRECTORY%\snippetide.stamp
+
+%JAVA% -XX:+PrintFlagsFinal -version 2>nul | findstr /c:"ArchiveClassesAtExit" >nul
+if errorlevel 1 goto withoutArchive
+
+if not exist %CDS_DIRECTORY% mkdir %CDS_DIRECTORY%
+
+rem the size and the date of every jar which ends up in the archive and the version of the JVM
+(
+  for %%f in (SnippetIDE.jar Preloader.jar libs\*.jar SnippetIDE\plugins\*.jar) do echo %%f %%~zf %%~tf
+  %JAVA% -version 2>&1
+) > %STAMP%.new
+
+if not exist %ARCHIVE% goto createArchive
+if not exist %STAMP% goto createArchive
+fc /b %STAMP% %STAMP%.new >nul
+if errorlevel 1 goto createArchive
+
+del %STAMP%.new
+%JAVA% -XX:SharedArchiveFile=%ARCHIVE% -Xshare:auto -jar SnippetIDE.jar %*
+exit /b %errorlevel%
+
+:createArchive
+if exist %ARCHIVE% del /f %ARCHIVE%
+if exist %STAMP% del %STAMP%
+%JAVA% -XX:ArchiveClassesAtExit=%ARCHIVE% -jar SnippetIDE.jar %*
+set EXIT_CODE=%errorlevel%
+
+rem an archive written by a crashed JVM is not used
+if not %EXIT_CODE% equ 0 goto discardStamp
+if not exist %ARCHIVE% goto discardStamp
+move /y %STAMP%.new %STAMP% >nul
+exit /b %EXIT_CODE%
+
+:discardStamp
+del %STAMP%.new
+exit /b %EXIT_CODE%
+
+:withoutArchive
+%JAVA% -jar SnippetIDE.jar %*
+exit /b %errorlevel%
@@ -0,0 +1,45 @@
+#!/bin/sh
+# Starts SnippetIDE using a class data sharing archive (AppCDS).
+#
+# The first run writes the classes loaded by the IDE and by the plugins
+# in SnippetIDE/cds/snippetide.jsa, the next runs map them from the archive
+# instead of loading and verifying them again. The gain on the start of the
+# IDE hasn't been measured, it needs Java 13+ with JavaFX.
+# The archive is created again when a jar (or the java version) changes.
+# With a JVM which can't create the archive (before Java 13) the IDE is
+# simply started, and a broken archive is ignored by the JVM (-Xshare:auto).
+
+cd "$(dirname "$0")" || exit 1
+
+JAVA=java
+if [ -n "$JAVA_HOME" ]; then
+  JAVA="$JAVA_HOME/bin/java"
+fi
+
+CDS_DIRECTORY=SnippetIDE/cds
+ARCHIVE=$CDS_DIRECTORY/snippetide.jsa
+STAMP=$CDS_DIRECTORY/snippetide.stamp
+
+if ! "$JAVA" -XX:+PrintFlagsFinal -version 2>/dev/null | grep -q ArchiveClassesAtExit; then
+  exec "$JAVA" -jar SnippetIDE.jar "$@"
+fi
+
+mkdir -p $CDS_DIRECTORY
+
+# the checksum of every jar which ends up in the archive and the version of the JVM
+CURRENT_STAMP=$( (cksum SnippetIDE.jar Preloader.jar libs/*.jar SnippetIDE/plugins/*.jar 2>/dev/null; "$JAVA" -version 2>&1) | cksum)
+
+if [ -f $ARCHIVE ] && [ -f $STAMP ] && [ "$(cat $STAMP)" = "$CURRENT_STAMP" ]; then
+  exec "$JAVA" -XX:SharedArchiveFile=$ARCHIVE -Xshare:auto -jar SnippetIDE.jar "$@"
+fi
+
+rm -f $ARCHIVE $STAMP
+"$JAVA" -XX:ArchiveClassesAtExit=$ARCHIVE -jar SnippetIDE.jar "$@"
+EXIT_CODE=$?
+
+# an archive written by a crashed JVM is not used
+if [ $EXIT_CODE -eq 0 ] && [ -f $ARCHIVE ]; then
+  echo "$CURRENT_STAMP" > $STAMP
+fi
+
+exit $EXIT_CODE